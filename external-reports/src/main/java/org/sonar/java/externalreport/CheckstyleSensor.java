@@ -21,23 +21,21 @@ package org.sonar.java.externalreport;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLStreamException;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
-import org.sonar.api.utils.log.Logger;
-import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.externalreport.ExternalReportImporter.PendingIssue;
 import org.sonarsource.analyzer.commons.ExternalReportProvider;
 import org.sonarsource.analyzer.commons.ExternalRuleLoader;
 
-import static org.sonar.java.externalreport.ExternalIssueUtils.importIfExist;
-
 public class CheckstyleSensor implements Sensor {
 
-  private static final Logger LOG = Loggers.get(CheckstyleSensor.class);
-
   private static final String LINTER_NAME = "Checkstyle";
   private static final String LANGUAGE_KEY = "java";
   public static final String REPORT_PROPERTY_KEY = "sonar.java.checkstyle.reportPaths";
@@ -60,15 +58,12 @@ public class CheckstyleSensor implements Sensor {
   @Override
   public void execute(SensorContext context) {
     List<File> reportFiles = ExternalReportProvider.getReportFiles(context, REPORT_PROPERTY_KEY);
-    reportFiles.forEach(report -> importIfExist(LINTER_NAME, context, report, CheckstyleSensor::importReport));
+    ExternalReportImporter.importReports(context, LINTER_NAME, reportFiles, CheckstyleSensor::readReport);
   }
 
-  private static void importReport(File reportPath, SensorContext context) {
+  private static void readReport(File reportPath, InputFileIndex inputFileIndex, Consumer<PendingIssue> issues) throws XMLStreamException, IOException {
     try (InputStream in = new FileInputStream(reportPath)) {
-      LOG.info("Importing {}", reportPath);
-      CheckstyleXmlReportReader.read(context, in, CheckstyleSensor::saveIssue);
-    } catch (Exception e) {
-      LOG.error("Failed to import external issues report: " + reportPath, e);
+      CheckstyleXmlReportReader.read(inputFileIndex, in, CheckstyleSensor::saveIssue, issues);
     }
   }
 
@@ -21,18 +21,17 @@ package org.sonar.java.externalreport;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
-import org.sonar.api.batch.fs.FilePredicates;
+import javax.xml.stream.XMLStreamReader;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.externalreport.ExternalReportImporter.PendingIssue;
 import org.sonarsource.analyzer.commons.xml.SafeStaxParserFactory;
 
 class CheckstyleXmlReportReader {
@@ -42,15 +41,16 @@ class CheckstyleXmlReportReader {
   private static final QName CHECKSTYLE = new QName("checkstyle");
   private static final QName FILE = new QName("file");
   private static final QName ERROR = new QName("error");
-  private static final QName NAME = new QName("name");
-  private static final QName SOURCE = new QName("source");
-  private static final QName LINE = new QName("line");
-  private static final QName MESSAGE = new QName("message");
+  private static final String NAME = "name";
+  private static final String SOURCE = "source";
+  private static final String LINE = "line";
+  private static final String MESSAGE = "message";
 
   private static final String CHECKSTYLE_PREFIX = "com.puppycrawl.tools.checkstyle.checks.";
 
-  private final SensorContext context;
+  private final InputFileIndex inputFileIndex;
   private final IssueConsumer consumer;
+  private final Consumer<PendingIssue> issues;
 
   private int level = 0;
 
@@ -62,59 +62,65 @@ class CheckstyleXmlReportReader {
     void onError(SensorContext context, InputFile inputFile, String key, String line, String message);
   }
 
-  private CheckstyleXmlReportReader(SensorContext context, IssueConsumer consumer) {
-    this.context = context;
+  private CheckstyleXmlReportReader(InputFileIndex inputFileIndex, IssueConsumer consumer, Consumer<PendingIssue> issues) {
+    this.inputFileIndex = inputFileIndex;
     this.consumer = consumer;
+    this.issues = issues;
   }
 
-  static void read(SensorContext context, InputStream in, IssueConsumer consumer) throws XMLStreamException, IOException {
-    new CheckstyleXmlReportReader(context, consumer).read(in);
+  static void read(InputFileIndex inputFileIndex, InputStream in, IssueConsumer consumer, Consumer<PendingIssue> issues)
+    throws XMLStreamException, IOException {
+    new CheckstyleXmlReportReader(inputFileIndex, consumer, issues).read(in);
   }
 
   private void read(InputStream in) throws XMLStreamException, IOException {
-    XMLEventReader reader = SafeStaxParserFactory.createXMLInputFactory().createXMLEventReader(in);
-
-    while (reader.hasNext()) {
-      XMLEvent event = reader.nextEvent();
-      if (event.isStartElement()) {
-        level++;
-        onElement(event.asStartElement());
-      } else if (event.isEndElement()) {
-        level--;
+    XMLStreamReader reader = SafeStaxParserFactory.createXMLInputFactory().createXMLStreamReader(in);
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          level++;
+          onElement(reader);
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          level--;
+        }
       }
+    } finally {
+      reader.close();
     }
   }
 
-  private void onElement(StartElement element) throws IOException {
-    if (level == 1 && !CHECKSTYLE.equals(element.getName())) {
-      throw new IOException("Unexpected document root '" + element.getName().getLocalPart() + "' instead of 'checkstyle'.");
-    } else if (level == 2 && FILE.equals(element.getName())) {
-      onFileElement(element);
-    } else if (level == 3 && ERROR.equals(element.getName())) {
-      onErrorElement(element);
+  private void onElement(XMLStreamReader reader) throws IOException {
+    QName name = reader.getName();
+    if (level == 1 && !CHECKSTYLE.equals(name)) {
+      throw new IOException("Unexpected document root '" + name.getLocalPart() + "' instead of 'checkstyle'.");
+    } else if (level == 2 && FILE.equals(name)) {
+      onFileElement(reader);
+    } else if (level == 3 && ERROR.equals(name)) {
+      onErrorElement(reader);
     }
   }
 
-  private void onFileElement(StartElement element) {
-    String filePath = getAttributeValue(element, NAME);
+  private void onFileElement(XMLStreamReader reader) {
+    String filePath = getAttributeValue(reader, NAME);
     if (filePath.isEmpty()) {
       inputFile = null;
       return;
     }
-    FilePredicates predicates = context.fileSystem().predicates();
-    inputFile = context.fileSystem().inputFile(predicates.hasPath(filePath));
+    inputFile = inputFileIndex.inputFile(filePath);
     if (inputFile == null) {
       LOG.warn("No input file found for '{}'. No checkstyle issues will be imported on this file.", filePath);
     }
   }
 
-  private void onErrorElement(StartElement element) {
-    if (inputFile == null) {
+  private void onErrorElement(XMLStreamReader reader) {
+    InputFile errorInputFile = inputFile;
+    if (errorInputFile == null) {
       return;
     }
-    String source = getAttributeValue(element, SOURCE);
-    String line = getAttributeValue(element, LINE);
-    String message = getAttributeValue(element, MESSAGE);
+    String source = getAttributeValue(reader, SOURCE);
+    String line = getAttributeValue(reader, LINE);
+    String message = getAttributeValue(reader, MESSAGE);
     if (!source.startsWith(CHECKSTYLE_PREFIX)) {
       LOG.debug("Unexpected rule key without '{}' prefix: '{}'", CHECKSTYLE_PREFIX, source);
       return;
@@ -124,12 +130,12 @@ class CheckstyleXmlReportReader {
       return;
     }
     String key = source.substring(CHECKSTYLE_PREFIX.length());
-    consumer.onError(context, inputFile, key, line, message);
+    issues.accept(context -> consumer.onError(context, errorInputFile, key, line, message));
   }
 
-  private static String getAttributeValue(StartElement element, QName attributeName) {
-    Attribute attribute = element.getAttributeByName(attributeName);
-    return attribute != null ? attribute.getValue() : "";
+  private static String getAttributeValue(XMLStreamReader reader, String attributeName) {
+    String value = reader.getAttributeValue(null, attributeName);
+    return value != null ? value : "";
   }
 
 }
@@ -0,0 +1,256 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.externalreport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Imports the external reports of a linter. Reports are read in the current thread, or in parallel by a pool of the configured number
+ * of threads. In both cases the sensor context is only used from the current thread: readers resolve files with an {@link InputFileIndex}
+ * and hand their issues over in batches, which are saved report after report, in the order of the reports.
+ */
+final class ExternalReportImporter {
+
+  private static final Logger LOG = Loggers.get(ExternalReportImporter.class);
+
+  public static final String THREADS_KEY = "sonar.java.internal.externalReports.threads";
+
+  static final int BATCH_SIZE = 1_000;
+
+  /**
+   * Bounds the number of issues read ahead of the ones being saved, per report.
+   */
+  private static final int MAX_PENDING_BATCHES = 8;
+
+  @FunctionalInterface
+  interface ReportReader {
+    void read(File reportFile, InputFileIndex inputFileIndex, Consumer<PendingIssue> issues) throws XMLStreamException, IOException;
+  }
+
+  /**
+   * Issue read from a report, which is saved later from the thread executing the sensor.
+   */
+  @FunctionalInterface
+  interface PendingIssue {
+    void save(SensorContext context);
+  }
+
+  private ExternalReportImporter() {
+    // utility class
+  }
+
+  static void importReports(SensorContext context, String linterName, List<File> reportFiles, ReportReader reader) {
+    List<File> existingReportFiles = reportFiles.stream()
+      .filter(reportFile -> {
+        if (!reportFile.exists()) {
+          LOG.warn("{} report not found: {}", linterName, reportFile);
+          return false;
+        }
+        return true;
+      })
+      .collect(Collectors.toList());
+    if (existingReportFiles.isEmpty()) {
+      return;
+    }
+    InputFileIndex inputFileIndex = new InputFileIndex(context.fileSystem());
+    int threads = Math.min(existingReportFiles.size(), Math.max(1, context.config().getInt(THREADS_KEY).orElse(1)));
+    if (threads == 1) {
+      existingReportFiles.forEach(reportFile -> importReport(context, reportFile, reader, inputFileIndex));
+    } else {
+      importReportsInParallel(context, existingReportFiles, reader, inputFileIndex, threads);
+    }
+  }
+
+  private static void importReport(SensorContext context, File reportFile, ReportReader reader, InputFileIndex inputFileIndex) {
+    LOG.info("Importing {}", reportFile);
+    IssueBatcher batcher = new IssueBatcher(issues -> issues.forEach(issue -> issue.save(context)));
+    Exception failure = null;
+    try {
+      reader.read(reportFile, inputFileIndex, batcher);
+    } catch (Exception e) {
+      failure = e;
+    }
+    save(context, reportFile, new Batch(batcher.drain(), failure));
+  }
+
+  private static void importReportsInParallel(SensorContext context, List<File> reportFiles, ReportReader reader, InputFileIndex inputFileIndex,
+    int threads) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "sonar-java-external-report-reader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      // reports are submitted in order, so a report being saved is always being read or already read
+      List<ParallelImport> imports = new ArrayList<>(reportFiles.size());
+      for (File reportFile : reportFiles) {
+        ParallelImport parallelImport = new ParallelImport(reportFile);
+        parallelImport.future = executor.submit(() -> parallelImport.read(reader, inputFileIndex));
+        imports.add(parallelImport);
+      }
+      for (ParallelImport parallelImport : imports) {
+        parallelImport.saveBatches(context);
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted while importing external issues reports.");
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return false if an issue of the batch could not be saved, in which case the remaining issues of the report are ignored
+   */
+  private static boolean save(SensorContext context, File reportFile, Batch batch) {
+    if (batch.failure instanceof Error) {
+      // as when reading in the current thread, errors are not recovered
+      throw (Error) batch.failure;
+    }
+    try {
+      batch.issues.forEach(issue -> issue.save(context));
+    } catch (RuntimeException e) {
+      logFailure(reportFile, e);
+      return false;
+    }
+    if (batch.failure != null) {
+      logFailure(reportFile, batch.failure);
+    }
+    return true;
+  }
+
+  private static void logFailure(File reportFile, Throwable e) {
+    LOG.error("Failed to import external issues report: " + reportFile.getAbsolutePath(), e);
+  }
+
+  private static final class ParallelImport {
+
+    private final File reportFile;
+    private final BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+    private Future<?> future;
+
+    private ParallelImport(File reportFile) {
+      this.reportFile = reportFile;
+    }
+
+    private Void read(ReportReader reader, InputFileIndex inputFileIndex) throws InterruptedException {
+      IssueBatcher batcher = new IssueBatcher(this::handOver);
+      Throwable failure = null;
+      try {
+        reader.read(reportFile, inputFileIndex, batcher);
+      } catch (Exception e) {
+        failure = e;
+      } catch (Error e) {
+        failure = e;
+        throw e;
+      } finally {
+        // the last batch is always handed over, otherwise the sensor thread would wait for it forever
+        batches.put(new Batch(batcher.drain(), failure));
+      }
+      return null;
+    }
+
+    private void handOver(List<PendingIssue> issues) {
+      try {
+        batches.put(new Batch(issues));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Import of " + reportFile + " cancelled.");
+      }
+    }
+
+    private void saveBatches(SensorContext context) throws InterruptedException {
+      LOG.info("Importing {}", reportFile);
+      Batch batch;
+      do {
+        batch = batches.take();
+        if (!save(context, reportFile, batch)) {
+          // unblocks the reader waiting for room in the queue
+          future.cancel(true);
+          return;
+        }
+      } while (!batch.last);
+    }
+
+  }
+
+  private static final class Batch {
+
+    private final List<PendingIssue> issues;
+    private final boolean last;
+    @Nullable
+    private final Throwable failure;
+
+    private Batch(List<PendingIssue> issues) {
+      this.issues = issues;
+      this.last = false;
+      this.failure = null;
+    }
+
+    private Batch(List<PendingIssue> issues, @Nullable Throwable failure) {
+      this.issues = issues;
+      this.last = true;
+      this.failure = failure;
+    }
+
+  }
+
+  private static final class IssueBatcher implements Consumer<PendingIssue> {
+
+    private final Consumer<List<PendingIssue>> handOver;
+    private List<PendingIssue> issues = new ArrayList<>();
+
+    private IssueBatcher(Consumer<List<PendingIssue>> handOver) {
+      this.handOver = handOver;
+    }
+
+    @Override
+    public void accept(PendingIssue issue) {
+      issues.add(issue);
+      if (issues.size() >= BATCH_SIZE) {
+        handOver.accept(drain());
+      }
+    }
+
+    private List<PendingIssue> drain() {
+      List<PendingIssue> drained = issues;
+      issues = new ArrayList<>();
+      return drained;
+    }
+
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.externalreport;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Index of the input files by absolute path, built once per import so that resolving the path of an issue does not query the file
+ * system. It is not modified after its creation and can be shared by the threads reading reports.
+ */
+final class InputFileIndex {
+
+  private final Path baseDir;
+  private final Map<Path, InputFile> inputFilesByPath = new HashMap<>();
+
+  InputFileIndex(FileSystem fileSystem) {
+    baseDir = fileSystem.baseDir().toPath().toAbsolutePath().normalize();
+    for (InputFile inputFile : fileSystem.inputFiles(fileSystem.predicates().all())) {
+      inputFilesByPath.put(Paths.get(inputFile.uri()).normalize(), inputFile);
+    }
+  }
+
+  /**
+   * Same resolution as {@link org.sonar.api.batch.fs.FilePredicates#hasPath(String)}: relative paths are relative to the base directory.
+   */
+  @CheckForNull
+  InputFile inputFile(String path) {
+    Path resolvedPath;
+    try {
+      resolvedPath = baseDir.resolve(path).normalize();
+    } catch (InvalidPathException e) {
+      return null;
+    }
+    return inputFilesByPath.get(resolvedPath);
+  }
+
+}
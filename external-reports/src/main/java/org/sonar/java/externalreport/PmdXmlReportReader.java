@@ -25,22 +25,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
-import org.sonar.api.batch.fs.FilePredicates;
+import javax.xml.stream.XMLStreamReader;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.TextRange;
 import org.sonar.api.batch.rule.Severity;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.issue.NewExternalIssue;
-import org.sonar.api.batch.sensor.issue.NewIssueLocation;
 import org.sonar.api.rules.RuleType;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.externalreport.ExternalReportImporter.PendingIssue;
 import org.sonarsource.analyzer.commons.ExternalRuleLoader;
 import org.sonarsource.analyzer.commons.xml.SafeStaxParserFactory;
 
@@ -50,102 +48,58 @@ public class PmdXmlReportReader {
 
   private static final Map<Integer, Severity> SEVERITIES = severities();
 
-  private final SensorContext context;
   private final File reportFile;
+  private final InputFileIndex inputFileIndex;
   private final ExternalRuleLoader ruleLoader;
+  private final Consumer<PendingIssue> issues;
 
-  private InputFile inputFile = null;
-  private NewExternalIssue issue = null;
-  private NewIssueLocation issueLocation = null;
-  private StringBuilder issueMessage = new StringBuilder();
-
-  public PmdXmlReportReader(SensorContext context, File reportFile, ExternalRuleLoader ruleLoader) {
-    this.context = context;
+  private PmdXmlReportReader(File reportFile, InputFileIndex inputFileIndex, ExternalRuleLoader ruleLoader, Consumer<PendingIssue> issues) {
     this.reportFile = reportFile;
+    this.inputFileIndex = inputFileIndex;
     this.ruleLoader = ruleLoader;
+    this.issues = issues;
   }
 
-  public static void read(SensorContext context, File reportFile, ExternalRuleLoader ruleLoader) throws XMLStreamException, IOException {
-    new PmdXmlReportReader(context, reportFile, ruleLoader).parse();
+  static void read(File reportFile, InputFileIndex inputFileIndex, ExternalRuleLoader ruleLoader, Consumer<PendingIssue> issues)
+    throws XMLStreamException, IOException {
+    new PmdXmlReportReader(reportFile, inputFileIndex, ruleLoader, issues).parse();
   }
 
   private void parse() throws XMLStreamException, IOException {
     try (InputStream inputStream = new FileInputStream(reportFile)) {
-      XMLEventReader reader = SafeStaxParserFactory.createXMLInputFactory().createXMLEventReader(inputStream);
-      while (reader.hasNext()) {
-        onXmlEvent(reader.nextEvent());
-      }
-    }
-  }
-
-  private void onXmlEvent(XMLEvent event) {
-    if (event.isStartElement()) {
-      StartElement element = event.asStartElement();
-      String elementName = element.getName().getLocalPart();
-      if ("file".equals(elementName)) {
-        String filePath = getAttributeValue(element, "name");
-        FilePredicates predicates = context.fileSystem().predicates();
-        inputFile = context.fileSystem().inputFile(predicates.hasPath(filePath));
-        if (inputFile == null) {
-          LOG.warn("No input file found for {}. No PMD issue will be imported on this file.", filePath);
+      XMLStreamReader reader = SafeStaxParserFactory.createXMLInputFactory().createXMLStreamReader(inputStream);
+      try {
+        InputFile inputFile = null;
+        while (reader.hasNext()) {
+          if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            continue;
+          }
+          String elementName = reader.getLocalName();
+          if ("file".equals(elementName)) {
+            inputFile = onFileElement(reader);
+          } else if ("violation".equals(elementName) && inputFile != null) {
+            issues.accept(new Violation(reader, inputFile));
+          }
         }
-      } else if ("violation".equals(elementName) && inputFile != null) {
-        onViolationStartElement(element);
+      } finally {
+        reader.close();
       }
-
-    } else if (event.isCharacters()) {
-      issueMessage.append(event.asCharacters().getData());
-
-    } else if (event.isEndElement()
-      && "violation".equals(event.asEndElement().getName().getLocalPart())
-      && inputFile != null
-      && issue != null) {
-      issueLocation.message(issueMessage.toString());
-      issue.at(issueLocation).save();
     }
   }
 
-  private void onViolationStartElement(StartElement element) {
-    try {
-      TextRange textRange = textRange(element);
-      String ruleId = getAttributeValue(element, "rule");
-      issue = context.newExternalIssue()
-        .engineId(PmdSensor.LINTER_KEY)
-        .ruleId(ruleId)
-        .type(RuleType.CODE_SMELL)
-        .severity(SEVERITIES.get(getAttributeAsInt(element, "priority")))
-        .remediationEffortMinutes(ruleLoader.ruleConstantDebtMinutes(ruleId));
-      issueLocation = issue.newLocation()
-        .on(inputFile)
-        .at(textRange);
-      issueMessage = new StringBuilder();
-    } catch (RuntimeException e) {
-      int lineNumber = element.getLocation().getLineNumber();
-      LOG.warn("Can't import issue at line " + lineNumber + " in " + reportFile + ": " + e.getMessage());
-      issue = null;
+  @CheckForNull
+  private InputFile onFileElement(XMLStreamReader reader) {
+    String filePath = getAttributeValue(reader, "name");
+    InputFile inputFile = inputFileIndex.inputFile(filePath);
+    if (inputFile == null) {
+      LOG.warn("No input file found for {}. No PMD issue will be imported on this file.", filePath);
     }
+    return inputFile;
   }
 
-  private TextRange textRange(StartElement violationElement) {
-    Integer beginLine = getAttributeAsInt(violationElement, "beginline");
-    try {
-      Integer endLine = getAttributeAsInt(violationElement, "endline");
-      Integer beginColumn = getAttributeAsInt(violationElement, "begincolumn");
-      Integer endColumn = getAttributeAsInt(violationElement, "endcolumn");
-      return inputFile.newRange(beginLine, beginColumn - 1, endLine, endColumn);
-    } catch (RuntimeException e) {
-      // Some PMD rules seem to report invalid line offsets, e.g. TooManyStaticImports
-      return inputFile.selectLine(beginLine);
-    }
-  }
-
-  private static String getAttributeValue(StartElement startElement, String attributeName) {
-    Attribute attribute = startElement.getAttributeByName(new QName(attributeName));
-    return attribute == null ? "" : attribute.getValue();
-  }
-
-  private static Integer getAttributeAsInt(StartElement startElement, String attributeName) {
-    return Integer.parseInt(getAttributeValue(startElement, attributeName));
+  private static String getAttributeValue(XMLStreamReader reader, String attributeName) {
+    String value = reader.getAttributeValue(null, attributeName);
+    return value == null ? "" : value;
   }
 
   private static Map<Integer, Severity> severities() {
@@ -158,4 +112,65 @@ public class PmdXmlReportReader {
     return map;
   }
 
+  /**
+   * Attributes are kept as read: they are converted when the issue is saved, as the text range depends on the content of the input file.
+   */
+  private class Violation implements PendingIssue {
+
+    private final InputFile inputFile;
+    private final int lineNumber;
+    private final String ruleId;
+    private final String priority;
+    private final String beginLine;
+    private final String endLine;
+    private final String beginColumn;
+    private final String endColumn;
+    private final String message;
+
+    private Violation(XMLStreamReader reader, InputFile inputFile) throws XMLStreamException {
+      this.inputFile = inputFile;
+      lineNumber = reader.getLocation().getLineNumber();
+      ruleId = getAttributeValue(reader, "rule");
+      priority = getAttributeValue(reader, "priority");
+      beginLine = getAttributeValue(reader, "beginline");
+      endLine = getAttributeValue(reader, "endline");
+      beginColumn = getAttributeValue(reader, "begincolumn");
+      endColumn = getAttributeValue(reader, "endcolumn");
+      message = reader.getElementText();
+    }
+
+    @Override
+    public void save(SensorContext context) {
+      NewExternalIssue issue;
+      try {
+        TextRange textRange = textRange();
+        issue = context.newExternalIssue()
+          .engineId(PmdSensor.LINTER_KEY)
+          .ruleId(ruleId)
+          .type(RuleType.CODE_SMELL)
+          .severity(SEVERITIES.get(Integer.parseInt(priority)))
+          .remediationEffortMinutes(ruleLoader.ruleConstantDebtMinutes(ruleId));
+        issue.at(issue.newLocation()
+          .on(inputFile)
+          .at(textRange)
+          .message(message));
+      } catch (RuntimeException e) {
+        LOG.warn("Can't import issue at line " + lineNumber + " in " + reportFile + ": " + e.getMessage());
+        return;
+      }
+      issue.save();
+    }
+
+    private TextRange textRange() {
+      int begin = Integer.parseInt(beginLine);
+      try {
+        return inputFile.newRange(begin, Integer.parseInt(beginColumn) - 1, Integer.parseInt(endLine), Integer.parseInt(endColumn));
+      } catch (RuntimeException e) {
+        // Some PMD rules seem to report invalid line offsets, e.g. TooManyStaticImports
+        return inputFile.selectLine(begin);
+      }
+    }
+
+  }
+
 }
@@ -21,24 +21,22 @@ package org.sonar.java.externalreport;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLStreamException;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
-import org.sonar.api.utils.log.Logger;
-import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.externalreport.ExternalReportImporter.PendingIssue;
 import org.sonarsource.analyzer.commons.ExternalReportProvider;
 import org.sonarsource.analyzer.commons.ExternalRuleLoader;
 
-import static org.sonar.java.externalreport.ExternalIssueUtils.importIfExist;
-
 public class SpotBugsSensor implements Sensor {
 
-  private static final Logger LOG = Loggers.get(SpotBugsSensor.class);
-
   public static final String SPOTBUGS_KEY = "spotbugs";
   private static final String SPOTBUGS_NAME = "SpotBugs";
   public static final String FINDSECBUGS_KEY = "findsecbugs";
@@ -78,19 +76,15 @@ public class SpotBugsSensor implements Sensor {
   @Override
   public void execute(SensorContext context) {
     List<File> reportFiles = ExternalReportProvider.getReportFiles(context, REPORT_PROPERTY_KEY);
-    reportFiles.forEach(report -> importIfExist(SPOTBUGS_NAME, context, report, SpotBugsSensor::importReport));
+    ExternalReportImporter.importReports(context, SPOTBUGS_NAME, reportFiles, SpotBugsSensor::readReport);
   }
 
-  private static void importReport(File reportPath, SensorContext context) {
+  private static void readReport(File reportPath, InputFileIndex inputFileIndex, Consumer<PendingIssue> issues) throws XMLStreamException, IOException {
     try (InputStream in = new FileInputStream(reportPath)) {
-      LOG.info("Importing {}", reportPath);
-
       Map<String, ExternalRuleLoader> otherLoaders = new HashMap<>();
       otherLoaders.put(FINDSECBUGS_KEY, FINDSECBUGS_LOADER);
       otherLoaders.put(FBCONTRIB_KEY, FBCONTRIB_LOADER);
-      SpotBugsXmlReportReader.read(context, in, RULE_LOADER, otherLoaders);
-    } catch (Exception e) {
-      LOG.error("Failed to import external issues report: " + reportPath, e);
+      SpotBugsXmlReportReader.read(inputFileIndex, in, RULE_LOADER, otherLoaders, issues);
     }
   }
 
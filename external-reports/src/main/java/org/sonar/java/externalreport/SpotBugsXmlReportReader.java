@@ -22,22 +22,22 @@ package org.sonar.java.externalreport;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
+import java.util.Optional;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
-import org.sonar.api.batch.fs.FilePredicates;
+import javax.xml.stream.XMLStreamReader;
 import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.externalreport.ExternalReportImporter.PendingIssue;
 import org.sonarsource.analyzer.commons.ExternalRuleLoader;
 import org.sonarsource.analyzer.commons.xml.SafeStaxParserFactory;
 
@@ -45,58 +45,76 @@ public class SpotBugsXmlReportReader {
 
   private static final Logger LOG = Loggers.get(SpotBugsXmlReportReader.class);
 
-  private static final QName TYPE_ATTRIBUTE = new QName("type");
-  private static final QName SOURCE_PATH_ATTRIBUTE = new QName("sourcepath");
-  private static final QName START_ATTRIBUTE = new QName("start");
+  private static final String TYPE_ATTRIBUTE = "type";
+  private static final String SOURCE_PATH_ATTRIBUTE = "sourcepath";
+  private static final String START_ATTRIBUTE = "start";
 
-  private final SensorContext context;
+  private final InputFileIndex inputFileIndex;
   private final ExternalRuleLoader defaultRuleLoader;
   private final Map<String, ExternalRuleLoader> otherLoaders;
+  private final Consumer<PendingIssue> issues;
 
   private List<String> sourceDirs = new ArrayList<>();
+  /**
+   * Bug instances of a class share the same source path, which is resolved once against the source directories.
+   */
+  private final Map<String, Optional<InputFile>> inputFilesBySourcePath = new HashMap<>();
   private String bugInstanceType = "";
   private String bugInstanceLongMessage = "";
   private String sourceLinePath = "";
   private String sourceLineStart = "";
   private StringBuilder textBuilder = null;
 
-  private SpotBugsXmlReportReader(SensorContext context, ExternalRuleLoader defaultRuleLoader, Map<String, ExternalRuleLoader> otherLoaders) {
-    this.context = context;
+  private SpotBugsXmlReportReader(InputFileIndex inputFileIndex, ExternalRuleLoader defaultRuleLoader, Map<String, ExternalRuleLoader> otherLoaders,
+    Consumer<PendingIssue> issues) {
+    this.inputFileIndex = inputFileIndex;
     this.defaultRuleLoader = defaultRuleLoader;
     this.otherLoaders = otherLoaders;
+    this.issues = issues;
   }
 
-  static void read(SensorContext context, InputStream in, ExternalRuleLoader defaultRuleLoader, Map<String, ExternalRuleLoader> otherLoaders)
-    throws XMLStreamException, IOException {
-    new SpotBugsXmlReportReader(context, defaultRuleLoader, otherLoaders).read(in);
+  static void read(InputFileIndex inputFileIndex, InputStream in, ExternalRuleLoader defaultRuleLoader, Map<String, ExternalRuleLoader> otherLoaders,
+    Consumer<PendingIssue> issues) throws XMLStreamException, IOException {
+    new SpotBugsXmlReportReader(inputFileIndex, defaultRuleLoader, otherLoaders, issues).read(in);
   }
 
   private void read(InputStream in) throws XMLStreamException, IOException {
-    XMLEventReader reader = SafeStaxParserFactory.createXMLInputFactory().createXMLEventReader(in);
-    Deque<String> elementStack = new LinkedList<>();
-    while (reader.hasNext()) {
-      XMLEvent event = reader.nextEvent();
-      if (event.isStartElement()) {
-        String elementName = event.asStartElement().getName().getLocalPart();
-        if (elementStack.isEmpty() && !"BugCollection".equals(elementName)) {
-          throw new IOException("Unexpected document root '" + elementName + "' instead of 'BugCollection'.");
+    XMLStreamReader reader = SafeStaxParserFactory.createXMLInputFactory().createXMLStreamReader(in);
+    // xpath of the current element and of its ancestors
+    Deque<String> xpathStack = new ArrayDeque<>();
+    try {
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            String elementName = reader.getLocalName();
+            if (xpathStack.isEmpty() && !"BugCollection".equals(elementName)) {
+              throw new IOException("Unexpected document root '" + elementName + "' instead of 'BugCollection'.");
+            }
+            String xpath = xpathStack.isEmpty() ? elementName : (xpathStack.peek() + "/" + elementName);
+            xpathStack.push(xpath);
+            onStartElement(xpath, reader);
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            onEndElement(xpathStack.pop());
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+          case XMLStreamConstants.SPACE:
+            if (textBuilder != null) {
+              textBuilder.append(reader.getText());
+            }
+            break;
+          default:
+            // ignore
+            break;
         }
-        elementStack.add(elementName);
-        onStartElement(xpath(elementStack), event.asStartElement());
-      } else if (event.isEndElement()) {
-        onEndElement(xpath(elementStack));
-        elementStack.removeLast();
-      } else if (event.isCharacters() && textBuilder != null) {
-        textBuilder.append(event.asCharacters().getData());
       }
+    } finally {
+      reader.close();
     }
   }
 
-  private static String xpath(Deque<String> elementStack) {
-    return String.join("/", elementStack);
-  }
-
-  private void onStartElement(String xpath, StartElement element) {
+  private void onStartElement(String xpath, XMLStreamReader element) {
     switch (xpath) {
       case "BugCollection/BugInstance":
         bugInstanceType = getAttributeValue(element, TYPE_ATTRIBUTE);
@@ -132,6 +150,7 @@ public class SpotBugsXmlReportReader {
       case "BugCollection/Project/SrcDir":
         if(textBuilder != null) {
           sourceDirs.add(textBuilder.toString());
+          inputFilesBySourcePath.clear();
           textBuilder = null;
         }
         break;
@@ -158,39 +177,46 @@ public class SpotBugsXmlReportReader {
       LOG.debug("Unexpected empty 'BugCollection/BugInstance/LongMessage/text()' for bug '{}'", bugInstanceType);
       return;
     }
-    InputFile inputFile = findInputFile(context, sourceDirs, sourceLinePath);
+    InputFile inputFile = inputFilesBySourcePath.computeIfAbsent(sourceLinePath, this::findInputFile).orElse(null);
     if (inputFile == null) {
       LOG.warn("No input file found for '{}'. No SpotBugs issues will be imported on this file.", sourceLinePath);
       return;
     }
 
+    String engineId = engineId(bugInstanceType);
+    ExternalRuleLoader ruleLoader = otherLoaders.getOrDefault(engineId, defaultRuleLoader);
+    String ruleId = bugInstanceType;
+    String line = sourceLineStart;
+    String message = bugInstanceLongMessage;
+    issues.accept(context -> ExternalIssueUtils.saveIssue(context, ruleLoader, inputFile, engineId, ruleId, line, message));
+  }
+
+  /**
+   * When several other loaders know the rule, the last one wins.
+   */
+  private String engineId(String ruleId) {
     String engineId = SpotBugsSensor.SPOTBUGS_KEY;
-    ExternalRuleLoader ruleLoader = defaultRuleLoader;
     for (Map.Entry<String, ExternalRuleLoader> otherLoader : otherLoaders.entrySet()) {
-      if (otherLoader.getValue().ruleKeys().contains(bugInstanceType)) {
-        ruleLoader = otherLoader.getValue();
+      if (otherLoader.getValue().ruleKeys().contains(ruleId)) {
         engineId = otherLoader.getKey();
       }
     }
-    ExternalIssueUtils.saveIssue(context, ruleLoader, inputFile, engineId, bugInstanceType, sourceLineStart, bugInstanceLongMessage);
+    return engineId;
   }
 
-  private static String getAttributeValue(StartElement element, QName attributeName) {
-    Attribute attribute = element.getAttributeByName(attributeName);
-    return attribute != null ? attribute.getValue() : "";
+  private static String getAttributeValue(XMLStreamReader element, String attributeName) {
+    String value = element.getAttributeValue(null, attributeName);
+    return value != null ? value : "";
   }
 
-  private static InputFile findInputFile(SensorContext context, List<String> sourceDirs, String relativeLinuxPath) {
-    FilePredicates predicates = context.fileSystem().predicates();
-    InputFile inputFile = null;
+  private Optional<InputFile> findInputFile(String relativeLinuxPath) {
     for (String sourceDir : sourceDirs) {
-      File sourceFile = new File(sourceDir, relativeLinuxPath);
-      inputFile = context.fileSystem().inputFile(predicates.hasPath(sourceFile.toString()));
+      InputFile inputFile = inputFileIndex.inputFile(new File(sourceDir, relativeLinuxPath).toString());
       if (inputFile != null) {
-        break;
+        return Optional.of(inputFile);
       }
     }
-    return inputFile;
+    return Optional.empty();
   }
 
 }
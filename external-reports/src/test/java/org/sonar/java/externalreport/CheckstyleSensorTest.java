@@ -21,6 +21,8 @@ package org.sonar.java.externalreport;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -178,6 +180,37 @@ class CheckstyleSensorTest {
       "Unexpected rule key without 'com.puppycrawl.tools.checkstyle.checks.' prefix: 'invalid-format'");
   }
 
+  @Test
+  void issues_of_several_reports_imported_in_parallel() throws IOException {
+    StringBuilder report = new StringBuilder("<checkstyle>\n<file name=\"" + PROJECT_DIR.resolve("A.java") + "\">\n");
+    for (int i = 0; i < 2 * ExternalReportImporter.BATCH_SIZE + 1; i++) {
+      report.append("<error line=\"1\" message=\"Message ").append(i).append("\" source=\"com.puppycrawl.tools.checkstyle.checks.javadoc.JavadocTypeCheck\"/>\n");
+    }
+    report.append("</file>\n</checkstyle>\n");
+    File largeReport = tmp.newFile("large-report.xml");
+    Files.write(largeReport.toPath(), report.toString().getBytes(StandardCharsets.UTF_8));
+
+    SensorContextTester context = ExternalReportTestUtils.createContext(PROJECT_DIR);
+    context.settings().setProperty(ExternalReportImporter.THREADS_KEY, 3);
+    context.settings().setProperty("sonar.java.checkstyle.reportPaths", String.join(",",
+      ExternalReportTestUtils.generateReport(PROJECT_DIR, tmp, "checkstyle-with-invalid-line.xml").getPath(),
+      ExternalReportTestUtils.generateReport(PROJECT_DIR, tmp, "checkstyle-result.xml").getPath(),
+      largeReport.getPath(),
+      ExternalReportTestUtils.generateReport(PROJECT_DIR, tmp, "checkstyle-with-errors.xml").getPath()));
+    checkstyleSensor.execute(context);
+
+    // issues are saved in the order of the reports
+    List<ExternalIssue> externalIssues = new ArrayList<>(context.allExternalIssues());
+    assertThat(externalIssues).hasSize(3 + 2 * ExternalReportImporter.BATCH_SIZE + 1 + 1);
+    assertThat(externalIssues.get(0).ruleKey().rule()).isEqualTo("javadoc.JavadocPackageCheck");
+    assertThat(externalIssues.get(3).primaryLocation().message()).isEqualTo("Message 0");
+    assertThat(externalIssues.get(3 + 2 * ExternalReportImporter.BATCH_SIZE).primaryLocation().message()).isEqualTo("Message " + 2 * ExternalReportImporter.BATCH_SIZE);
+    assertThat(externalIssues.get(externalIssues.size() - 1).ruleKey().rule()).isEqualTo("UnknownRuleKey");
+    assertThat(onlyOneLogElement(logTester.logs(LoggerLevel.ERROR)))
+      .startsWith("Failed to import external issues report:")
+      .endsWith("checkstyle-with-invalid-line.xml");
+  }
+
   private List<ExternalIssue> executeSensorImporting(@Nullable String fileName) throws IOException {
     SensorContextTester context = ExternalReportTestUtils.createContext(PROJECT_DIR);
     if (fileName != null) {
@@ -0,0 +1,93 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.externalreport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.migrationsupport.rules.EnableRuleMigrationSupport;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.java.externalreport.ExternalReportImporter.ReportReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@EnableRuleMigrationSupport
+class ExternalReportImporterTest {
+
+  private static final Path PROJECT_DIR = Paths.get("src", "test", "resources", "checkstyle")
+    .toAbsolutePath().normalize();
+
+  @Rule
+  public final TemporaryFolder tmp = new TemporaryFolder();
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @Test
+  void error_of_a_report_read_in_parallel_is_rethrown() throws IOException {
+    List<File> reportFiles = Arrays.asList(tmp.newFile("first.xml"), tmp.newFile("failing.xml"), tmp.newFile("last.xml"));
+    SensorContextTester context = ExternalReportTestUtils.createContext(PROJECT_DIR);
+    context.settings().setProperty(ExternalReportImporter.THREADS_KEY, 3);
+    StackOverflowError error = new StackOverflowError();
+    ReportReader reader = (reportFile, inputFileIndex, issues) -> {
+      if ("failing.xml".equals(reportFile.getName())) {
+        throw error;
+      }
+      issues.accept(sensorContext -> sensorContext.settings());
+    };
+
+    assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThatThrownBy(() -> ExternalReportImporter.importReports(context, "Test", reportFiles, reader))
+      .isSameAs(error));
+    assertThat(logTester.logs(LoggerLevel.ERROR)).isEmpty();
+  }
+
+  @Test
+  void failure_of_a_report_read_in_parallel_is_logged() throws IOException {
+    List<File> reportFiles = Arrays.asList(tmp.newFile("first.xml"), tmp.newFile("failing.xml"), tmp.newFile("last.xml"));
+    SensorContextTester context = ExternalReportTestUtils.createContext(PROJECT_DIR);
+    context.settings().setProperty(ExternalReportImporter.THREADS_KEY, 3);
+    int[] savedIssues = {0};
+    ReportReader reader = (reportFile, inputFileIndex, issues) -> {
+      issues.accept(sensorContext -> savedIssues[0]++);
+      if ("failing.xml".equals(reportFile.getName())) {
+        throw new IOException("Invalid report");
+      }
+    };
+
+    ExternalReportImporter.importReports(context, "Test", reportFiles, reader);
+
+    // issues read before the failure are saved
+    assertThat(savedIssues[0]).isEqualTo(3);
+    assertThat(logTester.logs(LoggerLevel.ERROR))
+      .containsExactly("Failed to import external issues report: " + reportFiles.get(1).getAbsolutePath());
+  }
+
+}
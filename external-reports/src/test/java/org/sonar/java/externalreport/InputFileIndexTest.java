@@ -0,0 +1,68 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.externalreport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InputFileIndexTest {
+
+  private static final Path PROJECT_DIR = Paths.get("src", "test", "resources", "spotbugs")
+    .toAbsolutePath().normalize();
+
+  @Test
+  void input_files_resolved_by_absolute_path() throws IOException {
+    InputFileIndex inputFileIndex = inputFileIndex();
+    InputFile inputFile = inputFileIndex.inputFile(PROJECT_DIR.resolve("src/main/java/org/myapp/Main.java").toString());
+    assertThat(inputFile).isNotNull();
+    assertThat(inputFile.key()).isEqualTo("spotbugs-project:src/main/java/org/myapp/Main.java");
+    assertThat(inputFileIndex.inputFile(PROJECT_DIR.resolve("src/main/java/org/myapp/../myapp/Main.java").toString())).isSameAs(inputFile);
+  }
+
+  @Test
+  void relative_paths_resolved_against_base_dir() throws IOException {
+    InputFileIndex inputFileIndex = inputFileIndex();
+    InputFile inputFile = inputFileIndex.inputFile("src/main/java/org/myapp/Main.java");
+    assertThat(inputFile).isNotNull();
+    assertThat(inputFile.key()).isEqualTo("spotbugs-project:src/main/java/org/myapp/Main.java");
+    assertThat(inputFileIndex.inputFile("src" + File.separator + "main" + File.separator + "java/./org/myapp/Main.java")).isSameAs(inputFile);
+  }
+
+  @Test
+  void unknown_or_invalid_paths() throws IOException {
+    InputFileIndex inputFileIndex = inputFileIndex();
+    assertThat(inputFileIndex.inputFile("src/main/java/org/myapp/Unknown.java")).isNull();
+    assertThat(inputFileIndex.inputFile("src/main/java")).isNull();
+    assertThat(inputFileIndex.inputFile("invalid\u0000path.java")).isNull();
+  }
+
+  private static InputFileIndex inputFileIndex() throws IOException {
+    SensorContextTester context = ExternalReportTestUtils.createContext(PROJECT_DIR);
+    return new InputFileIndex(context.fileSystem());
+  }
+
+}
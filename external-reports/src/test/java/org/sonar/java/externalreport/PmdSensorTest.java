@@ -46,6 +46,7 @@ import org.sonar.api.utils.log.LoggerLevel;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.sonar.java.externalreport.ExternalReportTestUtils.onlyOneLogElement;
 
 @EnableRuleMigrationSupport
@@ -188,6 +189,30 @@ class PmdSensorTest {
     assertThat(logTester.logs(LoggerLevel.WARN)).containsExactly("No input file found for unknown-file.java. No PMD issue will be imported on this file.");
   }
 
+  @Test
+  void issues_of_several_reports_imported_in_parallel() throws IOException {
+    SensorContextTester context = createContext(PROJECT_DIR);
+    context.settings().setProperty(ExternalReportImporter.THREADS_KEY, 3);
+    context.settings().setProperty(PmdSensor.REPORT_PROPERTY_KEY, String.join(",",
+      PROJECT_DIR.resolve("pmd-report.xml").toAbsolutePath().toString(),
+      PROJECT_DIR.resolve("hello.txt").toAbsolutePath().toString(),
+      PROJECT_DIR.resolve("invalid-text-range.xml").toAbsolutePath().toString()));
+    sensor.execute(context);
+
+    // issues are saved in the order of the reports, on files resolved relatively to the base directory
+    List<ExternalIssue> externalIssues = new ArrayList<>(context.allExternalIssues());
+    assertThat(externalIssues).hasSize(3 + 2);
+    assertThat(externalIssues.subList(0, 3))
+      .extracting(issue -> issue.primaryLocation().inputComponent().key(), ExternalIssue::ruleId)
+      .containsExactly(
+        tuple(PROJECT_ID + ":file1.java", "UnusedFormalParameter"),
+        tuple(PROJECT_ID + ":file1.java", "UnusedLocalVariable"),
+        tuple(PROJECT_ID + ":file2.java", "UnusedPrivateMethod"));
+    assertThat(onlyOneLogElement(logTester.logs(LoggerLevel.ERROR)))
+      .startsWith("Failed to import external issues report:")
+      .endsWith("hello.txt");
+  }
+
   private List<ExternalIssue> execute(@Nullable String fileName) throws IOException {
     SensorContextTester context = createContext(PROJECT_DIR);
     if (fileName != null) {
@@ -211,6 +211,28 @@ class SpotBugsSensorTest {
       "Unexpected missing 'BugCollection/Project/SrcDir/text()'.");
   }
 
+  @Test
+  void issues_of_several_reports_imported_in_parallel() throws IOException {
+    SensorContextTester context = ExternalReportTestUtils.createContext(PROJECT_DIR);
+    context.settings().setProperty(ExternalReportImporter.THREADS_KEY, 2);
+    context.settings().setProperty("sonar.java.spotbugs.reportPaths", String.join(",",
+      ExternalReportTestUtils.generateReport(PROJECT_DIR, tmp, "spotbugsXml.xml").getPath(),
+      ExternalReportTestUtils.generateReport(PROJECT_DIR, tmp, "invalid-file.xml").getPath(),
+      ExternalReportTestUtils.generateReport(PROJECT_DIR, tmp, "spotbugsXml-findsecbugs.xml").getPath(),
+      ExternalReportTestUtils.generateReport(PROJECT_DIR, tmp, "spotbugsXml-fbcontrib.xml").getPath()));
+    spotBugsSensor.execute(context);
+
+    // issues are saved in the order of the reports
+    assertThat(context.allExternalIssues()).extracting(ExternalIssue::engineId, ExternalIssue::ruleId)
+      .containsExactly(
+        tuple("spotbugs", "HE_EQUALS_USE_HASHCODE"),
+        tuple("findsecbugs", "RSA_KEY_SIZE"),
+        tuple("fbcontrib", "ABC_ARRAY_BASED_COLLECTIONS"));
+    assertThat(onlyOneLogElement(logTester.logs(LoggerLevel.ERROR)))
+      .startsWith("Failed to import external issues report:")
+      .endsWith("invalid-file.xml");
+  }
+
   private List<ExternalIssue> executeSensorImporting(@Nullable String fileName) throws IOException {
     SensorContextTester context = ExternalReportTestUtils.createContext(PROJECT_DIR);
     if (fileName != null) {
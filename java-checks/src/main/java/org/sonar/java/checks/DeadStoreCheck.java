@@ -79,8 +79,8 @@ public class DeadStoreCheck extends IssuableSubscriptionVisitor {
     UNRESOLVED_IDENTIFIERS_VISITOR.check(methodTree);
 
     Symbol.MethodSymbol methodSymbol = methodTree.symbol();
-    CFG cfg = CFG.build(methodTree);
-    LiveVariables liveVariables = LiveVariables.analyze(cfg);
+    CFG cfg = CFG.of(methodTree);
+    LiveVariables liveVariables = cfg.liveVariables();
     // Liveness analysis provides information only for block boundaries, so we should do analysis between elements within blocks
     for (CFG.Block block : cfg.blocks()) {
       checkElements(block, liveVariables.getOut(block), methodSymbol);
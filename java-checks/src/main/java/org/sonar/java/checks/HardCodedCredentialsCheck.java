@@ -35,6 +35,7 @@ import org.apache.commons.lang.StringUtils;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.checks.helpers.ExpressionsHelper;
+import org.sonar.java.checks.helpers.KeywordMatcher;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.model.LiteralUtils;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
@@ -94,28 +95,16 @@ public class HardCodedCredentialsCheck extends IssuableSubscriptionVisitor {
     defaultValue = DEFAULT_CREDENTIAL_WORDS)
   public String credentialWords = DEFAULT_CREDENTIAL_WORDS;
 
-  private List<Pattern> variablePatterns = null;
-  private List<Pattern> literalPatterns = null;
+  private KeywordMatcher credentialWordsMatcher = null;
 
-  private Stream<Pattern> variablePatterns() {
-    if (variablePatterns == null) {
-      variablePatterns = toPatterns("");
+  private KeywordMatcher credentialWordsMatcher() {
+    if (credentialWordsMatcher == null) {
+      credentialWordsMatcher = new KeywordMatcher(Stream.of(credentialWords.split(","))
+        .map(String::trim)
+        .filter(word -> !word.isEmpty())
+        .collect(Collectors.toList()));
     }
-    return variablePatterns.stream();
-  }
-
-  private Stream<Pattern> literalPatterns() {
-    if (literalPatterns == null) {
-      literalPatterns = toPatterns("=\\S.");
-    }
-    return literalPatterns.stream();
-  }
-
-  private List<Pattern> toPatterns(String suffix) {
-    return Stream.of(credentialWords.split(","))
-      .map(String::trim)
-      .map(word -> Pattern.compile("(" + word + ")" + suffix, Pattern.CASE_INSENSITIVE))
-      .collect(Collectors.toList());
+    return credentialWordsMatcher;
   }
 
   @Override
@@ -151,12 +140,9 @@ public class HardCodedCredentialsCheck extends IssuableSubscriptionVisitor {
     if (StringUtils.isEmpty(value)) {
       return Optional.empty();
     }
-    return variablePatterns()
-      .map(pattern -> pattern.matcher(value))
-      // should exactly match "pwd" or similar
-      .filter(Matcher::matches)
-      .map(matcher -> matcher.group(1))
-      .findAny();
+    // should exactly match "pwd" or similar
+    return credentialWordsMatcher().firstOccurrences(value, (text, start, end) -> start == 0 && end == text.length()).stream()
+      .findFirst();
   }
 
   private Optional<String> isPasswordVariableName(IdentifierTree identifierTree) {
@@ -171,12 +157,9 @@ public class HardCodedCredentialsCheck extends IssuableSubscriptionVisitor {
   }
 
   private Optional<String> isPasswordLikeName(String name) {
-    return variablePatterns()
-      .map(pattern -> pattern.matcher(name))
-      // contains "pwd" or similar
-      .filter(Matcher::find)
-      .map(matcher -> matcher.group(1))
-      .findAny();
+    // contains "pwd" or similar
+    return credentialWordsMatcher().firstOccurrences(name, (text, start, end) -> true).stream()
+      .findFirst();
   }
 
   private Optional<String> isPasswordVariable(ExpressionTree variable) {
@@ -198,16 +181,32 @@ public class HardCodedCredentialsCheck extends IssuableSubscriptionVisitor {
     if (isURLWithCredentials(cleanedLiteral)) {
       reportIssue(tree, "Review this hard-coded URL, which may contain a credential.");
     } else if (!isPartOfConstantPasswordDeclaration(tree)) {
-      literalPatterns().map(pattern -> pattern.matcher(cleanedLiteral))
-        // contains "pwd=" or similar
-        .filter(Matcher::find)
-        .map(matcher -> matcher.group(1))
+      // contains "pwd=" or similar
+      credentialWordsMatcher().firstOccurrences(cleanedLiteral, HardCodedCredentialsCheck::isFollowedByValue).stream()
         .filter(match -> !isExcludedLiteral(cleanedLiteral, match))
-        .findAny()
+        .findFirst()
         .ifPresent(credential -> report(tree, credential));
     }
   }
 
+  /**
+   * Same as a credential word followed by {@code =\S.} in a regular expression.
+   */
+  private static boolean isFollowedByValue(CharSequence text, int start, int end) {
+    return end + 2 < text.length()
+      && text.charAt(end) == '='
+      && !isWhitespace(text.charAt(end + 1))
+      && !isLineTerminator(text.charAt(end + 2));
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
   private static boolean isURLWithCredentials(String stringLiteral) {
     if (URL_PREFIX.matcher(stringLiteral).find()) {
       try {
@@ -265,8 +264,7 @@ public class HardCodedCredentialsCheck extends IssuableSubscriptionVisitor {
       return methodSelect.is(Kind.MEMBER_SELECT) && isNotPasswordConst(((MemberSelectExpressionTree) methodSelect).expression());
     }
     String literal = ExpressionsHelper.getConstantValueAsString(expression).value();
-    return literal == null || variablePatterns().map(pattern -> pattern.matcher(literal))
-      .noneMatch(Matcher::find);
+    return literal == null || !credentialWordsMatcher().containsAny(literal);
   }
 
   private static boolean isNotExcluded(ExpressionTree expression) {
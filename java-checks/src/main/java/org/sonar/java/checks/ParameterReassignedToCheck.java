@@ -62,8 +62,8 @@ public class ParameterReassignedToCheck extends BaseTreeVisitor implements JavaF
     if(block == null) {
       return;
     }
-    CFG cfg = CFG.build(tree);
-    LiveVariables analyze = LiveVariables.analyze(cfg);
+    CFG cfg = CFG.of(tree);
+    LiveVariables analyze = cfg.liveVariables();
     Set<Symbol> live = analyze.getIn(cfg.entryBlock());
     for (VariableTree parameterTree : tree.parameters()) {
       if(!live.contains(parameterTree.symbol())) {
@@ -86,8 +86,8 @@ public class PrivateFieldUsedLocallyCheck extends IssuableSubscriptionVisitor {
   }
 
   private static boolean isLiveInMethodEntry(Symbol privateFieldSymbol, MethodTree methodTree) {
-    CFG cfg = CFG.build(methodTree);
-    LiveVariables liveVariables = LiveVariables.analyzeWithFields(cfg);
+    CFG cfg = CFG.of(methodTree);
+    LiveVariables liveVariables = cfg.liveVariablesWithFields();
     return liveVariables.getIn(cfg.entryBlock()).contains(privateFieldSymbol);
   }
 
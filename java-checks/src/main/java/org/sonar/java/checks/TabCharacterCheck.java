@@ -40,12 +40,9 @@ public class TabCharacterCheck extends IssuableSubscriptionVisitor {
   @Override
   public void setContext(JavaFileScannerContext context) {
     super.context = context;
-    List<String> lines = context.getFileLines();
-    for (String line : lines) {
-      if (line.contains("\t")) {
-        addIssueOnFile("Replace all tab characters in this file by sequences of white-spaces.");
-        break;
-      }
+    // tabs are never part of line separators: no need to split the file into lines
+    if (context.getFileContent().indexOf('\t') >= 0) {
+      addIssueOnFile("Replace all tab characters in this file by sequences of white-spaces.");
     }
   }
 
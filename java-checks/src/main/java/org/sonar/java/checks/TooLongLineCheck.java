@@ -88,8 +88,9 @@ public class TooLongLineCheck extends IssuableSubscriptionVisitor {
   private void visitFile() {
     List<String> lines = context.getFileLines();
     for (int i = 0; i < lines.size(); i++) {
-      if (!ignoredLines.contains(i + 1)) {
-        String origLine = lines.get(i);
+      String origLine = lines.get(i);
+      // ignored patterns can only make the line shorter
+      if (origLine.length() > maximumLineLength && !ignoredLines.contains(i + 1)) {
         String line = removeIgnoredPatterns(origLine);
         if (line.length() > maximumLineLength) {
           addIssue(i + 1, MessageFormat.format("Split this {0} characters long line (which is greater than {1} authorized).", origLine.length(), maximumLineLength));
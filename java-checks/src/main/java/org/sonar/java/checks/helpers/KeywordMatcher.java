@@ -0,0 +1,246 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.checks.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds occurrences of a set of keywords in a text in a single pass, with an Aho-Corasick automaton built once for all the keywords.
+ * Keywords are matched literally, ignoring the case of ASCII letters like {@link java.util.regex.Pattern#CASE_INSENSITIVE}.
+ * Instances are immutable and can be shared.
+ */
+public final class KeywordMatcher {
+
+  private static final int[] NO_KEYWORDS = new int[0];
+
+  /**
+   * Decides if an occurrence of a keyword, between {@code start} (inclusive) and {@code end} (exclusive), is accepted.
+   */
+  @FunctionalInterface
+  public interface OccurrenceFilter {
+    boolean accept(CharSequence text, int start, int end);
+  }
+
+  private final List<String> keywords;
+  private final int[] keywordLengths;
+  // transitions of each state, as characters sorted in ascending order and their target states
+  private final char[][] transitionChars;
+  private final int[][] transitionTargets;
+  private final int[] failures;
+  // indexes of the keywords ending in each state, including through failure links
+  private final int[][] outputs;
+
+  public KeywordMatcher(List<String> keywords) {
+    this.keywords = Collections.unmodifiableList(new ArrayList<>(keywords));
+    keywordLengths = new int[keywords.size()];
+    Trie trie = new Trie();
+    for (int i = 0; i < keywords.size(); i++) {
+      String keyword = keywords.get(i);
+      if (keyword.isEmpty()) {
+        throw new IllegalArgumentException("Keywords can not be empty.");
+      }
+      keywordLengths[i] = keyword.length();
+      trie.add(keyword, i);
+    }
+    int states = trie.size();
+    transitionChars = new char[states][];
+    transitionTargets = new int[states][];
+    failures = new int[states];
+    outputs = new int[states][];
+    trie.compile();
+  }
+
+  public List<String> keywords() {
+    return keywords;
+  }
+
+  public boolean containsAny(CharSequence text) {
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      state = next(state, text.charAt(i));
+      if (outputs[state].length > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return in the order of the keywords, the text of the first occurrence of each keyword found in the text and accepted by the filter
+   */
+  public List<String> firstOccurrences(CharSequence text, OccurrenceFilter filter) {
+    int[] firstStarts = null;
+    int found = 0;
+    int state = 0;
+    for (int i = 0; i < text.length() && found < keywordLengths.length; i++) {
+      state = next(state, text.charAt(i));
+      for (int keyword : outputs[state]) {
+        int start = i + 1 - keywordLengths[keyword];
+        if ((firstStarts == null || firstStarts[keyword] < 0) && filter.accept(text, start, i + 1)) {
+          if (firstStarts == null) {
+            firstStarts = new int[keywordLengths.length];
+            Arrays.fill(firstStarts, -1);
+          }
+          firstStarts[keyword] = start;
+          found++;
+        }
+      }
+    }
+    if (firstStarts == null) {
+      return Collections.emptyList();
+    }
+    List<String> occurrences = new ArrayList<>(found);
+    for (int keyword = 0; keyword < firstStarts.length; keyword++) {
+      int start = firstStarts[keyword];
+      if (start >= 0) {
+        occurrences.add(text.subSequence(start, start + keywordLengths[keyword]).toString());
+      }
+    }
+    return occurrences;
+  }
+
+  private int next(int state, char c) {
+    char lowerCase = toLowerCase(c);
+    int current = state;
+    while (true) {
+      int target = transition(current, lowerCase);
+      if (target >= 0) {
+        return target;
+      }
+      if (current == 0) {
+        return 0;
+      }
+      current = failures[current];
+    }
+  }
+
+  private int transition(int state, char c) {
+    char[] chars = transitionChars[state];
+    int index = Arrays.binarySearch(chars, c);
+    return index >= 0 ? transitionTargets[state][index] : -1;
+  }
+
+  private static char toLowerCase(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  /**
+   * Mutable trie of the keywords, compiled into the arrays of the automaton.
+   */
+  private final class Trie {
+
+    private final List<List<Character>> chars = new ArrayList<>();
+    private final List<List<Integer>> targets = new ArrayList<>();
+    private final List<List<Integer>> keywordsEndingHere = new ArrayList<>();
+
+    private Trie() {
+      newState();
+    }
+
+    private int size() {
+      return chars.size();
+    }
+
+    private int newState() {
+      chars.add(new ArrayList<>());
+      targets.add(new ArrayList<>());
+      keywordsEndingHere.add(new ArrayList<>());
+      return chars.size() - 1;
+    }
+
+    private void add(String keyword, int keywordIndex) {
+      int state = 0;
+      for (int i = 0; i < keyword.length(); i++) {
+        char c = toLowerCase(keyword.charAt(i));
+        int index = chars.get(state).indexOf(c);
+        if (index >= 0) {
+          state = targets.get(state).get(index);
+        } else {
+          int target = newState();
+          chars.get(state).add(c);
+          targets.get(state).add(target);
+          state = target;
+        }
+      }
+      keywordsEndingHere.get(state).add(keywordIndex);
+    }
+
+    private void compile() {
+      for (int state = 0; state < size(); state++) {
+        List<Character> stateChars = chars.get(state);
+        Integer[] order = new Integer[stateChars.size()];
+        for (int i = 0; i < order.length; i++) {
+          order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Character.compare(stateChars.get(i1), stateChars.get(i2)));
+        transitionChars[state] = new char[order.length];
+        transitionTargets[state] = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+          transitionChars[state][i] = stateChars.get(order[i]);
+          transitionTargets[state][i] = targets.get(state).get(order[i]);
+        }
+      }
+      // failure links and outputs, in breadth-first order so that the failure state of a state is always complete before it
+      outputs[0] = toArray(keywordsEndingHere.get(0));
+      List<Integer> queue = new ArrayList<>();
+      for (int target : transitionTargets[0]) {
+        failures[target] = 0;
+        outputs[target] = toArray(keywordsEndingHere.get(target));
+        queue.add(target);
+      }
+      for (int head = 0; head < queue.size(); head++) {
+        int state = queue.get(head);
+        for (int i = 0; i < transitionChars[state].length; i++) {
+          char c = transitionChars[state][i];
+          int target = transitionTargets[state][i];
+          int failure = failures[state];
+          while (failure != 0 && transition(failure, c) < 0) {
+            failure = failures[failure];
+          }
+          int failureTarget = transition(failure, c);
+          failures[target] = failureTarget >= 0 ? failureTarget : 0;
+          outputs[target] = concat(toArray(keywordsEndingHere.get(target)), outputs[failures[target]]);
+          queue.add(target);
+        }
+      }
+    }
+
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    return list.isEmpty() ? NO_KEYWORDS : list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static int[] concat(int[] first, int[] second) {
+    if (second.length == 0) {
+      return first;
+    }
+    if (first.length == 0) {
+      return second;
+    }
+    int[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+}
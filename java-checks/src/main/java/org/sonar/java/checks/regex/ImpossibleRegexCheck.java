@@ -41,7 +41,22 @@ public class ImpossibleRegexCheck extends AbstractRegexCheck {
 
   @Override
   public void checkRegex(RegexParseResult regexForLiterals, MethodInvocationTree mit) {
-    new ImpossiblePatternFinder().visit(regexForLiterals);
+    List<ImpossibleSubPattern> impossibleSubPatterns = regexForLiterals.analysisResult(ImpossibleRegexCheck.class, ImpossibleRegexCheck::findImpossibleSubPatterns);
+    if (impossibleSubPatterns.size() == 1) {
+      ImpossibleSubPattern pattern = impossibleSubPatterns.get(0);
+      reportIssue(pattern.tree, "Remove this " + pattern.description + " that can never match or rewrite the regex.", null, Collections.emptyList());
+    } else if (impossibleSubPatterns.size() > 1) {
+      List<RegexIssueLocation> secondaries = impossibleSubPatterns.stream()
+        .map(pattern -> new RegexIssueLocation(pattern.tree, pattern.description))
+        .collect(Collectors.toList());
+      reportIssue(impossibleSubPatterns.get(0).tree, "Remove these subpatterns that can never match or rewrite the regex.", null, secondaries);
+    }
+  }
+
+  private static List<ImpossibleSubPattern> findImpossibleSubPatterns(RegexParseResult regexForLiterals) {
+    ImpossiblePatternFinder finder = new ImpossiblePatternFinder();
+    finder.visit(regexForLiterals);
+    return finder.impossibleSubPatterns;
   }
 
   private static class ImpossibleSubPattern {
@@ -57,7 +72,7 @@ public class ImpossibleRegexCheck extends AbstractRegexCheck {
 
   }
 
-  private class ImpossiblePatternFinder extends RegexBaseVisitor {
+  private static class ImpossiblePatternFinder extends RegexBaseVisitor {
 
     int groupCount = 0;
     boolean isAtBeginning = true;
@@ -133,20 +148,6 @@ public class ImpossibleRegexCheck extends AbstractRegexCheck {
       }
     }
 
-
-    @Override
-    public void after(RegexParseResult result) {
-      if (impossibleSubPatterns.size() == 1) {
-        ImpossibleSubPattern pattern = impossibleSubPatterns.get(0);
-        reportIssue(pattern.tree, "Remove this " + pattern.description + " that can never match or rewrite the regex.", null, Collections.emptyList());
-      } else if (impossibleSubPatterns.size() > 1) {
-        List<RegexIssueLocation> secondaries = impossibleSubPatterns.stream()
-          .map(pattern -> new RegexIssueLocation(pattern.tree, pattern.description))
-          .collect(Collectors.toList());
-        reportIssue(impossibleSubPatterns.get(0).tree, "Remove these subpatterns that can never match or rewrite the regex.", null, secondaries);
-      }
-    }
-
     void restoreLocationAfter(Runnable action) {
       boolean wasAtEnd = isAtEnd;
       boolean wasAtBeginning = isAtBeginning;
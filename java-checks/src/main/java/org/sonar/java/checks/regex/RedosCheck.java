@@ -36,13 +36,17 @@ public class RedosCheck extends AbstractRegexCheck {
 
   @Override
   public void checkRegex(RegexParseResult regexForLiterals, MethodInvocationTree mit) {
-    NestedRepetitionsFinder visitor = new NestedRepetitionsFinder();
-    visitor.visit(regexForLiterals);
-    if (visitor.containsOffendingRepetitions) {
+    if (regexForLiterals.analysisResult(RedosCheck.class, RedosCheck::containsOffendingRepetitions)) {
       reportIssue(ExpressionUtils.methodName(mit), MESSAGE, null, Collections.emptyList());
     }
   }
 
+  private static boolean containsOffendingRepetitions(RegexParseResult regexForLiterals) {
+    NestedRepetitionsFinder visitor = new NestedRepetitionsFinder();
+    visitor.visit(regexForLiterals);
+    return visitor.containsOffendingRepetitions;
+  }
+
   private static class NestedRepetitionsFinder extends RegexBaseVisitor {
 
     private boolean isInsideRepetition = false;
@@ -0,0 +1,36 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.checks.xml;
+
+/**
+ * Implemented by XML checks which only apply to some XML files. The sensor asks every active check before building the DOM
+ * of a file, so that a file no active check is interested in is never parsed.
+ */
+public interface PrefilteredXmlCheck {
+
+  /**
+   * @param fileName name of the file, without its directory
+   * @param rootElement local name of the root element of the file, ignoring its namespace prefix
+   * @param contents contents of the file
+   * @return false only if the check can not raise any issue on the file
+   */
+  boolean isInterestedIn(String fileName, String rootElement, String contents);
+
+}
@@ -21,14 +21,20 @@ package org.sonar.java.checks.xml.ejb;
 
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 
 @Rule(key = "S3281")
-public class DefaultInterceptorsLocationCheck extends SimpleXPathBasedCheck {
+public class DefaultInterceptorsLocationCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   private XPathExpression defaultInterceptorClassesExpression = getXPathExpression("ejb-jar/assembly-descriptor/interceptor-binding[ejb-name=\"*\"]/interceptor-class");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "ejb-jar".equals(rootElement) && !"ejb-jar.xml".equalsIgnoreCase(fileName);
+  }
+
   @Override
   public void scanFile(XmlFile file) {
     if ("ejb-jar.xml".equalsIgnoreCase(file.getInputFile().filename())) {
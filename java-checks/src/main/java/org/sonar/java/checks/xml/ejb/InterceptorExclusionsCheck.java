@@ -21,16 +21,22 @@ package org.sonar.java.checks.xml.ejb;
 
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.Node;
 
 @Rule(key = "S3282")
-public class InterceptorExclusionsCheck extends SimpleXPathBasedCheck {
+public class InterceptorExclusionsCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   private XPathExpression notDefaultInterceptorBindingsExpression = getXPathExpression("ejb-jar/assembly-descriptor/interceptor-binding[ejb-name!=\"*\"]");
   private XPathExpression exclusionsExpression = getXPathExpression("*[self::exclude-default-interceptors[text()=\"true\"] or self::exclude-class-interceptors[text()=\"true\"]]");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "ejb-jar".equals(rootElement);
+  }
+
   @Override
   public void scanFile(XmlFile xmlFile) {
     evaluateAsList(notDefaultInterceptorBindingsExpression, xmlFile.getNamespaceUnawareDocument()).forEach(this::checkExclusions);
@@ -21,16 +21,22 @@ package org.sonar.java.checks.xml.hibernate;
 
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 @Rule(key = "S3822")
-public class DatabaseSchemaUpdateCheck extends SimpleXPathBasedCheck {
+public class DatabaseSchemaUpdateCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   private XPathExpression hibernateHbm2ddlAutoProperty = getXPathExpression("//property[@name='hibernate.hbm2ddl.auto']");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return contents.contains("hibernate.hbm2ddl.auto");
+  }
+
   @Override
   public void scanFile(XmlFile file) {
     evaluateAsList(hibernateHbm2ddlAutoProperty, file.getNamespaceUnawareDocument()).forEach(this::checkProperty);
@@ -23,13 +23,14 @@ import java.util.regex.Pattern;
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 @Rule(key = ArtifactIdNamingConventionCheck.KEY)
-public class ArtifactIdNamingConventionCheck extends SimpleXPathBasedCheck {
+public class ArtifactIdNamingConventionCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   public static final String KEY = "S3420";
   private static final String DEFAULT_REGEX = "[a-z][a-z-0-9]+";
@@ -43,6 +44,11 @@ public class ArtifactIdNamingConventionCheck extends SimpleXPathBasedCheck {
   private XPathExpression artifactIdExpression = getXPathExpression("project/artifactId");
   private Pattern pattern = null;
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "pom.xml".equalsIgnoreCase(fileName);
+  }
+
   @Override
   public void scanFile(XmlFile file) {
     if (!"pom.xml".equalsIgnoreCase(file.getInputFile().filename())) {
@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.Optional;
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.Element;
@@ -30,10 +31,15 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 @Rule(key = "S3422")
-public class DependencyWithSystemScopeCheck extends SimpleXPathBasedCheck {
+public class DependencyWithSystemScopeCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   private XPathExpression dependencyExpression = getXPathExpression("//dependencies/dependency");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "pom.xml".equalsIgnoreCase(fileName);
+  }
+
   @Override
   public void scanFile(XmlFile xmlFile) {
     if (!"pom.xml".equalsIgnoreCase(xmlFile.getInputFile().filename())) {
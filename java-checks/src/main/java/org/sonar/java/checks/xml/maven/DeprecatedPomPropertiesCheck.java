@@ -22,16 +22,22 @@ package org.sonar.java.checks.xml.maven;
 import javax.xml.xpath.XPathExpression;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.Node;
 
 @Rule(key = "S3421")
-public class DeprecatedPomPropertiesCheck extends SimpleXPathBasedCheck {
+public class DeprecatedPomPropertiesCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
   private static final String POM_PROPERTY_PREFIX = "${pom.";
   private static final String POM_PROPERTY_SUFFIX = "}";
   private XPathExpression textsExpression = getXPathExpression("//*[text()]");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "pom.xml".equalsIgnoreCase(fileName);
+  }
+
   @Override
   public void scanFile(XmlFile file) {
     if (!"pom.xml".equalsIgnoreCase(file.getInputFile().filename())) {
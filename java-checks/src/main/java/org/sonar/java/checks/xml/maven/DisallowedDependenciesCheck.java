@@ -22,6 +22,7 @@ package org.sonar.java.checks.xml.maven;
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonar.java.checks.xml.maven.helpers.MavenDependencyMatcher;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
@@ -29,7 +30,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 @Rule(key = DisallowedDependenciesCheck.KEY)
-public class DisallowedDependenciesCheck extends SimpleXPathBasedCheck {
+public class DisallowedDependenciesCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   public static final String KEY = "S3417";
 
@@ -47,6 +48,11 @@ public class DisallowedDependenciesCheck extends SimpleXPathBasedCheck {
 
   private MavenDependencyMatcher matcher = null;
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "pom.xml".equalsIgnoreCase(fileName);
+  }
+
   @Override
   public void scanFile(XmlFile xmlFile) {
     if (!"pom.xml".equalsIgnoreCase(xmlFile.getInputFile().filename())) {
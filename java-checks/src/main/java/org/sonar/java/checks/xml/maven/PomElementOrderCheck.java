@@ -26,13 +26,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 @Rule(key = "S3423")
-public class PomElementOrderCheck extends SonarXmlCheck {
+public class PomElementOrderCheck extends SonarXmlCheck implements PrefilteredXmlCheck {
 
   private static final Comparator<Node> LINE_COMPARATOR = Comparator.comparingInt(n -> XmlFile.nodeLocation(n).getStartLine());
 
@@ -67,6 +68,11 @@ public class PomElementOrderCheck extends SonarXmlCheck {
     "reporting",
     "profiles");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "pom.xml".equalsIgnoreCase(fileName);
+  }
+
   @Override
   public void scanFile(XmlFile xmlFile) {
     if (!"pom.xml".equalsIgnoreCase(xmlFile.getInputFile().filename())) {
@@ -22,13 +22,14 @@ package org.sonar.java.checks.xml.spring;
 import java.util.stream.IntStream;
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
 @Rule(key = "S3439")
-public class DefaultMessageListenerContainerCheck extends SimpleXPathBasedCheck {
+public class DefaultMessageListenerContainerCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   private XPathExpression defaultMessageListenerContainerBeanExpression = getXPathExpression(
     "beans/bean[@class='org.springframework.jms.listener.DefaultMessageListenerContainer']");
@@ -36,6 +37,11 @@ public class DefaultMessageListenerContainerCheck extends SimpleXPathBasedCheck
   private XPathExpression sessionTransactedPropertyExpression = getXPathExpression("property[@name='sessionTransacted']");
   private XPathExpression valueExpression = getXPathExpression("value[text()='true']");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "beans".equals(rootElement);
+  }
+
   @Override
   public void scanFile(XmlFile xmlFile) {
     evaluateAsList(defaultMessageListenerContainerBeanExpression, xmlFile.getNamespaceUnawareDocument()).forEach(bean -> {
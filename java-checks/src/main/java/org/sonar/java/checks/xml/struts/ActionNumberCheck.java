@@ -24,12 +24,13 @@ import java.util.stream.Collectors;
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.Node;
 
 @Rule(key = "S3373")
-public class ActionNumberCheck extends SimpleXPathBasedCheck {
+public class ActionNumberCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   private static final int DEFAULT_MAXIMUM_NUMBER_FORWARDS = 4;
 
@@ -42,6 +43,11 @@ public class ActionNumberCheck extends SimpleXPathBasedCheck {
   private XPathExpression actionsExpression = getXPathExpression("struts-config/action-mappings/action");
   private XPathExpression forwardsFromActionExpression = getXPathExpression("forward");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "struts-config".equals(rootElement);
+  }
+
   @Override
   public void scanFile(XmlFile xmlFile) {
     evaluateAsList(actionsExpression, xmlFile.getNamespaceUnawareDocument())
@@ -26,16 +26,22 @@ import java.util.Map;
 import javax.annotation.CheckForNull;
 import javax.xml.xpath.XPathExpression;
 import org.sonar.check.Rule;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 import org.w3c.dom.Node;
 
 @Rule(key = "S3374")
-public class FormNameDuplicationCheck extends SimpleXPathBasedCheck {
+public class FormNameDuplicationCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   private XPathExpression formsetsExpression = getXPathExpression("form-validation/formset");
   private XPathExpression formsExpression = getXPathExpression("form");
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "form-validation".equals(rootElement);
+  }
+
   @Override
   public void scanFile(XmlFile xmlFile) {
     evaluateAsList(formsetsExpression, xmlFile.getNamespaceUnawareDocument())
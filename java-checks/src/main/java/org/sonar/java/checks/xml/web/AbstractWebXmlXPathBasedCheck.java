@@ -19,13 +19,19 @@
  */
 package org.sonar.java.checks.xml.web;
 
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SimpleXPathBasedCheck;
 
-public abstract class AbstractWebXmlXPathBasedCheck extends SimpleXPathBasedCheck {
+public abstract class AbstractWebXmlXPathBasedCheck extends SimpleXPathBasedCheck implements PrefilteredXmlCheck {
 
   public static final String WEB_XML_ROOT = "web-app";
 
+  @Override
+  public boolean isInterestedIn(String fileName, String rootElement, String contents) {
+    return "web.xml".equalsIgnoreCase(fileName);
+  }
+
   @Override
   public void scanFile(XmlFile file) {
     if (isWebXmlFile(file)) {
@@ -19,38 +19,39 @@
  */
 package org.sonar.java.filters;
 
-import com.google.common.collect.ContiguousSet;
-import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.Range;
-
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.java.AnalyzerMessage;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 
-public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
+public abstract class AnyRuleIssueFilter extends SubscriptionVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Set<Integer> excludedLines = new HashSet<>();
+  private final LineRanges excludedLines = new LineRanges();
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.emptyList();
+  }
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
+  public void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
     componentKey = context.getInputFile().key();
     excludedLines.clear();
-    scan(context.getTree());
   }
 
   @Override
   public boolean accept(RuleKey ruleKey, AnalyzerMessage analyzerMessage) {
-    return !(analyzerMessage.getInputComponent().key().equals(componentKey) && excludedLines.contains(analyzerMessage.getLine()));
+    Integer line = analyzerMessage.getLine();
+    return !(analyzerMessage.getInputComponent().key().equals(componentKey) && line != null && excludedLines.contains(line));
   }
 
   @Override
@@ -59,10 +60,6 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
   }
 
   public void excludeLines(Tree tree) {
-    excludedLines.addAll(filteredLines(tree));
-  }
-
-  private static Set<Integer> filteredLines(Tree tree) {
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
@@ -75,8 +72,7 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
         startLine = trivias.get(0).startLine();
       }
 
-      return ContiguousSet.create(Range.closed(startLine, endLine), DiscreteDomain.integers());
+      excludedLines.add(startLine, endLine);
     }
-    return new HashSet<>();
   }
 }
@@ -19,13 +19,10 @@
  */
 package org.sonar.java.filters;
 
-import com.google.common.collect.ContiguousSet;
-import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Range;
-
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -33,20 +30,25 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.check.Rule;
 import org.sonar.java.AnalyzerMessage;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 
-public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
+/**
+ * Base class of filters excluding lines for a given set of rules. Filters subscribe to the kinds of nodes they need, so that
+ * {@link PostAnalysisIssueFilter} can run all of them in a single traversal of the tree. Lines are excluded or accepted
+ * in the order of the traversal: accepting lines of a nested tree overrides the exclusion of its enclosing tree.
+ */
+public abstract class BaseTreeVisitorIssueFilter extends SubscriptionVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Multimap<String, Integer> excludedLinesByRule;
+  private Map<String, LineRanges> excludedLinesByRule;
   private final Map<Class<? extends JavaCheck>, String> rulesKeysByRulesClass;
 
   public BaseTreeVisitorIssueFilter() {
-    excludedLinesByRule = HashMultimap.create();
+    excludedLinesByRule = new HashMap<>();
     rulesKeysByRulesClass = rulesKeysByRulesClass(filteredRules());
   }
 
@@ -61,23 +63,41 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
     return results;
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.emptyList();
+  }
+
   public String getComponentKey() {
     return componentKey;
   }
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
+  public void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
     componentKey = context.getInputFile().key();
-    excludedLinesByRule.clear();
-    scan(context.getTree());
+    // not cleared: a new map lets subclasses keep the lines excluded in previous files
+    excludedLinesByRule = new HashMap<>();
+  }
+
+  @Override
+  public void scanFile(JavaFileScannerContext context) {
+    super.scanFile(context);
+    leaveFile(context);
   }
 
   @Override
   public boolean accept(RuleKey ruleKey, AnalyzerMessage analyzerMessage) {
-    return !(analyzerMessage.getInputComponent().key().equals(componentKey) && excludedLinesByRule.get(ruleKey.rule()).contains(analyzerMessage.getLine()));
+    Integer line = analyzerMessage.getLine();
+    if (line == null || !analyzerMessage.getInputComponent().key().equals(componentKey)) {
+      return true;
+    }
+    LineRanges excludedLines = excludedLinesByRule.get(ruleKey.rule());
+    return excludedLines == null || !excludedLines.contains(line);
   }
 
-  public Multimap<String, Integer> excludedLinesByRule() {
+  @VisibleForTesting
+  Map<String, LineRanges> excludedLinesByRule() {
     return excludedLinesByRule;
   }
 
@@ -97,8 +117,8 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
     }
   }
 
-  public void excludeLines(Set<Integer> lines, String ruleKey) {
-    computeFilteredLinesForRule(lines, ruleKey, true);
+  public void excludeLines(int startLine, int endLine, String ruleKey) {
+    computeFilteredLinesForRule(startLine, endLine, ruleKey, true);
   }
 
   public void excludeLines(@Nullable Tree tree, Class<? extends JavaCheck> rule) {
@@ -112,16 +132,21 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
-      Set<Integer> filteredlines = ContiguousSet.create(Range.closed(firstSyntaxToken.line(), lastSyntaxToken.line()), DiscreteDomain.integers());
-      computeFilteredLinesForRule(filteredlines, rulesKeysByRulesClass.get(filteredRule), excludeLine);
+      computeFilteredLinesForRule(firstSyntaxToken.line(), lastSyntaxToken.line(), rulesKeysByRulesClass.get(filteredRule), excludeLine);
     }
   }
 
-  private void computeFilteredLinesForRule(Set<Integer> lines, String ruleKey, boolean excludeLine) {
+  private void computeFilteredLinesForRule(int startLine, int endLine, String ruleKey, boolean excludeLine) {
     if (excludeLine) {
-      excludedLinesByRule.putAll(ruleKey, lines);
+      excludedLinesByRule.computeIfAbsent(ruleKey, k -> new LineRanges()).add(startLine, endLine);
     } else {
-      excludedLinesByRule.get(ruleKey).removeAll(lines);
+      LineRanges excludedLines = excludedLinesByRule.get(ruleKey);
+      if (excludedLines != null) {
+        excludedLines.remove(startLine, endLine);
+        if (excludedLines.isEmpty()) {
+          excludedLinesByRule.remove(ruleKey);
+        }
+      }
     }
   }
 }
@@ -25,7 +25,10 @@ import org.sonar.java.checks.ClassVariableVisibilityCheck;
 import org.sonar.java.checks.PublicStaticFieldShouldBeFinalCheck;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 public class EclipseI18NFilter extends BaseTreeVisitorIssueFilter {
@@ -40,12 +43,17 @@ public class EclipseI18NFilter extends BaseTreeVisitorIssueFilter {
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
-    if (tree.symbol().type().isSubtypeOf("org.eclipse.osgi.util.NLS")) {
-      excludeLines(tree, FILTERED_RULES);
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    ClassTree classTree = (ClassTree) tree;
+    if (classTree.symbol().type().isSubtypeOf("org.eclipse.osgi.util.NLS")) {
+      excludeLines(classTree, FILTERED_RULES);
     } else {
-      acceptLines(tree, FILTERED_RULES);
+      acceptLines(classTree, FILTERED_RULES);
     }
-    super.visitClass(tree);
   }
 }
@@ -19,36 +19,31 @@
  */
 package org.sonar.java.filters;
 
-import org.sonar.plugins.java.api.JavaFileScannerContext;
+import java.util.Arrays;
+import java.util.List;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
 
 public class GeneratedCodeFilter extends AnyRuleIssueFilter {
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    if (context.getSemanticModel() == null) {
-      // Filter requires semantic
-      return;
-    }
-    super.scanFile(context);
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD,
+      Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR);
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
-    if (isGenerated(tree.symbol())) {
-      excludeLines(tree);
+  public void visitNode(Tree tree) {
+    if (!hasSemantic()) {
+      // Filter requires semantic
+      return;
     }
-    super.visitClass(tree);
-  }
-
-  @Override
-  public void visitMethod(MethodTree tree) {
-    if (isGenerated(tree.symbol())) {
+    Symbol symbol = tree instanceof ClassTree ? ((ClassTree) tree).symbol() : ((MethodTree) tree).symbol();
+    if (isGenerated(symbol)) {
       excludeLines(tree);
     }
-    super.visitMethod(tree);
   }
 
   private static boolean isGenerated(Symbol symbol) {
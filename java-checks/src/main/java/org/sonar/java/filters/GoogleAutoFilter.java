@@ -29,6 +29,7 @@ import org.sonar.java.checks.EqualsOverridenWithHashCodeCheck;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.semantic.SymbolMetadata;
 import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
 
 public class GoogleAutoFilter extends BaseTreeVisitorIssueFilter {
 
@@ -49,7 +50,13 @@ public class GoogleAutoFilter extends BaseTreeVisitorIssueFilter {
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD);
+  }
+
+  @Override
+  public void visitNode(Tree node) {
+    ClassTree tree = (ClassTree) node;
     SymbolMetadata classMetadata = tree.symbol().metadata();
 
     boolean isAnnotatedWithAutoValue = classMetadata.isAnnotatedWith(AUTO_VALUE_ANNOTATION);
@@ -62,8 +69,6 @@ public class GoogleAutoFilter extends BaseTreeVisitorIssueFilter {
     if (isAnnotatedWithAutoValue || AUTO_ANNOTATIONS.stream().anyMatch(classMetadata::isAnnotatedWith)){
       excludeLines(tree.simpleName(), AbstractClassNoFieldShouldBeInterfaceCheck.class);
     }
-
-    super.visitClass(tree);
   }
 
 }
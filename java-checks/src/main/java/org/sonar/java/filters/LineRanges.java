@@ -0,0 +1,94 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.filters;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of lines stored as disjoint intervals, indexed by their first line.
+ * Excluding a whole class costs one interval, and looking up a line is a single floor search.
+ */
+final class LineRanges {
+
+  private final TreeMap<Integer, Integer> endLineByStartLine = new TreeMap<>();
+
+  void add(int startLine, int endLine) {
+    int start = startLine;
+    int end = endLine;
+    Map.Entry<Integer, Integer> previous = endLineByStartLine.floorEntry(start);
+    if (previous != null && previous.getValue() >= start - 1) {
+      start = previous.getKey();
+      end = Math.max(end, previous.getValue());
+    }
+    // merge following intervals overlapping or adjacent to the new one
+    Map.Entry<Integer, Integer> next = endLineByStartLine.ceilingEntry(start);
+    while (next != null && next.getKey() <= end + 1) {
+      end = Math.max(end, next.getValue());
+      endLineByStartLine.remove(next.getKey());
+      next = endLineByStartLine.higherEntry(next.getKey());
+    }
+    endLineByStartLine.put(start, end);
+  }
+
+  void remove(int startLine, int endLine) {
+    Map.Entry<Integer, Integer> previous = endLineByStartLine.lowerEntry(startLine);
+    if (previous != null && previous.getValue() >= startLine) {
+      endLineByStartLine.put(previous.getKey(), startLine - 1);
+      if (previous.getValue() > endLine) {
+        endLineByStartLine.put(endLine + 1, previous.getValue());
+        return;
+      }
+    }
+    Map.Entry<Integer, Integer> next = endLineByStartLine.ceilingEntry(startLine);
+    while (next != null && next.getKey() <= endLine) {
+      endLineByStartLine.remove(next.getKey());
+      if (next.getValue() > endLine) {
+        endLineByStartLine.put(endLine + 1, next.getValue());
+      }
+      next = endLineByStartLine.higherEntry(next.getKey());
+    }
+  }
+
+  boolean contains(int line) {
+    Map.Entry<Integer, Integer> range = endLineByStartLine.floorEntry(line);
+    return range != null && range.getValue() >= line;
+  }
+
+  void clear() {
+    endLineByStartLine.clear();
+  }
+
+  boolean isEmpty() {
+    return endLineByStartLine.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    endLineByStartLine.forEach((start, end) -> {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(start).append('-').append(end);
+    });
+    return sb.append(']').toString();
+  }
+}
@@ -115,16 +115,28 @@ public class LombokFilter extends BaseTreeVisitorIssueFilter {
   }
 
   @Override
-  public void visitImport(ImportTree tree) {
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.IMPORT, Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD, Tree.Kind.IDENTIFIER);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    if (tree.is(Tree.Kind.IMPORT)) {
+      visitImport((ImportTree) tree);
+    } else if (tree.is(Tree.Kind.IDENTIFIER)) {
+      visitIdentifier((IdentifierTree) tree);
+    } else {
+      visitClass((ClassTree) tree);
+    }
+  }
+
+  private void visitImport(ImportTree tree) {
     String fullyQualifiedName = ExpressionsHelper.concatenate((ExpressionTree) tree.qualifiedIdentifier());
 
     excludeLinesIfTrue("lombok.var".equals(fullyQualifiedName) || LOMBOK_VAL.equals(fullyQualifiedName), tree, UselessImportCheck.class);
-
-    super.visitImport(tree);
   }
 
-  @Override
-  public void visitClass(ClassTree tree) {
+  private void visitClass(ClassTree tree) {
     boolean generatesEquals = usesAnnotation(tree, GENERATE_EQUALS);
 
     excludeLinesIfTrue(generatesEquals || usesAnnotation(tree, GENERATE_UNUSED_FIELD_RELATED_METHODS), tree, UnusedPrivateFieldCheck.class, PrivateFieldUsedLocallyCheck.class);
@@ -155,8 +167,6 @@ public class LombokFilter extends BaseTreeVisitorIssueFilter {
         .filter(v -> !generatesNonFinal(v))
         .forEach(v -> excludeLines(v, ExceptionsShouldBeImmutableCheck.class));
     }
-
-    super.visitClass(tree);
   }
 
   @SafeVarargs
@@ -246,14 +256,12 @@ public class LombokFilter extends BaseTreeVisitorIssueFilter {
     return false;
   }
 
-  @Override
-  public void visitIdentifier(IdentifierTree tree) {
+  private void visitIdentifier(IdentifierTree tree) {
     Symbol symbol = tree.symbol();
     if (symbol.isVariableSymbol() && symbol.type().is(LOMBOK_VAL)) {
       parentMethodInvocation(tree)
         .ifPresent(mit -> excludeLines(mit, Arrays.asList(SillyEqualsCheck.class, CollectionInappropriateCallsCheck.class)));
     }
-    super.visitIdentifier(tree);
   }
 
   private static Optional<Tree> parentMethodInvocation(IdentifierTree identifier) {
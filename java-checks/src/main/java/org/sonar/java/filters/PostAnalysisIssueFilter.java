@@ -21,10 +21,18 @@ package org.sonar.java.filters;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.java.AnalyzerMessage;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.model.JavaTree;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 import org.sonar.api.scanner.ScannerSide;
 
@@ -39,10 +47,12 @@ public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueF
     new SuppressWarningFilter(),
     new GeneratedCodeFilter());
   private Iterable<JavaIssueFilter> issueFilers;
+  private Map<Tree.Kind, List<SubscriptionVisitor>> subscribedFiltersByKind;
 
   @VisibleForTesting
   void setIssueFilters(Iterable<? extends JavaIssueFilter> issueFilters) {
     this.issueFilers = ImmutableList.<JavaIssueFilter>builder().addAll(issueFilters).build();
+    this.subscribedFiltersByKind = null;
   }
 
   @VisibleForTesting
@@ -63,10 +73,43 @@ public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueF
     return true;
   }
 
+  /**
+   * Filters subscribing to nodes are run together in a single traversal of the tree, other filters scan the file on their own.
+   */
   @Override
   public void scanFile(JavaFileScannerContext context) {
+    List<SubscriptionVisitor> subscriptionFilters = new ArrayList<>();
     for (JavaIssueFilter javaIssueFilter : getIssueFilters()) {
-      javaIssueFilter.scanFile(context);
+      if (javaIssueFilter instanceof SubscriptionVisitor) {
+        subscriptionFilters.add((SubscriptionVisitor) javaIssueFilter);
+      } else {
+        javaIssueFilter.scanFile(context);
+      }
+    }
+    if (subscriptionFilters.isEmpty()) {
+      return;
+    }
+    if (subscribedFiltersByKind == null) {
+      subscribedFiltersByKind = new EnumMap<>(Tree.Kind.class);
+      subscriptionFilters.forEach(filter -> filter.nodesToVisit()
+        .forEach(kind -> subscribedFiltersByKind.computeIfAbsent(kind, k -> new ArrayList<>()).add(filter)));
+    }
+    subscriptionFilters.forEach(filter -> filter.setContext(context));
+    visit(context.getTree());
+    subscriptionFilters.forEach(filter -> filter.leaveFile(context));
+  }
+
+  private void visit(Tree tree) {
+    List<SubscriptionVisitor> subscribed = subscribedFiltersByKind.getOrDefault(tree.kind(), Collections.emptyList());
+    subscribed.forEach(filter -> filter.visitNode(tree));
+    JavaTree javaTree = (JavaTree) tree;
+    if (!javaTree.isLeaf()) {
+      for (Tree child : javaTree.getChildren()) {
+        if (child != null) {
+          visit(child);
+        }
+      }
     }
+    subscribed.forEach(filter -> filter.leaveNode(tree));
   }
 }
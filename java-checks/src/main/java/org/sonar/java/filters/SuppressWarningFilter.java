@@ -19,15 +19,11 @@
  */
 package org.sonar.java.filters;
 
-import com.google.common.collect.ContiguousSet;
-import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Range;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -45,6 +41,7 @@ import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ModifiersTree;
 import org.sonar.plugins.java.api.tree.NewArrayTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
@@ -68,7 +65,11 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
       .put("rawtypes", "java:S3740")
       .build();
 
-  private final Map<String, Multimap<String, Integer>> excludedLinesByComponent = new HashMap<>();
+  /**
+   * Issues of a component can be reported after its scan, by end of analysis checks: suppressed lines of every component are kept,
+   * but only for components with suppressions.
+   */
+  private final Map<String, Map<String, LineRanges>> excludedLinesByComponent = new HashMap<>();
 
   private static final String SUPPRESS_WARNING_RULE_KEY = getSuppressWarningRuleKey();
 
@@ -84,9 +85,19 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
   }
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    super.scanFile(context);
-    excludedLinesByComponent.put(getComponentKey(), HashMultimap.create(excludedLinesByRule()));
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD,
+      Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR, Tree.Kind.VARIABLE);
+  }
+
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
+    Map<String, LineRanges> excludedLinesByRule = excludedLinesByRule();
+    if (excludedLinesByRule.isEmpty()) {
+      excludedLinesByComponent.remove(getComponentKey());
+    } else {
+      excludedLinesByComponent.put(getComponentKey(), excludedLinesByRule);
+    }
   }
 
   private static Map<String, RuleKey> getDeprecatedRuleKeys() {
@@ -103,21 +114,19 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
 
   @Override
   public boolean accept(RuleKey ruleKey, AnalyzerMessage analyzerMessage) {
-    Multimap<String, Integer> excludedLinesByRule = HashMultimap.create();
-    String componentKey = analyzerMessage.getInputComponent().key();
-    if (excludedLinesByComponent.containsKey(componentKey)) {
-      excludedLinesByRule = excludedLinesByComponent.get(componentKey);
+    Map<String, LineRanges> excludedLinesByRule = excludedLinesByComponent.get(analyzerMessage.getInputComponent().key());
+    Integer line = analyzerMessage.getLine();
+    if (excludedLinesByRule == null || line == null || isSuppressWarningRule(ruleKey)) {
+      return true;
     }
-    return !issueShouldNotBeReported(ruleKey, analyzerMessage, excludedLinesByRule);
+    return !issueShouldNotBeReported(ruleKey, line, excludedLinesByRule);
   }
 
-  private static boolean issueShouldNotBeReported(RuleKey issueRuleKey, AnalyzerMessage analyzerMessage, Multimap<String, Integer> excludedLineByRule) {
-    for (String excludedRule : excludedLineByRule.keySet()) {
-      if (("all".equals(excludedRule) || isRuleKey(excludedRule, issueRuleKey)) && !isSuppressWarningRule(issueRuleKey)) {
-        Collection<Integer> excludedLines = excludedLineByRule.get(excludedRule);
-        if (excludedLines.contains(analyzerMessage.getLine())) {
-          return true;
-        }
+  private static boolean issueShouldNotBeReported(RuleKey issueRuleKey, int line, Map<String, LineRanges> excludedLinesByRule) {
+    for (Map.Entry<String, LineRanges> excludedLines : excludedLinesByRule.entrySet()) {
+      String excludedRule = excludedLines.getKey();
+      if (excludedLines.getValue().contains(line) && ("all".equals(excludedRule) || isRuleKey(excludedRule, issueRuleKey))) {
+        return true;
       }
     }
     return false;
@@ -140,21 +149,16 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
-    handleSuppressWarning(tree.modifiers().annotations(), tree);
-    super.visitClass(tree);
-  }
-
-  @Override
-  public void visitMethod(MethodTree tree) {
-    handleSuppressWarning(tree.modifiers().annotations(), tree);
-    super.visitMethod(tree);
-  }
-
-  @Override
-  public void visitVariable(VariableTree tree) {
-    handleSuppressWarning(tree.modifiers().annotations(), tree);
-    super.visitVariable(tree);
+  public void visitNode(Tree tree) {
+    ModifiersTree modifiers;
+    if (tree.is(Tree.Kind.VARIABLE)) {
+      modifiers = ((VariableTree) tree).modifiers();
+    } else if (tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)) {
+      modifiers = ((MethodTree) tree).modifiers();
+    } else {
+      modifiers = ((ClassTree) tree).modifiers();
+    }
+    handleSuppressWarning(modifiers.annotations(), tree);
   }
 
   private void handleSuppressWarning(List<AnnotationTree> annotationTrees, Tree tree) {
@@ -170,9 +174,8 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
 
     if (startLine != -1) {
       int endLine = tree.lastToken().line();
-      Set<Integer> filteredlines = ContiguousSet.create(Range.closed(startLine, endLine), DiscreteDomain.integers());
       for (String rule : rules) {
-        excludeLines(filteredlines, rule);
+        excludeLines(startLine, endLine, rule);
       }
     }
   }
@@ -57,7 +57,8 @@ class CheckListTest {
   private static final Set<String> BLACK_LIST = ImmutableSet.of(
     "AbstractXPathBasedCheck.java",
     "AbstractWebXmlXPathBasedCheck.java",
-    "AbstractRegexCheck.java");
+    "AbstractRegexCheck.java",
+    "PrefilteredXmlCheck.java");
 
   @BeforeAll
   public static void before() throws Exception {
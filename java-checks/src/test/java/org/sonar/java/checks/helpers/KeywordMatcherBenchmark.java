@@ -0,0 +1,129 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.checks.helpers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.java.model.LiteralUtils;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Time and allocations of looking for the default credential words of {@code HardCodedCredentialsCheck} in all the string literals and
+ * identifiers of the check test sources ({@code src/test/files/checks}), once with one case-insensitive regular expression per word and
+ * once with a single {@link KeywordMatcher}.
+ * <p>
+ * Run from the {@code java-checks} directory after {@code mvn test-compile}, with the test classpath, by executing the main method:
+ * allocations per operation are reported by the GC profiler as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class KeywordMatcherBenchmark {
+
+  private static final String CREDENTIAL_WORDS = "password,passwd,pwd,passphrase,java.naming.security.credentials";
+
+  @Param({"regex", "automaton"})
+  public String matcher;
+
+  private final List<String> texts = new ArrayList<>();
+  private List<Pattern> patterns;
+  private KeywordMatcher keywordMatcher;
+
+  @Setup
+  public void setup() {
+    List<String> words = Stream.of(CREDENTIAL_WORDS.split(",")).collect(Collectors.toList());
+    patterns = words.stream().map(word -> Pattern.compile("(" + word + ")", Pattern.CASE_INSENSITIVE)).collect(Collectors.toList());
+    keywordMatcher = new KeywordMatcher(words);
+    File[] files = new File("src/test/files/checks").listFiles((dir, name) -> name.endsWith(".java"));
+    for (File file : files) {
+      try {
+        JParserTestUtils.parse(file).accept(new BaseTreeVisitor() {
+          @Override
+          public void visitLiteral(LiteralTree tree) {
+            if (tree.is(Tree.Kind.STRING_LITERAL)) {
+              texts.add(LiteralUtils.trimQuotes(tree.value()));
+            }
+          }
+
+          @Override
+          public void visitIdentifier(IdentifierTree tree) {
+            texts.add(tree.name());
+          }
+        });
+      } catch (IllegalStateException e) {
+        // some test sources are not valid java on purpose
+      }
+    }
+  }
+
+  @Benchmark
+  public int findCredentialWords() {
+    int found = 0;
+    if ("regex".equals(matcher)) {
+      for (String text : texts) {
+        if (patterns.stream().anyMatch(pattern -> pattern.matcher(text).find())) {
+          found++;
+        }
+      }
+    } else {
+      for (String text : texts) {
+        if (keywordMatcher.containsAny(text)) {
+          found++;
+        }
+      }
+    }
+    return found;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(KeywordMatcherBenchmark.class.getSimpleName())
+      .addProfiler(GCProfiler.class)
+      .build())
+      .run();
+  }
+
+}
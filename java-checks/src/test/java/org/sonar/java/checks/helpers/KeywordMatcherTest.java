@@ -0,0 +1,92 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.checks.helpers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeywordMatcherTest {
+
+  private static final KeywordMatcher.OccurrenceFilter ANY = (text, start, end) -> true;
+
+  @Test
+  void contains_any_keyword_ignoring_case() {
+    KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("password", "pwd"));
+    assertThat(matcher.keywords()).containsExactly("password", "pwd");
+    assertThat(matcher.containsAny("myPassWord")).isTrue();
+    assertThat(matcher.containsAny("PWD")).isTrue();
+    assertThat(matcher.containsAny("passwor")).isFalse();
+    assertThat(matcher.containsAny("p-w-d")).isFalse();
+    assertThat(matcher.containsAny("")).isFalse();
+  }
+
+  @Test
+  void first_occurrences_in_keyword_order_with_original_case() {
+    KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("password", "pwd", "passphrase"));
+    assertThat(matcher.firstOccurrences("pwd=1, PASSWORD=2, Password=3", ANY)).containsExactly("PASSWORD", "pwd");
+    assertThat(matcher.firstOccurrences("nothing here", ANY)).isEmpty();
+  }
+
+  @Test
+  void overlapping_keywords_are_all_found() {
+    KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("passwd", "ass", "sw", "swordfish"));
+    assertThat(matcher.firstOccurrences("paSSwordfish", ANY)).containsExactly("aSS", "Sw", "Swordfish");
+    assertThat(matcher.firstOccurrences("passwd", ANY)).containsExactly("passwd", "ass", "sw");
+  }
+
+  @Test
+  void keywords_are_matched_literally() {
+    KeywordMatcher matcher = new KeywordMatcher(Collections.singletonList("java.naming.security.credentials"));
+    assertThat(matcher.containsAny("JAVA.NAMING.SECURITY.CREDENTIALS")).isTrue();
+    assertThat(matcher.containsAny("java_naming_security_credentials")).isFalse();
+  }
+
+  @Test
+  void occurrences_are_filtered() {
+    KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("pwd", "password"));
+    KeywordMatcher.OccurrenceFilter whole = (text, start, end) -> start == 0 && end == text.length();
+    assertThat(matcher.firstOccurrences("Pwd", whole)).containsExactly("Pwd");
+    assertThat(matcher.firstOccurrences("myPwd", whole)).isEmpty();
+    KeywordMatcher.OccurrenceFilter assigned = (text, start, end) -> end < text.length() && text.charAt(end) == '=';
+    List<String> occurrences = matcher.firstOccurrences("pwd, PWD=1, password=2", assigned);
+    assertThat(occurrences).containsExactly("PWD", "password");
+  }
+
+  @Test
+  void empty_keywords_are_rejected() {
+    List<String> keywords = Arrays.asList("pwd", "");
+    assertThatThrownBy(() -> new KeywordMatcher(keywords))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Keywords can not be empty.");
+  }
+
+  @Test
+  void no_keywords() {
+    KeywordMatcher matcher = new KeywordMatcher(Collections.emptyList());
+    assertThat(matcher.containsAny("password")).isFalse();
+    assertThat(matcher.firstOccurrences("password", ANY)).isEmpty();
+  }
+
+}
@@ -20,6 +20,7 @@
 package org.sonar.java.filters;
 
 import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 import org.assertj.core.api.AbstractBooleanAssert;
 import org.junit.jupiter.api.BeforeEach;
@@ -144,12 +145,16 @@ class AnyRuleIssueFilterTest {
   private static class AnyRuleOnVariableIssueFilter extends AnyRuleIssueFilter {
 
     @Override
-    public void visitVariable(VariableTree tree) {
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.VARIABLE);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
       // filter issues on variable with name starting by "field"
-      if (tree.simpleName().identifierToken().text().toLowerCase().startsWith("field")) {
+      if (((VariableTree) tree).simpleName().identifierToken().text().toLowerCase().startsWith("field")) {
         excludeLines(tree);
       }
-      super.visitVariable(tree);
     }
   }
 
@@ -20,9 +20,12 @@
 package org.sonar.java.filters;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Multimap;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import org.assertj.core.api.AbstractBooleanAssert;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,7 +41,7 @@ import org.sonar.java.model.VisitorsBridgeForTests;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
-import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonar.plugins.java.api.tree.Tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -99,11 +102,13 @@ class BaseTreeVisitorIssueFilterTest {
 
   @Test
   void excluded_lines_are_correct() {
-    Multimap<String, Integer> excludedLinesByRule = filter.excludedLinesByRule();
+    Map<String, LineRanges> excludedLinesByRule = filter.excludedLinesByRule();
     assertThat(excludedLinesByRule).isNotNull();
     assertThat(excludedLinesByRule.isEmpty()).isFalse();
     assertThat(excludedLinesByRule.keySet()).containsOnly(RULE_KEY);
-    assertThat(excludedLinesByRule.get(RULE_KEY)).containsOnly(3, 4, 5, 6, 7, 8, 9, 10, 11, 15);
+    LineRanges excludedLines = excludedLinesByRule.get(RULE_KEY);
+    assertThat(IntStream.rangeClosed(1, 20).filter(excludedLines::contains)).containsOnly(3, 4, 5, 6, 7, 8, 9, 10, 11, 15);
+    assertThat(excludedLines).hasToString("[3-11, 15-15]");
   }
 
   @Test
@@ -118,7 +123,7 @@ class BaseTreeVisitorIssueFilterTest {
     // no component is set
     scanFile(filter);
 
-    Multimap<String, Integer> excludedLinesByRule = filter.excludedLinesByRule();
+    Map<String, LineRanges> excludedLinesByRule = filter.excludedLinesByRule();
     assertThat(excludedLinesByRule).isNotNull();
     assertThat(excludedLinesByRule.isEmpty()).isTrue();
   }
@@ -154,14 +159,17 @@ class BaseTreeVisitorIssueFilterTest {
     }
 
     @Override
-    public void visitVariable(VariableTree tree) {
-      excludeLines(tree, FakeRule.class);
-      super.visitVariable(tree);
+    public List<Tree.Kind> nodesToVisit() {
+      return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.VARIABLE);
     }
 
     @Override
-    public void visitClass(ClassTree tree) {
-      IdentifierTree simpleName = tree.simpleName();
+    public void visitNode(Tree tree) {
+      if (tree.is(Tree.Kind.VARIABLE)) {
+        excludeLines(tree, FakeRule.class);
+        return;
+      }
+      IdentifierTree simpleName = ((ClassTree) tree).simpleName();
       if (simpleName == null) {
         // force check on null tree
         excludeLines(simpleName, FakeRuleWithoutKey.class);
@@ -170,7 +178,6 @@ class BaseTreeVisitorIssueFilterTest {
       } else {
         excludeLines(simpleName, FakeRule.class);
       }
-      super.visitClass(tree);
     }
   }
 
@@ -0,0 +1,81 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.filters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineRangesTest {
+
+  @Test
+  void added_ranges_are_merged() {
+    LineRanges ranges = new LineRanges();
+    assertThat(ranges.isEmpty()).isTrue();
+    assertThat(ranges.contains(1)).isFalse();
+
+    ranges.add(10, 20);
+    ranges.add(30, 40);
+    assertThat(ranges).hasToString("[10-20, 30-40]");
+    assertThat(ranges.contains(9)).isFalse();
+    assertThat(ranges.contains(10)).isTrue();
+    assertThat(ranges.contains(20)).isTrue();
+    assertThat(ranges.contains(21)).isFalse();
+
+    ranges.add(12, 15);
+    assertThat(ranges).hasToString("[10-20, 30-40]");
+    ranges.add(21, 25);
+    assertThat(ranges).hasToString("[10-25, 30-40]");
+    ranges.add(5, 8);
+    assertThat(ranges).hasToString("[5-8, 10-25, 30-40]");
+    ranges.add(7, 35);
+    assertThat(ranges).hasToString("[5-40]");
+    ranges.add(1, 50);
+    assertThat(ranges).hasToString("[1-50]");
+  }
+
+  @Test
+  void removed_ranges_split_existing_ones() {
+    LineRanges ranges = new LineRanges();
+    ranges.add(1, 100);
+    ranges.remove(10, 20);
+    assertThat(ranges).hasToString("[1-9, 21-100]");
+    ranges.remove(5, 30);
+    assertThat(ranges).hasToString("[1-4, 31-100]");
+    ranges.remove(31, 31);
+    assertThat(ranges).hasToString("[1-4, 32-100]");
+    ranges.remove(90, 200);
+    assertThat(ranges).hasToString("[1-4, 32-89]");
+    ranges.remove(40, 50);
+    ranges.remove(60, 70);
+    assertThat(ranges).hasToString("[1-4, 32-39, 51-59, 71-89]");
+    ranges.remove(35, 75);
+    assertThat(ranges).hasToString("[1-4, 32-34, 76-89]");
+    assertThat(ranges.contains(50)).isFalse();
+    assertThat(ranges.contains(34)).isTrue();
+
+    ranges.remove(1, 100);
+    assertThat(ranges.isEmpty()).isTrue();
+
+    ranges.add(3, 4);
+    ranges.clear();
+    assertThat(ranges.isEmpty()).isTrue();
+  }
+}
@@ -21,6 +21,9 @@ package org.sonar.java.filters;
 
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,8 +31,11 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.java.AnalyzerMessage;
 import org.sonar.java.CheckTestUtils;
+import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.model.VisitorsBridgeForTests;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -78,6 +84,58 @@ class PostAnalysisIssueFilterTest {
     }
   }
 
+  @Test
+  void subscription_filters_should_share_a_single_traversal() {
+    RecordingIssueFilter classFilter = new RecordingIssueFilter(Tree.Kind.CLASS);
+    RecordingIssueFilter classAndIdentifierFilter = new RecordingIssueFilter(Tree.Kind.CLASS, Tree.Kind.IDENTIFIER);
+    FakeJavaIssueFilter otherFilter = new FakeJavaIssueFilter(true);
+    postAnalysisIssueFilter.setIssueFilters(Arrays.asList(classFilter, classAndIdentifierFilter, otherFilter));
+
+    VisitorsBridgeForTests visitorsBridge = new VisitorsBridgeForTests(Collections.singletonList(postAnalysisIssueFilter), Collections.emptyList(), null);
+    JavaAstScanner.scanSingleFileForTests(INPUT_FILE, visitorsBridge);
+
+    assertThat(classFilter.events).containsExactly("setContext", "visit CLASS", "leave CLASS", "leaveFile");
+    assertThat(classAndIdentifierFilter.events)
+      .containsExactly("setContext", "visit CLASS", "visit IDENTIFIER", "leave IDENTIFIER", "leave CLASS", "leaveFile");
+    assertThat(otherFilter.scanned).isTrue();
+  }
+
+  private static class RecordingIssueFilter extends AnyRuleIssueFilter {
+
+    private final List<Tree.Kind> nodesToVisit;
+    private final List<String> events = new ArrayList<>();
+
+    RecordingIssueFilter(Tree.Kind... nodesToVisit) {
+      this.nodesToVisit = Arrays.asList(nodesToVisit);
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return nodesToVisit;
+    }
+
+    @Override
+    public void setContext(JavaFileScannerContext context) {
+      super.setContext(context);
+      events.add("setContext");
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      events.add("visit " + tree.kind());
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      events.add("leave " + tree.kind());
+    }
+
+    @Override
+    public void leaveFile(JavaFileScannerContext context) {
+      events.add("leaveFile");
+    }
+  }
+
   private static class FakeJavaIssueFilter implements JavaIssueFilter {
 
     private final boolean accepted;
@@ -0,0 +1,217 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.se.xproc.MethodBehavior;
+import org.sonar.java.se.xproc.MethodBehaviorJsonAdapter;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * On-disk cache of the issues raised on each file. Entries are identified by a key computed from the file content, the analysis
+ * configuration and the signatures of the types the file depends on: checks execution can be skipped on a file having the same key
+ * as in the previous analysis, and its issues replayed from the cache.
+ * <p>
+ * The types a file depends on are only known once it is parsed: files are still parsed, with their semantic model, and only the
+ * execution of the checks is saved. The method behaviors the file shared with other files through symbolic execution are cached
+ * with its issues, so that the files analyzed after it get the same behaviors as without cache.
+ * <p>
+ * Entries which are not used during an analysis are dropped when the cache is saved.
+ */
+public class AnalysisResultCache {
+
+  private static final Logger LOG = Loggers.get(AnalysisResultCache.class);
+
+  private static final String CACHE_FILE_NAME = "sonar-java-analysis-cache.json";
+  private static final Type ENTRIES_TYPE = new TypeToken<Map<String, Entry>>() {}.getType();
+
+  private final Gson gson = MethodBehaviorJsonAdapter.gsonBuilder().create();
+  private final Path cacheFile;
+  private final Map<String, Entry> previousEntries;
+  private final Map<String, Entry> currentEntries = new HashMap<>();
+
+  public AnalysisResultCache(File cacheDir) {
+    this.cacheFile = cacheDir.toPath().resolve(CACHE_FILE_NAME);
+    this.previousEntries = load();
+  }
+
+  private Map<String, Entry> load() {
+    if (!Files.isRegularFile(cacheFile)) {
+      return Collections.emptyMap();
+    }
+    try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+      Map<String, Entry> entries = gson.fromJson(reader, ENTRIES_TYPE);
+      return entries == null ? Collections.emptyMap() : entries;
+    } catch (Exception e) {
+      LOG.warn("Unable to load analysis cache '{}', all files will be analyzed.", cacheFile);
+      LOG.debug("Unable to load analysis cache", e);
+      return Collections.emptyMap();
+    }
+  }
+
+  /**
+   * @return the results of a previous analysis of the file, or null if the file has to be analyzed
+   */
+  @CheckForNull
+  public Entry get(InputFile inputFile, String key) {
+    Entry entry = previousEntries.get(inputFile.key());
+    if (entry == null || !key.equals(entry.key)) {
+      return null;
+    }
+    currentEntries.put(inputFile.key(), entry);
+    return entry;
+  }
+
+  /**
+   * @param behaviors the method behaviors of the file shared with the other files
+   */
+  public void put(InputFile inputFile, String key, List<AnalyzerMessage> messages, List<MethodBehavior> behaviors, Function<JavaCheck, RuleKey> ruleKeys) {
+    List<CachedIssue> issues = new ArrayList<>(messages.size());
+    for (AnalyzerMessage message : messages) {
+      CachedIssue issue = new CachedIssue();
+      issue.ruleKey = ruleKeys.apply(message.getCheck()).toString();
+      issue.location = CachedLocation.of(message);
+      issue.cost = message.getCost() == null ? 0 : message.getCost().intValue();
+      for (List<AnalyzerMessage> flow : message.flows) {
+        List<CachedLocation> cachedFlow = new ArrayList<>(flow.size());
+        flow.forEach(location -> cachedFlow.add(CachedLocation.of(location)));
+        issue.flows.add(cachedFlow);
+      }
+      issues.add(issue);
+    }
+    currentEntries.put(inputFile.key(), new Entry(key, issues, behaviors));
+  }
+
+  public void save() {
+    try {
+      Files.createDirectories(cacheFile.getParent());
+      try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+        gson.toJson(currentEntries, ENTRIES_TYPE, writer);
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to save analysis cache '{}'.", cacheFile);
+      LOG.debug("Unable to save analysis cache", e);
+    }
+  }
+
+  public static String hash(String... parts) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (String part : parts) {
+      digest.update(part.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest()) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  public static class Entry {
+    private final String key;
+    private final List<CachedIssue> issues;
+    private final List<MethodBehavior> behaviors;
+
+    Entry(String key, List<CachedIssue> issues, List<MethodBehavior> behaviors) {
+      this.key = key;
+      this.issues = issues;
+      this.behaviors = behaviors;
+    }
+
+    public List<CachedIssue> issues() {
+      return issues;
+    }
+
+    public List<MethodBehavior> behaviors() {
+      return behaviors == null ? Collections.emptyList() : behaviors;
+    }
+  }
+
+  public static class CachedIssue {
+    private String ruleKey;
+    private CachedLocation location;
+    private int cost;
+    private final List<List<CachedLocation>> flows = new ArrayList<>();
+
+    public RuleKey ruleKey() {
+      return RuleKey.parse(ruleKey);
+    }
+
+    public AnalyzerMessage toAnalyzerMessage(JavaCheck check, InputFile inputFile) {
+      AnalyzerMessage analyzerMessage = location.toAnalyzerMessage(check, inputFile, cost);
+      for (List<CachedLocation> flow : flows) {
+        List<AnalyzerMessage> messageFlow = new ArrayList<>(flow.size());
+        flow.forEach(flowLocation -> messageFlow.add(flowLocation.toAnalyzerMessage(check, inputFile, 0)));
+        analyzerMessage.flows.add(messageFlow);
+      }
+      return analyzerMessage;
+    }
+  }
+
+  private static class CachedLocation {
+    private String message;
+    @Nullable
+    private int[] span;
+
+    static CachedLocation of(AnalyzerMessage analyzerMessage) {
+      CachedLocation location = new CachedLocation();
+      location.message = analyzerMessage.getMessage();
+      AnalyzerMessage.TextSpan textSpan = analyzerMessage.primaryLocation();
+      if (textSpan != null) {
+        location.span = new int[] {textSpan.startLine, textSpan.startCharacter, textSpan.endLine, textSpan.endCharacter};
+      }
+      return location;
+    }
+
+    AnalyzerMessage toAnalyzerMessage(JavaCheck check, InputFile inputFile, int cost) {
+      AnalyzerMessage.TextSpan textSpan = span == null ? null : new AnalyzerMessage.TextSpan(span[0], span[1], span[2], span[3]);
+      return new AnalyzerMessage(check, inputFile, textSpan, message, cost);
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the issues of analyzed files on a dedicated thread, file by file. Issues are saved in the order they were reported, and the
+ * analysis thread only waits when too many files have issues still waiting to be saved.
+ */
+class AsyncIssueWriter {
+
+  static final int MAX_PENDING_FILES = 16;
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "sonar-java-issue-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Semaphore pendingFiles = new Semaphore(MAX_PENDING_FILES);
+  private List<Runnable> fileIssues = new ArrayList<>();
+  private volatile RuntimeException failure = null;
+
+  void add(Runnable issue) {
+    fileIssues.add(issue);
+  }
+
+  /**
+   * Hands the issues added since the previous call to the writer thread.
+   */
+  void endOfFile() {
+    checkFailure();
+    if (fileIssues.isEmpty()) {
+      return;
+    }
+    List<Runnable> issues = fileIssues;
+    fileIssues = new ArrayList<>();
+    try {
+      pendingFiles.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    }
+    executor.execute(() -> {
+      try {
+        if (failure == null) {
+          issues.forEach(Runnable::run);
+        }
+      } catch (RuntimeException e) {
+        failure = e;
+      } finally {
+        pendingFiles.release();
+      }
+    });
+  }
+
+  /**
+   * Waits for all the issues to be saved and stops the writer thread.
+   *
+   * @param cancelled true when the analysis has been cancelled: issues not yet saved are dropped
+   */
+  void close(boolean cancelled) {
+    if (cancelled) {
+      executor.shutdownNow();
+      return;
+    }
+    endOfFile();
+    executor.shutdown();
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+        // wait for the remaining issues to be saved
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    }
+    checkFailure();
+  }
+
+  private void checkFailure() {
+    if (failure != null) {
+      throw new AnalysisException("Unable to save issues", failure);
+    }
+  }
+
+}
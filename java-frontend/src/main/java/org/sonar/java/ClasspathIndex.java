@@ -0,0 +1,274 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Prunes the jars of a classpath which can not provide any class to the compiler: missing files, jars without class files and copies
+ * of a jar appearing earlier in the classpath. This is all it does: the remaining entries are still given as is to the compiler, which
+ * reads their central directory again.
+ * <p>
+ * Jars are identified by their path, last modification time and size, and are persisted in the cache directory (if any) so that
+ * unchanged jars are only read by the first analysis. The content fingerprint of each jar (names and CRCs of its entries) allows to
+ * detect copies of a same jar in different locations.
+ * <p>
+ * The class files of directories are indexed the first time they are queried by {@link #findClassFile}, and never persisted.
+ */
+public class ClasspathIndex {
+
+  private static final Logger LOG = Loggers.get(ClasspathIndex.class);
+
+  private static final String INDEX_FILE_NAME = "sonar-java-classpath-index.json";
+  private static final Type ENTRIES_TYPE = new TypeToken<Map<String, JarEntry>>() {}.getType();
+
+  private final Gson gson = new Gson();
+  @Nullable
+  private final Path indexFile;
+  private final Map<String, JarEntry> entries;
+  private final Map<File, Set<String>> classFilesByDirectory = new HashMap<>();
+  private boolean modified = false;
+
+  /**
+   * @param cacheDir where to persist the index, or null to keep it in memory only
+   */
+  public ClasspathIndex(@Nullable File cacheDir) {
+    this.indexFile = cacheDir == null ? null : cacheDir.toPath().resolve(INDEX_FILE_NAME);
+    this.entries = load();
+  }
+
+  private Map<String, JarEntry> load() {
+    if (indexFile == null || !Files.isRegularFile(indexFile)) {
+      return new HashMap<>();
+    }
+    try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+      Map<String, JarEntry> loaded = gson.fromJson(reader, ENTRIES_TYPE);
+      return loaded == null ? new HashMap<>() : new HashMap<>(loaded);
+    } catch (Exception e) {
+      LOG.warn("Unable to load classpath index '{}', all jars will be indexed.", indexFile);
+      LOG.debug("Unable to load classpath index", e);
+      return new HashMap<>();
+    }
+  }
+
+  /**
+   * Indexes the jars of the given classpath, and drops the entries which can not provide any class to the compiler: jars without
+   * class files, copies of a jar appearing earlier in the classpath, and files which do not exist. The order of the remaining entries
+   * is kept, as well as directories and the files which can not be read as a zip archive.
+   */
+  public List<File> compilationClasspath(List<File> classpath) {
+    List<File> result = new ArrayList<>(classpath.size());
+    Set<String> fingerprints = new HashSet<>();
+    int pruned = 0;
+    for (File element : classpath) {
+      if (!element.exists()) {
+        pruned++;
+        continue;
+      }
+      JarEntry entry = isArchive(element) ? entry(element) : null;
+      if (entry != null && (!entry.hasClasses || !fingerprints.add(entry.fingerprint))) {
+        pruned++;
+        continue;
+      }
+      result.add(element);
+    }
+    if (pruned > 0) {
+      LOG.debug("{} classpath entries without classes or duplicated were ignored", pruned);
+    }
+    save();
+    return result;
+  }
+
+  /**
+   * @param classFilePath path of the class file relative to the directories, using '/' as separator
+   * @return the class file in the first directory containing it, or null if none of them contains it
+   */
+  @CheckForNull
+  public File findClassFile(List<File> directories, String classFilePath) {
+    for (File directory : directories) {
+      if (classFilesByDirectory.computeIfAbsent(directory, ClasspathIndex::classFiles).contains(classFilePath)) {
+        return new File(directory, classFilePath);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Symbolic links are followed, as classpath directories are often links to build output directories. Files which can not be read,
+   * as well as links creating cycles, are skipped.
+   */
+  private static Set<String> classFiles(File directory) {
+    if (!directory.isDirectory()) {
+      return Collections.emptySet();
+    }
+    Path root = directory.toPath();
+    Set<String> classFiles = new HashSet<>();
+    try {
+      Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".class")) {
+            classFiles.add(root.relativize(file).toString().replace(File.separatorChar, '/'));
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+          LOG.debug("Unable to index class files of '{}'", file, e);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      LOG.debug("Unable to index class files of '{}'", directory, e);
+    }
+    return classFiles;
+  }
+
+  private static boolean isArchive(File file) {
+    String name = file.getName();
+    return file.isFile() && (name.endsWith(".jar") || name.endsWith(".zip"));
+  }
+
+  @CheckForNull
+  private JarEntry entry(File jar) {
+    String key = jar.getAbsolutePath();
+    long lastModified = jar.lastModified();
+    long size = jar.length();
+    JarEntry entry = entries.get(key);
+    if (entry != null && entry.lastModified == lastModified && entry.size == size) {
+      return entry;
+    }
+    EntryCollector collector = new EntryCollector();
+    try {
+      readCentralDirectory(jar, collector);
+    } catch (IOException e) {
+      LOG.debug("Unable to index '{}'", jar, e);
+      entries.remove(key);
+      return null;
+    }
+    entry = new JarEntry(lastModified, size, collector.fingerprint(), collector.hasClasses);
+    entries.put(key, entry);
+    modified = true;
+    return entry;
+  }
+
+  private static void readCentralDirectory(File jar, EntryCollector collector) throws IOException {
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+      while (zipEntries.hasMoreElements()) {
+        ZipEntry zipEntry = zipEntries.nextElement();
+        collector.accept(zipEntry.getName(), zipEntry.getCrc());
+      }
+    }
+  }
+
+  private void save() {
+    if (indexFile == null || !modified) {
+      return;
+    }
+    // drop the jars which do not exist anymore, the index being shared by all the classpaths of the project
+    entries.keySet().removeIf(path -> !new File(path).isFile());
+    try {
+      Files.createDirectories(indexFile.getParent());
+      try (Writer writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+        gson.toJson(entries, ENTRIES_TYPE, writer);
+      }
+      modified = false;
+    } catch (IOException e) {
+      LOG.warn("Unable to save classpath index '{}'.", indexFile);
+      LOG.debug("Unable to save classpath index", e);
+    }
+  }
+
+  private static class EntryCollector {
+    private final MessageDigest digest;
+    private boolean hasClasses = false;
+
+    EntryCollector() {
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    void accept(String name, long crc) {
+      digest.update(name.getBytes(StandardCharsets.UTF_8));
+      for (int shift = 0; shift < 32; shift += 8) {
+        digest.update((byte) (crc >>> shift));
+      }
+      hasClasses |= name.endsWith(".class");
+    }
+
+    String fingerprint() {
+      StringBuilder sb = new StringBuilder();
+      for (byte b : digest.digest()) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    }
+  }
+
+  private static class JarEntry {
+    private final long lastModified;
+    private final long size;
+    private final String fingerprint;
+    private final boolean hasClasses;
+
+    JarEntry(long lastModified, long size, String fingerprint, boolean hasClasses) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.fingerprint = fingerprint;
+      this.hasClasses = hasClasses;
+    }
+  }
+
+}
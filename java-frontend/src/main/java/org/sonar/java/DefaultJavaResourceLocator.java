@@ -25,7 +25,9 @@ import com.google.common.collect.ImmutableSortedSet;
 import java.io.File;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -37,14 +39,33 @@ public class DefaultJavaResourceLocator implements JavaResourceLocator {
   private static final Logger LOG = Loggers.get(DefaultJavaResourceLocator.class);
 
   private final JavaClasspath javaClasspath;
+  @Nullable
+  private final SonarComponents sonarComponents;
+  private ClasspathIndex classpathIndex;
   @VisibleForTesting
   Map<String, InputFile> resourcesByClass;
 
   public DefaultJavaResourceLocator(JavaClasspath javaClasspath) {
+    this(javaClasspath, null);
+  }
+
+  public DefaultJavaResourceLocator(JavaClasspath javaClasspath, @Nullable SonarComponents sonarComponents) {
     this.javaClasspath = javaClasspath;
+    this.sonarComponents = sonarComponents;
     resourcesByClass = new HashMap<>();
   }
 
+  /**
+   * @return the classpath index of the analysis when enabled, or an index of this locator otherwise
+   */
+  private ClasspathIndex classpathIndex() {
+    if (classpathIndex == null) {
+      ClasspathIndex shared = sonarComponents == null ? null : sonarComponents.classpathIndex();
+      classpathIndex = shared == null ? new ClasspathIndex(null) : shared;
+    }
+    return classpathIndex;
+  }
+
   @Override
   public InputFile findResourceByClassName(String className) {
     String name = className.replace('.', '/');
@@ -62,14 +83,11 @@ public class DefaultJavaResourceLocator implements JavaResourceLocator {
   @Override
   public Collection<File> classFilesToAnalyze() {
     ImmutableList.Builder<File> result = ImmutableList.builder();
+    List<File> binaryDirs = javaClasspath.getBinaryDirs();
     for (String key : classKeys()) {
-      String filePath = key + ".class";
-      for (File binaryDir : javaClasspath.getBinaryDirs()) {
-        File classFile = new File(binaryDir, filePath);
-        if (classFile.isFile()) {
-          result.add(classFile);
-          break;
-        }
+      File classFile = classpathIndex().findClassFile(binaryDirs, key + ".class");
+      if (classFile != null) {
+        result.add(classFile);
       }
     }
     return result.build();
@@ -26,12 +26,21 @@ import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Scanner;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.ScannerSide;
@@ -48,6 +57,8 @@ import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.java.filters.SonarJavaIssueFilter;
+import org.sonar.java.regex.SharedRegexCache;
+import org.sonar.java.se.xproc.ProjectBehaviorCache;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JspCodeVisitor;
@@ -58,6 +69,15 @@ import org.sonarsource.api.sonarlint.SonarLintSide;
 public class SonarComponents {
 
   public static final String FAIL_ON_EXCEPTION_KEY = "sonar.internal.analysis.failFast";
+  public static final String ANALYSIS_THREADS_KEY = "sonar.java.internal.analysis.threads";
+  public static final String BATCH_SIZE_KEY = "sonar.java.internal.analysis.batchSize";
+  public static final String ANALYSIS_CACHE_KEY = "sonar.java.internal.analysis.cache";
+  public static final String SE_PROJECT_BEHAVIORS_KEY = "sonar.java.internal.se.projectBehaviors";
+  public static final String SE_PROJECT_BEHAVIORS_MAX_SIZE_KEY = "sonar.java.internal.se.projectBehaviors.maxSize";
+  public static final String REGEX_CACHE_MAX_SIZE_KEY = "sonar.java.internal.regex.cache.maxSize";
+  public static final String ASYNC_ISSUES_KEY = "sonar.java.internal.analysis.asyncIssues";
+  public static final String CLASSPATH_INDEX_KEY = "sonar.java.internal.classpathIndex";
+  public static final String CACHE_DIR_KEY = "sonar.java.internal.cacheDir";
 
   private final FileLinesContextFactory fileLinesContextFactory;
   private final JavaTestClasspath javaTestClasspath;
@@ -71,6 +91,15 @@ public class SonarComponents {
   private final List<Checks<JavaCheck>> allChecks;
   private final SonarJavaIssueFilter issueFilter;
   private SensorContext context;
+  private AnalysisResultCache analysisResultCache;
+  private ProjectBehaviorCache projectBehaviorCache;
+  private SharedRegexCache sharedRegexCache;
+  private ClasspathIndex classpathIndex;
+  @Nullable
+  private Consumer<AnalyzerMessage> issueRecorder;
+  private final Map<JavaCheck, RuleKey> ruleKeys = new IdentityHashMap<>();
+  @Nullable
+  private AsyncIssueWriter issueWriter;
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
                          JavaClasspath javaClasspath, JavaTestClasspath javaTestClasspath,
@@ -129,6 +158,10 @@ public class SonarComponents {
     this.context = context;
   }
 
+  private boolean asyncIssues() {
+    return context != null && !isSonarLintContext() && context.config().getBoolean(ASYNC_ISSUES_KEY).orElse(false);
+  }
+
   public FileLinesContext fileLinesContextFor(InputFile inputFile) {
     return fileLinesContextFactory.createFor(inputFile);
   }
@@ -146,11 +179,16 @@ public class SonarComponents {
     if (javaClasspath == null) {
       return new ArrayList<>();
     }
-    return javaClasspath.getElements();
+    return compilationClasspath(javaClasspath.getElements());
   }
 
   public List<File> getJavaTestClasspath() {
-    return javaTestClasspath.getElements();
+    return compilationClasspath(javaTestClasspath.getElements());
+  }
+
+  private List<File> compilationClasspath(List<File> elements) {
+    ClasspathIndex index = classpathIndex();
+    return index == null ? elements : index.compilationClasspath(elements);
   }
 
   public List<File> getJspClasspath() {
@@ -174,10 +212,27 @@ public class SonarComponents {
     }
   }
 
+  /**
+   * @return the jar of the plugin providing the given check class, or null when it is not loaded from a file
+   */
+  @CheckForNull
+  private static File findJar(Class<?> checkClass) {
+    CodeSource codeSource = checkClass.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return null;
+    }
+    try {
+      return new File(codeSource.getLocation().toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
   public void registerCheckClasses(String repositoryKey, Iterable<Class<? extends JavaCheck>> checkClasses) {
     Checks<JavaCheck> createdChecks = checkFactory.<JavaCheck>create(repositoryKey).addAnnotatedChecks(checkClasses);
     checks.add(createdChecks);
     allChecks.add(createdChecks);
+    ruleKeys.clear();
   }
 
   public JavaCheck[] checkClasses() {
@@ -192,6 +247,7 @@ public class SonarComponents {
     Checks<JavaCheck> createdChecks = checkFactory.<JavaCheck>create(repositoryKey).addAnnotatedChecks(checkClasses);
     testChecks.add(createdChecks);
     allChecks.add(createdChecks);
+    ruleKeys.clear();
   }
 
   public Collection<JavaCheck> testCheckClasses() {
@@ -213,6 +269,16 @@ public class SonarComponents {
   }
 
   public RuleKey getRuleKey(JavaCheck check) {
+    RuleKey ruleKey = ruleKeys.get(check);
+    if (ruleKey == null && !ruleKeys.containsKey(check)) {
+      ruleKey = findRuleKey(check);
+      ruleKeys.put(check, ruleKey);
+    }
+    return ruleKey;
+  }
+
+  @CheckForNull
+  private RuleKey findRuleKey(JavaCheck check) {
     for (Checks<JavaCheck> sonarChecks : checks()) {
       RuleKey ruleKey = sonarChecks.ruleKey(check);
       if (ruleKey != null) {
@@ -238,6 +304,9 @@ public class SonarComponents {
     if (inputComponent == null) {
       return;
     }
+    if (issueRecorder != null) {
+      issueRecorder.accept(analyzerMessage);
+    }
     if (issueFilter != null && !issueFilter.accept(key, analyzerMessage)) {
       return;
     }
@@ -248,21 +317,64 @@ public class SonarComponents {
   @VisibleForTesting
   void reportIssue(AnalyzerMessage analyzerMessage, RuleKey key, InputComponent fileOrProject, @Nullable Double cost) {
     Objects.requireNonNull(context);
+    AnalyzerMessage.TextSpan textSpan = analyzerMessage.primaryLocation();
+    if (textSpan != null && !textSpan.onLine()) {
+      Preconditions.checkState(!textSpan.isEmpty(), "Issue location should not be empty");
+    }
+    // the issue locations are resolved on the analysis thread: the metadata of input files is lazily computed and is not thread-safe
+    JavaIssue issue = newIssue(context, analyzerMessage, key, fileOrProject, cost);
+    if (issueWriter != null) {
+      issueWriter.add(issue::save);
+    } else {
+      issue.save();
+    }
+  }
+
+  private static JavaIssue newIssue(SensorContext context, AnalyzerMessage analyzerMessage, RuleKey key, InputComponent fileOrProject, @Nullable Double cost) {
     JavaIssue issue = JavaIssue.create(context, key, cost);
     AnalyzerMessage.TextSpan textSpan = analyzerMessage.primaryLocation();
     if (textSpan == null) {
       // either an issue at file or project level
       issue.setPrimaryLocationOnComponent(fileOrProject, analyzerMessage.getMessage());
     } else {
-      if (!textSpan.onLine()) {
-        Preconditions.checkState(!textSpan.isEmpty(), "Issue location should not be empty");
-      }
       issue.setPrimaryLocation((InputFile) fileOrProject, analyzerMessage.getMessage(), textSpan.startLine, textSpan.startCharacter, textSpan.endLine, textSpan.endCharacter);
     }
     if (!analyzerMessage.flows.isEmpty()) {
       issue.addFlow((InputFile) analyzerMessage.getInputComponent(), analyzerMessage.flows);
     }
-    issue.save();
+    return issue;
+  }
+
+  /**
+   * Starts the thread saving the issues, when issues are saved asynchronously. Issues reported before the first analyzed file, or after
+   * {@link #awaitIssuesSaved()}, are saved synchronously.
+   */
+  public void startOfFile() {
+    if (issueWriter == null && asyncIssues()) {
+      issueWriter = new AsyncIssueWriter();
+    }
+  }
+
+  /**
+   * When issues are saved asynchronously, hands the issues reported on the analyzed file to the thread saving them, and waits when too
+   * many files have issues still waiting to be saved.
+   */
+  public void endOfFile() {
+    if (issueWriter != null) {
+      issueWriter.endOfFile();
+    }
+  }
+
+  /**
+   * Waits for all the reported issues to be saved, when issues are saved asynchronously. Issues not yet saved are dropped if the analysis
+   * has been cancelled.
+   */
+  public void awaitIssuesSaved() {
+    if (issueWriter != null) {
+      AsyncIssueWriter writer = issueWriter;
+      issueWriter = null;
+      writer.close(analysisCancelled());
+    }
   }
 
   public boolean reportAnalysisError(RecognitionException re, InputFile inputFile) {
@@ -309,6 +421,127 @@ public class SonarComponents {
     return context.config().getBoolean(FAIL_ON_EXCEPTION_KEY).orElse(false);
   }
 
+  /**
+   * Number of workers used to parse files concurrently. Checks are always executed by the analysis thread.
+   * @return 1 (sequential analysis) unless configured otherwise
+   */
+  public int analysisThreads() {
+    return context.config().getInt(ANALYSIS_THREADS_KEY).orElse(1);
+  }
+
+  /**
+   * Number of files parsed together, sharing the same ECJ environment. Never used in SonarLint, where file content may differ from disk.
+   * @return 1 (file by file analysis) unless configured otherwise
+   */
+  public int batchSize() {
+    if (isSonarLintContext()) {
+      return 1;
+    }
+    return context.config().getInt(BATCH_SIZE_KEY).orElse(1);
+  }
+
+  /**
+   * @return the cache of issues from previous analysis, or null when disabled (default) or in SonarLint context
+   */
+  @CheckForNull
+  public AnalysisResultCache analysisResultCache() {
+    if (analysisResultCache == null && !isSonarLintContext() && context.config().getBoolean(ANALYSIS_CACHE_KEY).orElse(false)) {
+      analysisResultCache = new AnalysisResultCache(cacheDir());
+    }
+    return analysisResultCache;
+  }
+
+  /**
+   * @return the index of the jars of the classpaths, persisted in the cache directory, or null when disabled (default)
+   */
+  @CheckForNull
+  public ClasspathIndex classpathIndex() {
+    if (classpathIndex == null && context != null && context.config().getBoolean(CLASSPATH_INDEX_KEY).orElse(false)) {
+      classpathIndex = new ClasspathIndex(cacheDir());
+    }
+    return classpathIndex;
+  }
+
+  /**
+   * @return the method behaviors shared between the files of the analysis by symbolic execution, or null when disabled (default) or
+   * in SonarLint context
+   */
+  @CheckForNull
+  public ProjectBehaviorCache projectBehaviorCache() {
+    if (projectBehaviorCache == null && !isSonarLintContext() && context.config().getBoolean(SE_PROJECT_BEHAVIORS_KEY).orElse(false)) {
+      projectBehaviorCache = new ProjectBehaviorCache(context.config().getInt(SE_PROJECT_BEHAVIORS_MAX_SIZE_KEY).orElse(ProjectBehaviorCache.DEFAULT_MAX_SIZE));
+    }
+    return projectBehaviorCache;
+  }
+
+  /**
+   * @return the regexes parsed in the files of the module, shared between files
+   */
+  public SharedRegexCache sharedRegexCache() {
+    if (sharedRegexCache == null) {
+      int maxSize = context == null ? SharedRegexCache.DEFAULT_MAX_SIZE : context.config().getInt(REGEX_CACHE_MAX_SIZE_KEY).orElse(SharedRegexCache.DEFAULT_MAX_SIZE);
+      sharedRegexCache = new SharedRegexCache(maxSize);
+    }
+    return sharedRegexCache;
+  }
+
+  /**
+   * Fingerprint of everything which influences the issues raised on a file, except the file itself and the sources it depends on:
+   * analyzer version, versions of the plugins providing the active checks, active rules with their parameters, and the given classpath.
+   */
+  public String analysisConfigurationFingerprint(List<File> classpath) {
+    List<String> parts = new ArrayList<>();
+    SortedSet<File> jars = new TreeSet<>();
+    jars.add(findPluginJar());
+    allChecks.stream()
+      .flatMap(checksOfRepository -> checksOfRepository.all().stream())
+      .map(Object::getClass)
+      .distinct()
+      .map(SonarComponents::findJar)
+      .filter(Objects::nonNull)
+      .forEach(jars::add);
+    jars.forEach(jar -> parts.add(jar.getAbsolutePath() + ":" + jar.lastModified() + ":" + jar.length()));
+    context.activeRules().findAll().stream()
+      .map(activeRule -> activeRule.ruleKey() + ":" + activeRule.severity() + ":" + new TreeMap<>(activeRule.params()))
+      .sorted()
+      .forEach(parts::add);
+    classpath.forEach(file -> parts.add(file.getAbsolutePath() + ":" + file.lastModified() + ":" + file.length()));
+    return AnalysisResultCache.hash(parts.toArray(new String[0]));
+  }
+
+  /**
+   * @param issueRecorder called with every issue reported on a file before it is filtered, or null to stop recording
+   */
+  public void setIssueRecorder(@Nullable Consumer<AnalyzerMessage> issueRecorder) {
+    this.issueRecorder = issueRecorder;
+  }
+
+  /**
+   * @return the directory of the caches kept from one analysis to the next, see {@link #cacheDir(SensorContext)}
+   */
+  public File cacheDir() {
+    return cacheDir(context);
+  }
+
+  /**
+   * Caches kept from one analysis to the next can not be stored in the working directory, which is cleaned by the scanner at the start
+   * of every analysis.
+   *
+   * @return the directory configured by {@link #CACHE_DIR_KEY}, or by default a directory of the SonarQube user home specific to the
+   * base directory of the module
+   */
+  public static File cacheDir(SensorContext context) {
+    Optional<String> configured = context.config().get(CACHE_DIR_KEY);
+    if (configured.isPresent()) {
+      return new File(configured.get());
+    }
+    File userHome = context.config().get("sonar.userHome")
+      .map(File::new)
+      .orElseGet(() -> new File(System.getProperty("user.home"), ".sonar"));
+    String baseDirHash = AnalysisResultCache.hash(context.fileSystem().baseDir().getAbsolutePath()).substring(0, 16);
+    return new File(new File(userHome, "sonar-java-cache"), baseDirHash);
+  }
+
   public File workDir() {
     ProjectDefinition current = projectDefinition;
     if(current == null) {
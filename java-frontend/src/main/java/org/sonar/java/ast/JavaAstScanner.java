@@ -23,10 +23,24 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
 import com.sonar.sslr.api.RecognitionException;
+import java.io.File;
+import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -56,13 +70,25 @@ public class JavaAstScanner {
     boolean successfullyCompleted = false;
     boolean cancelled = false;
     try {
-      for (InputFile inputFile : inputFiles) {
-        if (analysisCancelled()) {
-          cancelled = true;
-          break;
+      int batchSize = batchSize();
+      int threads = analysisThreads();
+      if (batchSize > 1) {
+        if (threads > 1) {
+          LOG.warn("Both {} and {} are set: files are parsed in batches of {} and the {} threads setting is ignored.",
+            SonarComponents.BATCH_SIZE_KEY, SonarComponents.ANALYSIS_THREADS_KEY, batchSize, threads);
+        }
+        cancelled = !batchScan(inputFiles, batchSize, progressReport);
+      } else if (threads > 1) {
+        cancelled = !parallelScan(inputFiles, threads, progressReport);
+      } else {
+        for (InputFile inputFile : inputFiles) {
+          if (analysisCancelled()) {
+            cancelled = true;
+            break;
+          }
+          simpleScan(inputFile);
+          progressReport.nextFile();
         }
-        simpleScan(inputFile);
-        progressReport.nextFile();
       }
       successfullyCompleted = !cancelled;
     } finally {
@@ -75,26 +101,111 @@ public class JavaAstScanner {
     }
   }
 
+  /**
+   * Parses files ahead of time on a pool of workers, while visitors are still executed on the calling thread, in the order of the input files.
+   * Checks state stays confined to a single thread and issues are reported in the same order as in a sequential analysis.
+   *
+   * @return false if the analysis has been cancelled
+   */
+  private boolean parallelScan(Iterable<? extends InputFile> inputFiles, int threads, ProgressReport progressReport) {
+    String version = parserJavaVersion();
+    List<File> classpath = visitor.getClasspath();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    // bound the number of parsed trees waiting to be visited, to keep memory under control
+    int maxPendingFiles = threads * 2;
+    Deque<Future<Tree>> pendingTrees = new ArrayDeque<>(maxPendingFiles);
+    Deque<InputFile> pendingFiles = new ArrayDeque<>(maxPendingFiles);
+    Iterator<? extends InputFile> iterator = inputFiles.iterator();
+    try {
+      while (iterator.hasNext() || !pendingFiles.isEmpty()) {
+        while (iterator.hasNext() && pendingFiles.size() < maxPendingFiles) {
+          InputFile inputFile = iterator.next();
+          pendingFiles.add(inputFile);
+          pendingTrees.add(executor.submit(() -> parse(version, inputFile, classpath)));
+        }
+        if (analysisCancelled()) {
+          return false;
+        }
+        Future<Tree> parsedTree = pendingTrees.poll();
+        simpleScan(pendingFiles.poll(), () -> getParsedTree(parsedTree));
+        progressReport.nextFile();
+      }
+      return true;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Parses files by chunks sharing the same ECJ environment, so that classpath is indexed only once per chunk.
+   *
+   * @return false if the analysis has been cancelled
+   */
+  private boolean batchScan(Iterable<? extends InputFile> inputFiles, int batchSize, ProgressReport progressReport) {
+    for (List<? extends InputFile> batch : Iterables.partition(inputFiles, batchSize)) {
+      if (analysisCancelled()) {
+        return false;
+      }
+      Set<InputFile> notAnalyzed = new LinkedHashSet<>(batch);
+      try {
+        JParser.parseAll(parserJavaVersion(), visitor.getClasspath(), batch, this::analysisCancelled, (inputFile, parser) -> {
+          notAnalyzed.remove(inputFile);
+          simpleScan(inputFile, parser::call);
+          progressReport.nextFile();
+        });
+      } catch (OperationCanceledException e) {
+        return false;
+      } catch (AnalysisException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        LOG.error("Unable to parse batch of files, remaining files will be analyzed one by one.", e);
+        for (InputFile inputFile : notAnalyzed) {
+          if (analysisCancelled()) {
+            return false;
+          }
+          simpleScan(inputFile);
+          progressReport.nextFile();
+        }
+      }
+    }
+    return true;
+  }
+
+  private static Tree getParsedTree(Future<Tree> parsedTree) throws Exception {
+    try {
+      return parsedTree.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw e;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (Exception) cause;
+    }
+  }
+
+  private int batchSize() {
+    return sonarComponents == null ? 1 : sonarComponents.batchSize();
+  }
+
+  private int analysisThreads() {
+    return sonarComponents == null ? 1 : Math.max(1, sonarComponents.analysisThreads());
+  }
+
   private boolean analysisCancelled() {
     return sonarComponents != null && sonarComponents.analysisCancelled();
   }
 
   private void simpleScan(InputFile inputFile) {
+    simpleScan(inputFile, () -> parse(parserJavaVersion(), inputFile, visitor.getClasspath()));
+  }
+
+  private void simpleScan(InputFile inputFile, Callable<Tree> parser) {
     visitor.setCurrentFile(inputFile);
     try {
-      String fileContent = inputFile.contents();
-      final String version;
-      if (visitor.getJavaVersion() == null || visitor.getJavaVersion().asInt() < 0) {
-        version = /* default */ JParser.MAXIMUM_SUPPORTED_JAVA_VERSION;
-      } else {
-        version = Integer.toString(visitor.getJavaVersion().asInt());
-      }
-      Tree ast = JParser.parse(
-        version,
-        inputFile.filename(),
-        fileContent,
-        visitor.getClasspath()
-      );
+      Tree ast = parser.call();
       visitor.visitFile(ast);
     } catch (RecognitionException e) {
       checkInterrupted(e);
@@ -113,6 +224,22 @@ public class JavaAstScanner {
     }
   }
 
+  private static Tree parse(String version, InputFile inputFile, List<File> classpath) throws IOException {
+    return JParser.parse(
+      version,
+      inputFile.filename(),
+      inputFile.contents(),
+      classpath
+    );
+  }
+
+  private String parserJavaVersion() {
+    if (visitor.getJavaVersion() == null || visitor.getJavaVersion().asInt() < 0) {
+      return /* default */ JParser.MAXIMUM_SUPPORTED_JAVA_VERSION;
+    }
+    return Integer.toString(visitor.getJavaVersion().asInt());
+  }
+
   private void interruptIfFailFast(Exception e, InputFile inputFile) {
     if (sonarComponents != null && sonarComponents.shouldFailAnalysisOnException()) {
       throw new AnalysisException(getAnalysisExceptionMessage(inputFile), e);
@@ -69,6 +69,8 @@ import static org.sonar.plugins.java.api.tree.Tree.Kind.WHILE_STATEMENT;
 
 /**
  * Saves information about lines directly into Sonar by using {@link FileLinesContext}.
+ * <p>
+ * Run by {@link org.sonar.java.model.VisitorsBridge} along with the other subscription visitors of the file, in a single traversal.
  */
 public class FileLinesVisitor extends SubscriptionVisitor {
 
@@ -94,6 +96,11 @@ public class FileLinesVisitor extends SubscriptionVisitor {
   @Override
   public void scanFile(JavaFileScannerContext context) {
     super.scanFile(context);
+    leaveFile(context);
+  }
+
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
     InputFile currentFile = context.getInputFile();
     FileLinesContext fileLinesContext = sonarComponents.fileLinesContextFor(currentFile);
     for (int line = 1; line <= currentFile.lines(); line++) {
@@ -110,6 +117,10 @@ public class FileLinesVisitor extends SubscriptionVisitor {
   public void visitNode(Tree tree) {
     List<? extends Tree> trees = Collections.emptyList();
     switch (tree.kind()) {
+      case METHOD:
+      case CONSTRUCTOR:
+        visitMethod((MethodTree) tree);
+        return;
       case INITIALIZER:
       case STATIC_INITIALIZER:
         trees = ((BlockTree) tree).body();
@@ -120,10 +131,6 @@ public class FileLinesVisitor extends SubscriptionVisitor {
       case LAMBDA_EXPRESSION:
         trees = visitLambda((LambdaExpressionTree) tree);
         break;
-      case METHOD:
-      case CONSTRUCTOR:
-        trees = visitMethod((MethodTree) tree);
-        break;
       case FOR_STATEMENT:
       case FOR_EACH_STATEMENT:
       case WHILE_STATEMENT:
@@ -156,7 +163,7 @@ public class FileLinesVisitor extends SubscriptionVisitor {
     return Lists.newArrayList(body);
   }
 
-  private List<? extends Tree> visitMethod(MethodTree tree) {
+  private void visitMethod(MethodTree tree) {
     BlockTree methodBody = tree.block();
     if(methodBody != null) {
       // get the last
@@ -164,17 +171,22 @@ public class FileLinesVisitor extends SubscriptionVisitor {
       if(returnType == null || "void".equals(returnType.firstToken().text())) {
         executableLines.add(methodBody.closeBraceToken().line());
       }
-      return methodBody.body();
+      if (!methodBody.body().isEmpty()) {
+        // the CFG of the method is shared with the checks
+        computeExecutableLines(CFG.of(tree));
+      }
     }
-    return Collections.emptyList();
   }
 
   private void computeExecutableLines(List<? extends Tree> trees) {
     if(trees.isEmpty()) {
       return;
     }
+    computeExecutableLines(CFG.buildCFG(trees));
+  }
+
+  private void computeExecutableLines(CFG cfg) {
     // rely on cfg to get every instructions and get most of the token.
-    CFG cfg = CFG.buildCFG(trees);
     cfg.blocks()
       .stream()
       .flatMap(b->b.elements().stream())
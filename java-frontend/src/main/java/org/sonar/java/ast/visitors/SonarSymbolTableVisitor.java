@@ -19,14 +19,18 @@
  */
 package org.sonar.java.ast.visitors;
 
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.sensor.symbol.NewSymbol;
 import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.JUtils;
 import org.sonar.java.model.declaration.VariableTreeImpl;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.ClassTree;
-import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.EnumConstantTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.ImportTree;
@@ -38,31 +42,84 @@ import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TypeParameterTree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
-import java.util.List;
+/**
+ * Saves the symbols of the file and their references into Sonar. Semantic data is neither provided to SonarLint nor for generated files.
+ * <p>
+ * Run by {@link org.sonar.java.model.VisitorsBridge} along with the other subscription visitors of the file, in a single traversal.
+ */
+public class SonarSymbolTableVisitor extends SubscriptionVisitor {
 
-public class SonarSymbolTableVisitor extends BaseTreeVisitor {
+  private final SonarComponents sonarComponents;
+  @Nullable
+  private NewSymbolTable newSymbolTable;
 
-  private final NewSymbolTable newSymbolTable;
-  private CompilationUnitTree outerClass;
+  public SonarSymbolTableVisitor(SonarComponents sonarComponents) {
+    this.sonarComponents = sonarComponents;
+  }
 
-  public SonarSymbolTableVisitor(NewSymbolTable newSymbolTable) {
-    this.newSymbolTable = newSymbolTable;
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return ImmutableList.of(
+      Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD,
+      Tree.Kind.VARIABLE, Tree.Kind.ENUM_CONSTANT,
+      Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR,
+      Tree.Kind.LABELED_STATEMENT,
+      Tree.Kind.IMPORT);
   }
 
   @Override
-  public void visitCompilationUnit(CompilationUnitTree tree) {
-    if (outerClass == null) {
-      outerClass = tree;
+  public void scanFile(JavaFileScannerContext context) {
+    super.scanFile(context);
+    leaveFile(context);
+  }
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
+    newSymbolTable = null;
+    if (context.fileParsed() && !sonarComponents.isSonarLintContext() && !(context.getInputFile() instanceof GeneratedFile)) {
+      newSymbolTable = sonarComponents.symbolizableFor(context.getInputFile());
     }
-    super.visitCompilationUnit(tree);
+  }
 
-    if (tree.equals(outerClass)) {
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
+    if (newSymbolTable != null) {
       newSymbolTable.save();
+      newSymbolTable = null;
     }
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
+  public void visitNode(Tree tree) {
+    if (newSymbolTable == null) {
+      return;
+    }
+    switch (tree.kind()) {
+      case VARIABLE:
+        VariableTree variableTree = (VariableTree) tree;
+        createSymbol(variableTree.simpleName(), variableTree.symbol().usages());
+        break;
+      case ENUM_CONSTANT:
+        createSymbol(((EnumConstantTree) tree).simpleName(), ((VariableTreeImpl) tree).symbol().usages());
+        break;
+      case METHOD:
+      case CONSTRUCTOR:
+        visitMethod((MethodTree) tree);
+        break;
+      case LABELED_STATEMENT:
+        LabeledStatementTree labeledStatementTree = (LabeledStatementTree) tree;
+        createSymbol(labeledStatementTree.label(), labeledStatementTree.symbol().usages());
+        break;
+      case IMPORT:
+        visitImport((ImportTree) tree);
+        break;
+      default:
+        visitClass((ClassTree) tree);
+    }
+  }
+
+  private void visitClass(ClassTree tree) {
     IdentifierTree simpleName = tree.simpleName();
     if (simpleName != null) {
       createSymbol(simpleName, tree.symbol().usages());
@@ -70,39 +127,17 @@ public class SonarSymbolTableVisitor extends BaseTreeVisitor {
     for (TypeParameterTree typeParameterTree : tree.typeParameters()) {
       createSymbol(typeParameterTree.identifier(), JUtils.typeParameterTreeSymbol(typeParameterTree).usages());
     }
-    super.visitClass(tree);
-  }
-
-  @Override
-  public void visitVariable(VariableTree tree) {
-    createSymbol(tree.simpleName(), tree.symbol().usages());
-    super.visitVariable(tree);
-  }
-
-  @Override
-  public void visitEnumConstant(EnumConstantTree tree) {
-    createSymbol(tree.simpleName(), ((VariableTreeImpl) tree).symbol().usages());
-    super.visitEnumConstant(tree);
   }
 
-  @Override
-  public void visitMethod(MethodTree tree) {
+  private void visitMethod(MethodTree tree) {
     List<IdentifierTree> usages = tree.symbol().usages();
     createSymbol(tree.simpleName(), usages);
     for (TypeParameterTree typeParameterTree : tree.typeParameters()) {
       createSymbol(typeParameterTree.identifier(), JUtils.typeParameterTreeSymbol(typeParameterTree).usages());
     }
-    super.visitMethod(tree);
-  }
-
-  @Override
-  public void visitLabeledStatement(LabeledStatementTree tree) {
-    createSymbol(tree.label(), tree.symbol().usages());
-    super.visitLabeledStatement(tree);
   }
 
-  @Override
-  public void visitImport(ImportTree tree) {
+  private void visitImport(ImportTree tree) {
     IdentifierTree identifierTree;
     if (tree.qualifiedIdentifier().is(Tree.Kind.IDENTIFIER)) {
       identifierTree = (IdentifierTree) tree.qualifiedIdentifier();
@@ -116,7 +151,6 @@ public class SonarSymbolTableVisitor extends BaseTreeVisitor {
         createSymbol(identifierTree, symbol.usages());
       }
     }
-    super.visitImport(tree);
   }
 
   private void createSymbol(IdentifierTree declaration, List<IdentifierTree> usages) {
@@ -77,10 +77,19 @@ public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
-    highlighting = sonarComponents.highlightableFor(context.getInputFile());
-
     super.scanFile(context);
+    leaveFile(context);
+  }
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
+    highlighting = sonarComponents.highlightableFor(context.getInputFile());
+    withinModule = false;
+  }
 
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
     highlighting.save();
   }
 
@@ -31,12 +31,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.declaration.MethodTreeImpl;
 import org.sonar.plugins.java.api.cfg.ControlFlowGraph;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Type;
@@ -121,6 +123,14 @@ public class CFG implements ControlFlowGraph {
   private Map<String, Block> labelsBreakTarget = new HashMap<>();
   private Map<String, Block> labelsContinueTarget = new HashMap<>();
 
+  private static final AtomicLong METHOD_CFG_BUILDS = new AtomicLong();
+  private static final AtomicLong METHOD_CFG_REUSES = new AtomicLong();
+
+  @Nullable
+  private LiveVariables liveVariables;
+  @Nullable
+  private LiveVariables liveVariablesWithFields;
+
   private CFG(List<? extends Tree> trees, @Nullable Symbol.MethodSymbol symbol, boolean ignoreBreakAndContinue) {
     methodSymbol = symbol;
     this.ignoreBreakAndContinue = ignoreBreakAndContinue;
@@ -431,9 +441,61 @@ public class CFG implements ControlFlowGraph {
   public static CFG build(MethodTree tree) {
     BlockTree block = tree.block();
     Preconditions.checkArgument(block != null, "Cannot build CFG for method with no body.");
+    METHOD_CFG_BUILDS.incrementAndGet();
     return new CFG(block.body(), tree.symbol(), false);
   }
 
+  /**
+   * Returns the CFG of the method, shared by all the consumers of the same method tree: it is built at most once per tree,
+   * along with its live variables (see {@link #liveVariables()}). Consumers must not mutate the returned CFG.
+   */
+  public static CFG of(MethodTree tree) {
+    if (tree instanceof MethodTreeImpl) {
+      MethodTreeImpl methodTree = (MethodTreeImpl) tree;
+      if (methodTree.isCfgComputed()) {
+        METHOD_CFG_REUSES.incrementAndGet();
+      }
+      CFG cfg = methodTree.cfg();
+      Preconditions.checkArgument(cfg != null, "Cannot build CFG for method with no body.");
+      return cfg;
+    }
+    return build(tree);
+  }
+
+  /**
+   * Number of method CFGs built so far, by all the analyses of the process.
+   */
+  public static long methodCfgBuilds() {
+    return METHOD_CFG_BUILDS.get();
+  }
+
+  /**
+   * Number of method CFG builds avoided so far by reusing the CFG already computed for the method tree, by all the analyses of the process.
+   */
+  public static long methodCfgReuses() {
+    return METHOD_CFG_REUSES.get();
+  }
+
+  /**
+   * Live variables of this CFG (local variables and parameters), computed once.
+   */
+  public LiveVariables liveVariables() {
+    if (liveVariables == null) {
+      liveVariables = LiveVariables.analyze(this);
+    }
+    return liveVariables;
+  }
+
+  /**
+   * Live variables of this CFG (local variables, parameters and fields), computed once.
+   */
+  public LiveVariables liveVariablesWithFields() {
+    if (liveVariablesWithFields == null) {
+      liveVariablesWithFields = LiveVariables.analyzeWithFields(this);
+    }
+    return liveVariablesWithFields;
+  }
+
   private void build(ListTree<? extends Tree> trees) {
     build((List<? extends Tree>) trees);
   }
@@ -1166,6 +1228,9 @@ public class CFG implements ControlFlowGraph {
 
   public void setMethodSymbol(Symbol.MethodSymbol methodSymbol) {
     this.methodSymbol = methodSymbol;
+    // liveness of parameters depends on the method symbol
+    liveVariables = null;
+    liveVariablesWithFields = null;
   }
 
 }
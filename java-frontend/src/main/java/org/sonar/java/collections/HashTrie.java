@@ -0,0 +1,475 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+/**
+ * Hash Array Mapped Trie.
+ *
+ * https://en.wikipedia.org/wiki/Hash_array_mapped_trie
+ *
+ * Each level of the trie consumes 5 bits of the hash code of keys, starting from the lowest ones. Keys with the same hash code are kept
+ * in a collision node. The trie is kept canonical (a branch is only created to hold at least 2 entries), so that the same entries always
+ * give the same structure: equality is computed structurally, short-circuited by the size and the hash code which are cached in every node,
+ * and by the subtrees shared between the compared tries.
+ */
+abstract class HashTrie<K, V> implements PMap<K, V>, PSet<K> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  /**
+   * @return empty trie
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> HashTrie<K, V> create() {
+    return (HashTrie<K, V>) EMPTY;
+  }
+
+  /**
+   * Elements of a set are stored as entries mapping each element to itself, as for {@link AVLTree}.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public HashTrie<K, V> add(K e) {
+    Objects.requireNonNull(e);
+    return put(e.hashCode(), e, (V) e, 0);
+  }
+
+  @Override
+  public boolean contains(K k) {
+    return get(k) != null;
+  }
+
+  @Override
+  public HashTrie<K, V> put(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    return put(key.hashCode(), key, value, 0);
+  }
+
+  @Override
+  public HashTrie<K, V> remove(K key) {
+    Objects.requireNonNull(key);
+    return remove(key.hashCode(), key, 0);
+  }
+
+  @Nullable
+  @Override
+  public V get(K key) {
+    Objects.requireNonNull(key);
+    return get(key.hashCode(), key, 0);
+  }
+
+  @Override
+  public void forEach(Consumer<K> action) {
+    forEach((k, v) -> action.accept(k));
+  }
+
+  @Override
+  public void forEach(BiConsumer<K, V> action) {
+    forEachEntry(action);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  abstract int size();
+
+  abstract HashTrie<K, V> put(int hash, K key, V value, int shift);
+
+  abstract HashTrie<K, V> remove(int hash, K key, int shift);
+
+  @Nullable
+  abstract V get(int hash, K key, int shift);
+
+  abstract void forEachEntry(BiConsumer<K, V> action);
+
+  /**
+   * @param other trie of the same class, with the same size and hash code
+   */
+  abstract boolean sameEntries(HashTrie<?, ?> other);
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof HashTrie)) {
+      return false;
+    }
+    HashTrie<?, ?> other = (HashTrie<?, ?>) obj;
+    return hashCode() == other.hashCode()
+      && size() == other.size()
+      && getClass() == other.getClass()
+      && sameEntries(other);
+  }
+
+  /**
+   * Entries are listed in the ascending order of hash codes of keys, as for {@link AVLTree}.
+   */
+  @Override
+  public String toString() {
+    List<Object[]> entries = new ArrayList<>(size());
+    forEachEntry((k, v) -> entries.add(new Object[] {k, v}));
+    entries.sort(Comparator.comparingInt(entry -> entry[0].hashCode()));
+    StringBuilder sb = new StringBuilder();
+    entries.forEach(entry -> sb.append(' ').append(entry[0]).append("->").append(entry[1]));
+    return sb.toString();
+  }
+
+  private static int entryHashCode(Object key, Object value) {
+    // the key is multiplied by 31 to avoid K ^ V == 0 when K == V in case of set
+    return (31 * key.hashCode()) ^ value.hashCode();
+  }
+
+  private static int index(int hash, int shift) {
+    return (hash >>> shift) & MASK;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> HashTrie<K, V>[] newArray(int length) {
+    return (HashTrie<K, V>[]) new HashTrie<?, ?>[length];
+  }
+
+  /**
+   * @return the smallest trie holding both given nodes, whose keys have different hash codes
+   */
+  private static <K, V> HashTrie<K, V> merge(HashTrie<K, V> first, int firstHash, HashTrie<K, V> second, int secondHash, int shift) {
+    int firstIndex = index(firstHash, shift);
+    int secondIndex = index(secondHash, shift);
+    HashTrie<K, V>[] children;
+    if (firstIndex == secondIndex) {
+      children = newArray(1);
+      children[0] = merge(first, firstHash, second, secondHash, shift + BITS);
+      return new Branch<>(1 << firstIndex, children);
+    }
+    children = newArray(2);
+    children[0] = firstIndex < secondIndex ? first : second;
+    children[1] = firstIndex < secondIndex ? second : first;
+    return new Branch<>((1 << firstIndex) | (1 << secondIndex), children);
+  }
+
+  private static final class Leaf<K, V> extends HashTrie<K, V> {
+    private final int hash;
+    private final K key;
+    private final V value;
+    private final int hashCode;
+
+    Leaf(int hash, K key, V value) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.hashCode = entryHashCode(key, value);
+    }
+
+    @Override
+    int size() {
+      return 1;
+    }
+
+    @Override
+    HashTrie<K, V> put(int hash, K key, V value, int shift) {
+      if (hash != this.hash) {
+        return merge(this, this.hash, new Leaf<>(hash, key, value), hash, shift);
+      }
+      if (key.equals(this.key)) {
+        return value.equals(this.value) ? this : new Leaf<>(hash, key, value);
+      }
+      return new Collision<>(hash, new Object[] {this.key, key}, new Object[] {this.value, value});
+    }
+
+    @Override
+    HashTrie<K, V> remove(int hash, K key, int shift) {
+      return hash == this.hash && key.equals(this.key) ? create() : this;
+    }
+
+    @Override
+    V get(int hash, K key, int shift) {
+      return hash == this.hash && key.equals(this.key) ? value : null;
+    }
+
+    @Override
+    void forEachEntry(BiConsumer<K, V> action) {
+      action.accept(key, value);
+    }
+
+    @Override
+    boolean sameEntries(HashTrie<?, ?> other) {
+      Leaf<?, ?> leaf = (Leaf<?, ?>) other;
+      return key.equals(leaf.key) && value.equals(leaf.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * Entries whose keys have the same hash code. Keys and values are kept in arrays of objects, as arrays of type parameters can not be
+   * created: they are only read through the typed accessors.
+   */
+  private static final class Collision<K, V> extends HashTrie<K, V> {
+    private final int hash;
+    private final Object[] keys;
+    private final Object[] values;
+    private final int hashCode;
+
+    Collision(int hash, Object[] keys, Object[] values) {
+      this.hash = hash;
+      this.keys = keys;
+      this.values = values;
+      int h = 0;
+      for (int i = 0; i < keys.length; i++) {
+        h += entryHashCode(keys[i], values[i]);
+      }
+      this.hashCode = h;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int i) {
+      return (K) keys[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int i) {
+      return (V) values[i];
+    }
+
+    @Override
+    int size() {
+      return keys.length;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < keys.length; i++) {
+        if (key.equals(keys[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    HashTrie<K, V> put(int hash, K key, V value, int shift) {
+      if (hash != this.hash) {
+        return merge(this, this.hash, new Leaf<>(hash, key, value), hash, shift);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        if (value.equals(values[i])) {
+          return this;
+        }
+        Object[] newValues = values.clone();
+        newValues[i] = value;
+        return new Collision<>(hash, keys, newValues);
+      }
+      Object[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+      Object[] newValues = Arrays.copyOf(values, values.length + 1);
+      newKeys[keys.length] = key;
+      newValues[values.length] = value;
+      return new Collision<>(hash, newKeys, newValues);
+    }
+
+    @Override
+    HashTrie<K, V> remove(int hash, K key, int shift) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      if (keys.length == 2) {
+        return new Leaf<>(hash, key(1 - i), value(1 - i));
+      }
+      return new Collision<>(hash, removeAt(keys, i), removeAt(values, i));
+    }
+
+    private static Object[] removeAt(Object[] array, int i) {
+      Object[] result = new Object[array.length - 1];
+      System.arraycopy(array, 0, result, 0, i);
+      System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+      return result;
+    }
+
+    @Override
+    V get(int hash, K key, int shift) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      return i < 0 ? null : value(i);
+    }
+
+    @Override
+    void forEachEntry(BiConsumer<K, V> action) {
+      for (int i = 0; i < keys.length; i++) {
+        action.accept(key(i), value(i));
+      }
+    }
+
+    @Override
+    boolean sameEntries(HashTrie<?, ?> other) {
+      Collision<?, ?> collision = (Collision<?, ?>) other;
+      for (int i = 0; i < keys.length; i++) {
+        int j = collision.indexOf(keys[i]);
+        if (j < 0 || !values[i].equals(collision.values[j])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class Branch<K, V> extends HashTrie<K, V> {
+    private final int bitmap;
+    private final HashTrie<K, V>[] children;
+    private final int size;
+    private final int hashCode;
+
+    Branch(int bitmap, HashTrie<K, V>[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+      int s = 0;
+      int h = 0;
+      for (HashTrie<K, V> child : children) {
+        s += child.size();
+        h += child.hashCode();
+      }
+      this.size = s;
+      this.hashCode = h;
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    private int position(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    HashTrie<K, V> put(int hash, K key, V value, int shift) {
+      if (size == 0) {
+        return new Leaf<>(hash, key, value);
+      }
+      int bit = 1 << index(hash, shift);
+      int position = position(bit);
+      if ((bitmap & bit) == 0) {
+        HashTrie<K, V>[] newChildren = newArray(children.length + 1);
+        System.arraycopy(children, 0, newChildren, 0, position);
+        newChildren[position] = new Leaf<>(hash, key, value);
+        System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+        return new Branch<>(bitmap | bit, newChildren);
+      }
+      HashTrie<K, V> child = children[position];
+      HashTrie<K, V> newChild = child.put(hash, key, value, shift + BITS);
+      if (newChild == child) {
+        return this;
+      }
+      HashTrie<K, V>[] newChildren = children.clone();
+      newChildren[position] = newChild;
+      return new Branch<>(bitmap, newChildren);
+    }
+
+    @Override
+    HashTrie<K, V> remove(int hash, K key, int shift) {
+      int bit = 1 << index(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int position = position(bit);
+      HashTrie<K, V> child = children[position];
+      HashTrie<K, V> newChild = child.remove(hash, key, shift + BITS);
+      if (newChild == child) {
+        return this;
+      }
+      if (!newChild.isEmpty()) {
+        if (children.length == 1 && !(newChild instanceof Branch)) {
+          // a branch holding a single entry is replaced by that entry
+          return newChild;
+        }
+        HashTrie<K, V>[] newChildren = children.clone();
+        newChildren[position] = newChild;
+        return new Branch<>(bitmap, newChildren);
+      }
+      if (children.length == 1) {
+        return create();
+      }
+      if (children.length == 2 && !(children[1 - position] instanceof Branch)) {
+        return children[1 - position];
+      }
+      HashTrie<K, V>[] newChildren = newArray(children.length - 1);
+      System.arraycopy(children, 0, newChildren, 0, position);
+      System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+      return new Branch<>(bitmap & ~bit, newChildren);
+    }
+
+    @Override
+    V get(int hash, K key, int shift) {
+      int bit = 1 << index(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      return children[position(bit)].get(hash, key, shift + BITS);
+    }
+
+    @Override
+    void forEachEntry(BiConsumer<K, V> action) {
+      for (HashTrie<K, V> child : children) {
+        child.forEachEntry(action);
+      }
+    }
+
+    @Override
+    boolean sameEntries(HashTrie<?, ?> other) {
+      Branch<?, ?> branch = (Branch<?, ?>) other;
+      if (bitmap != branch.bitmap) {
+        return false;
+      }
+      for (int i = 0; i < children.length; i++) {
+        if (!children[i].equals(branch.children[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final HashTrie<?, ?> EMPTY = new Branch<>(0, newArray(0));
+
+}
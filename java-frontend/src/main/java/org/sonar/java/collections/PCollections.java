@@ -21,15 +21,23 @@ package org.sonar.java.collections;
 
 public final class PCollections {
 
+  /**
+   * System property selecting the implementation of persistent maps and sets: {@code avl} (default) for {@link AVLTree},
+   * {@code hamt} for {@link HashTrie}. Read once, as collections of different implementations are never equal.
+   */
+  public static final String IMPLEMENTATION_PROPERTY = "sonar.java.internal.pcollections";
+
+  private static final boolean HASH_TRIE = "hamt".equals(System.getProperty(IMPLEMENTATION_PROPERTY));
+
   private PCollections() {
   }
 
   public static <E> PSet<E> emptySet() {
-    return AVLTree.create();
+    return HASH_TRIE ? HashTrie.create() : AVLTree.create();
   }
 
   public static <E, V> PMap<E, V> emptyMap() {
-    return AVLTree.create();
+    return HASH_TRIE ? HashTrie.create() : AVLTree.create();
   }
 
   public static <E> PStack<E> emptyStack() {
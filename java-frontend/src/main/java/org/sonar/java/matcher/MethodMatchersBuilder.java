@@ -21,7 +21,9 @@ package org.sonar.java.matcher;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -47,18 +49,27 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
   @Nullable
   private final Predicate<String> namePredicate;
 
+  /**
+   * Names accepted by {@link #namePredicate}, null when any name may be accepted.
+   */
+  @Nullable
+  private final Set<String> names;
+
   @Nullable
   private final Predicate<List<Type>> parametersPredicate;
 
   public MethodMatchersBuilder() {
     this.typePredicate = null;
     this.namePredicate = null;
+    this.names = null;
     this.parametersPredicate = null;
   }
 
-  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Predicate<List<Type>> parametersPredicate) {
+  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Set<String> names,
+    @Nullable Predicate<List<Type>> parametersPredicate) {
     this.typePredicate = typePredicate;
     this.namePredicate = namePredicate;
+    this.names = names;
     this.parametersPredicate = parametersPredicate;
   }
 
@@ -111,15 +122,17 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public NameBuilder ofType(Predicate<Type> typePredicate) {
-    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, parametersPredicate);
+    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, names, parametersPredicate);
   }
 
   @Override
   public ParametersBuilder names(String... names) {
-    return name(substituteAnyAndCreateEfficientPredicate(
+    Predicate<String> predicate = substituteAnyAndCreateEfficientPredicate(
       names,
       name -> name::equals,
-      nameList -> nameList::contains));
+      nameList -> nameList::contains);
+    List<String> nameList = Arrays.asList(names);
+    return name(predicate, nameList.contains(ANY) ? null : new HashSet<>(nameList));
   }
 
   @Override
@@ -134,7 +147,26 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder name(Predicate<String> namePredicate) {
-    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), parametersPredicate);
+    return name(namePredicate, null);
+  }
+
+  private ParametersBuilder name(Predicate<String> namePredicate, @Nullable Set<String> addedNames) {
+    Set<String> allNames = null;
+    if (this.namePredicate == null) {
+      allNames = addedNames;
+    } else if (this.names != null && addedNames != null) {
+      allNames = new HashSet<>(this.names);
+      allNames.addAll(addedNames);
+    }
+    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), allNames, parametersPredicate);
+  }
+
+  /**
+   * @return names of the methods which can be matched, or null when any name can be matched
+   */
+  @CheckForNull
+  Set<String> names() {
+    return names;
   }
 
   @Override
@@ -163,7 +195,7 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder addParametersMatcher(Predicate<List<Type>> parametersPredicate) {
-    return new MethodMatchersBuilder(typePredicate, namePredicate, or(this.parametersPredicate, parametersPredicate));
+    return new MethodMatchersBuilder(typePredicate, namePredicate, names, or(this.parametersPredicate, parametersPredicate));
   }
 
   private static boolean exactMatchesParameters(List<Predicate<Type>> expectedTypes, List<Type> actualTypes) {
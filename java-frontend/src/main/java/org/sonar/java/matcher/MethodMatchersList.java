@@ -20,7 +20,12 @@
 package org.sonar.java.matcher;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.java.model.ExpressionUtils;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
@@ -28,37 +33,113 @@ import org.sonar.plugins.java.api.tree.MethodReferenceTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 
+/**
+ * Matches when any of the given matchers matches. Matchers built for known method names are indexed by name, so that a method is only
+ * tested against the matchers which can match its name, and against the matchers accepting any name.
+ */
 public class MethodMatchersList implements MethodMatchers {
 
-  private List<? extends MethodMatchers> matchers;
+  private static final MethodMatchers[] NO_MATCHERS = new MethodMatchers[0];
+
+  private final Map<String, MethodMatchers[]> matchersByName = new HashMap<>();
+  private final MethodMatchers[] matchersForAnyName;
 
   public MethodMatchersList(List<? extends MethodMatchers> matchers) {
-    this.matchers = new ArrayList<>(matchers);
+    List<MethodMatchers> allMatchers = new ArrayList<>();
+    flatten(matchers, allMatchers);
+    List<MethodMatchers> anyName = new ArrayList<>();
+    Map<String, List<MethodMatchers>> byName = new HashMap<>();
+    for (MethodMatchers matcher : allMatchers) {
+      Set<String> names = matcher instanceof MethodMatchersBuilder ? ((MethodMatchersBuilder) matcher).names() : null;
+      if (names == null) {
+        anyName.add(matcher);
+      } else {
+        names.forEach(name -> byName.computeIfAbsent(name, k -> new ArrayList<>()).add(matcher));
+      }
+    }
+    matchersForAnyName = anyName.toArray(NO_MATCHERS);
+    byName.forEach((name, nameMatchers) -> {
+      nameMatchers.addAll(anyName);
+      matchersByName.put(name, nameMatchers.toArray(NO_MATCHERS));
+    });
+  }
+
+  private static void flatten(List<? extends MethodMatchers> matchers, List<MethodMatchers> result) {
+    for (MethodMatchers matcher : matchers) {
+      if (matcher instanceof MethodMatchersList) {
+        MethodMatchersList list = (MethodMatchersList) matcher;
+        Set<MethodMatchers> nested = new LinkedHashSet<>();
+        list.matchersByName.values().forEach(nameMatchers -> addAll(nameMatchers, nested));
+        addAll(list.matchersForAnyName, nested);
+        result.addAll(nested);
+      } else if (!(matcher instanceof NoneMethodMatchers)) {
+        result.add(matcher);
+      }
+    }
+  }
+
+  private static void addAll(MethodMatchers[] matchers, Set<MethodMatchers> result) {
+    for (MethodMatchers matcher : matchers) {
+      result.add(matcher);
+    }
+  }
+
+  private MethodMatchers[] candidates(Symbol symbol) {
+    // only matchers accepting any name can match something else than a method
+    if (!symbol.isMethodSymbol()) {
+      return matchersForAnyName;
+    }
+    return matchersByName.getOrDefault(symbol.name(), matchersForAnyName);
   }
 
   @Override
   public boolean matches(NewClassTree newClassTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(newClassTree));
+    for (MethodMatchers matcher : candidates(newClassTree.constructorSymbol())) {
+      if (matcher.matches(newClassTree)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
   public boolean matches(MethodInvocationTree mit) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(mit));
+    for (MethodMatchers matcher : candidates(ExpressionUtils.methodName(mit).symbol())) {
+      if (matcher.matches(mit)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
   public boolean matches(MethodTree methodTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodTree));
+    for (MethodMatchers matcher : candidates(methodTree.symbol())) {
+      if (matcher.matches(methodTree)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
   public boolean matches(MethodReferenceTree methodReferenceTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodReferenceTree));
+    for (MethodMatchers matcher : candidates(methodReferenceTree.method().symbol())) {
+      if (matcher.matches(methodReferenceTree)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
   public boolean matches(Symbol symbol) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(symbol));
+    for (MethodMatchers matcher : candidates(symbol)) {
+      if (matcher.matches(symbol)) {
+        return true;
+      }
+    }
+    return false;
   }
 
 }
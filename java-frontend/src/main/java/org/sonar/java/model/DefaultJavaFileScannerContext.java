@@ -57,6 +57,8 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext, Re
   private final InputFile inputFile;
   private final JavaVersion javaVersion;
   private final boolean fileParsed;
+  @Nullable
+  private FileContent fileContent;
 
   public DefaultJavaFileScannerContext(CompilationUnitTree tree, InputFile inputFile, Sema semanticModel,
                                        @Nullable SonarComponents sonarComponents, JavaVersion javaVersion, boolean fileParsed) {
@@ -65,7 +67,7 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext, Re
     this.semanticEnabled = semanticModel != null;
     this.sonarComponents = sonarComponents;
     this.complexityVisitor = new ComplexityVisitor();
-    this.regexCache = new RegexCache();
+    this.regexCache = new RegexCache(sonarComponents != null ? sonarComponents.sharedRegexCache() : null);
     this.javaVersion = javaVersion;
     this.fileParsed = fileParsed;
   }
@@ -194,14 +196,26 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext, Re
     reportIssue(createAnalyzerMessage(inputFile, javaCheck, startTree, endTree, message, flows, cost));
   }
 
+  /**
+   * @return lines of the file, shared by all the checks: the returned list can not be modified
+   */
   @Override
   public List<String> getFileLines() {
-    return sonarComponents.fileLines(inputFile);
+    return fileContent().lines();
   }
 
   @Override
   public String getFileContent() {
-    return sonarComponents.inputFileContents(inputFile);
+    return fileContent().content();
+  }
+
+  private FileContent fileContent() {
+    if (fileContent == null) {
+      // parsed files already hold their content
+      String content = tree.source != null ? tree.source : sonarComponents.inputFileContents(inputFile);
+      fileContent = new FileContent(content);
+    }
+    return fileContent;
   }
 
   public void reportIssue(AnalyzerMessage message) {
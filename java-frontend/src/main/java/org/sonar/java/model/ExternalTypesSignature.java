@@ -0,0 +1,134 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import javax.annotation.CheckForNull;
+import org.eclipse.jdt.core.dom.IAnnotationBinding;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+/**
+ * Textual fingerprint of the signatures of all the types referenced from a file, but declared outside of it, including their
+ * super types. Changing members, modifiers, annotations or hierarchy of any of these types changes the fingerprint.
+ */
+public final class ExternalTypesSignature {
+
+  private ExternalTypesSignature() {
+  }
+
+  public static String of(JSema sema) {
+    Set<IBinding> declaredBindings = sema.declarations.keySet();
+    Set<ITypeBinding> visited = new HashSet<>();
+    SortedSet<String> signatures = new TreeSet<>();
+    for (IBinding binding : sema.usages.keySet()) {
+      ITypeBinding type = declaringType(binding);
+      if (type != null && !declaredBindings.contains(type)) {
+        collectSignatures(type, visited, signatures);
+      }
+    }
+    return String.join("\n", signatures);
+  }
+
+  /**
+   * @return signatures of the methods invoked or referenced from the file, but declared outside of it
+   */
+  public static Set<String> externalMethodSignatures(JSema sema) {
+    Set<String> signatures = new TreeSet<>();
+    for (IBinding binding : sema.usages.keySet()) {
+      if (binding.getKind() == IBinding.METHOD && !sema.declarations.containsKey(binding)) {
+        signatures.add(sema.methodSymbol((IMethodBinding) binding).signature());
+      }
+    }
+    return signatures;
+  }
+
+  @CheckForNull
+  private static ITypeBinding declaringType(IBinding binding) {
+    switch (binding.getKind()) {
+      case IBinding.TYPE:
+        return (ITypeBinding) binding;
+      case IBinding.METHOD:
+        return ((IMethodBinding) binding).getDeclaringClass();
+      case IBinding.VARIABLE:
+        // null for local variables and parameters
+        return ((IVariableBinding) binding).getDeclaringClass();
+      default:
+        return null;
+    }
+  }
+
+  private static void collectSignatures(ITypeBinding typeBinding, Set<ITypeBinding> visited, Set<String> signatures) {
+    ITypeBinding type = typeBinding.isArray() ? typeBinding.getElementType() : typeBinding;
+    type = type.getTypeDeclaration();
+    if (type.isPrimitive() || type.isTypeVariable() || !visited.add(type)) {
+      return;
+    }
+    signatures.add(signature(type));
+    ITypeBinding superclass = type.getSuperclass();
+    if (superclass != null) {
+      collectSignatures(superclass, visited, signatures);
+    }
+    for (ITypeBinding superInterface : type.getInterfaces()) {
+      collectSignatures(superInterface, visited, signatures);
+    }
+    ITypeBinding declaringClass = type.getDeclaringClass();
+    if (declaringClass != null) {
+      collectSignatures(declaringClass, visited, signatures);
+    }
+  }
+
+  private static String signature(ITypeBinding type) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(type.getKey()).append(' ').append(type.getModifiers()).append(type.isRecovered() ? " recovered" : "");
+    ITypeBinding superclass = type.getSuperclass();
+    if (superclass != null) {
+      sb.append(" extends ").append(superclass.getKey());
+    }
+    for (ITypeBinding superInterface : type.getInterfaces()) {
+      sb.append(" implements ").append(superInterface.getKey());
+    }
+    appendAnnotations(sb, type.getAnnotations());
+    for (IVariableBinding field : type.getDeclaredFields()) {
+      sb.append("\n  ").append(field.getKey()).append(' ').append(field.getModifiers()).append(' ').append(field.getConstantValue());
+      appendAnnotations(sb, field.getAnnotations());
+    }
+    for (IMethodBinding method : type.getDeclaredMethods()) {
+      sb.append("\n  ").append(method.getKey()).append(' ').append(method.getModifiers());
+      for (ITypeBinding exceptionType : method.getExceptionTypes()) {
+        sb.append(" throws ").append(exceptionType.getKey());
+      }
+      appendAnnotations(sb, method.getAnnotations());
+    }
+    return sb.toString();
+  }
+
+  private static void appendAnnotations(StringBuilder sb, IAnnotationBinding[] annotations) {
+    for (IAnnotationBinding annotation : annotations) {
+      sb.append(" @").append(annotation.getAnnotationType().getKey());
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Content of the analyzed file, read once for all the checks, with the offsets of its lines. Lines are split on the same separators as
+ * {@link java.util.Scanner#nextLine()}, and their text is only extracted when they are accessed.
+ */
+final class FileContent {
+
+  private final String content;
+  private int[] lineStarts = new int[64];
+  private int[] lineEnds = new int[64];
+  private int lineCount = 0;
+  private List<String> lines;
+
+  FileContent(String content) {
+    this.content = content;
+    int length = content.length();
+    int lineStart = 0;
+    int i = 0;
+    while (i < length) {
+      char c = content.charAt(i);
+      if (isLineSeparator(c)) {
+        addLine(lineStart, i);
+        i += (c == '\r' && i + 1 < length && content.charAt(i + 1) == '\n') ? 2 : 1;
+        lineStart = i;
+      } else {
+        i++;
+      }
+    }
+    if (lineStart < length) {
+      addLine(lineStart, length);
+    }
+    lineStarts = Arrays.copyOf(lineStarts, lineCount);
+    lineEnds = Arrays.copyOf(lineEnds, lineCount);
+  }
+
+  private static boolean isLineSeparator(char c) {
+    return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+  }
+
+  private void addLine(int start, int end) {
+    if (lineCount == lineStarts.length) {
+      lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+      lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+    }
+    lineStarts[lineCount] = start;
+    lineEnds[lineCount] = end;
+    lineCount++;
+  }
+
+  String content() {
+    return content;
+  }
+
+  /**
+   * @return unmodifiable lines of the file, without line separators
+   */
+  List<String> lines() {
+    if (lines == null) {
+      lines = new Lines();
+    }
+    return lines;
+  }
+
+  private class Lines extends AbstractList<String> implements RandomAccess {
+    private final String[] values = new String[lineCount];
+
+    @Override
+    public String get(int index) {
+      String value = values[index];
+      if (value == null) {
+        value = content.substring(lineStarts[index], lineEnds[index]);
+        values[index] = value;
+      }
+      return value;
+    }
+
+    @Override
+    public int size() {
+      return lineCount;
+    }
+  }
+
+}
@@ -20,9 +20,11 @@
 package org.sonar.java.model;
 
 import com.sonar.sslr.api.RecognitionException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.compiler.IProblem;
-import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -62,6 +64,7 @@ import org.eclipse.jdt.core.dom.ExpressionMethodReference;
 import org.eclipse.jdt.core.dom.ExpressionStatement;
 import org.eclipse.jdt.core.dom.FieldAccess;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 import org.eclipse.jdt.core.dom.ForStatement;
 import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.IExtendedModifier;
@@ -132,12 +135,8 @@ import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 import org.eclipse.jdt.core.dom.WildcardType;
 import org.eclipse.jdt.core.dom.YieldStatement;
-import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
-import org.eclipse.jdt.internal.compiler.parser.Scanner;
 import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
-import org.eclipse.jdt.internal.formatter.DefaultCodeFormatterOptions;
-import org.eclipse.jdt.internal.formatter.Token;
-import org.eclipse.jdt.internal.formatter.TokenManager;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.ast.parser.ArgumentListTreeImpl;
@@ -239,6 +238,9 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
 
 @ParametersAreNonnullByDefault
 public class JParser {
@@ -257,6 +259,66 @@ public class JParser {
     String source,
     List<File> classpath
   ) {
+    ASTParser astParser = createASTParser(version, classpath);
+    astParser.setUnitName(unitName);
+
+    char[] sourceChars = source.toCharArray();
+    astParser.setSource(sourceChars);
+
+    CompilationUnit astNode;
+    try {
+      astNode = (CompilationUnit) astParser.createAST(null);
+    } catch (Exception e) {
+      LOG.error("ECJ: Unable to parse file", e);
+      throw new RecognitionException(-1, "ECJ: Unable to parse file.", e);
+    }
+    return convert(version, unitName, source, astNode);
+  }
+
+  /**
+   * Parses and resolves all the given files at once, sharing a single ECJ name environment: classpath entries are opened and indexed
+   * only once for the whole batch, and bindings between the sources of the batch are resolved.
+   * <p>
+   * The action is called once per file, while the batch environment is still alive. The supplied {@link Callable} converts the ECJ
+   * AST to a tree and throws {@link RecognitionException} in case of syntax errors.
+   *
+   * @throws OperationCanceledException if the given supplier reports cancellation before the end of the batch
+   */
+  public static void parseAll(
+    String version,
+    List<File> classpath,
+    List<? extends InputFile> inputFiles,
+    BooleanSupplier isCanceled,
+    BiConsumer<InputFile, Callable<CompilationUnitTree>> action
+  ) {
+    Map<String, InputFile> filesByPath = new HashMap<>();
+    String[] sourceFilePaths = new String[inputFiles.size()];
+    String[] encodings = new String[inputFiles.size()];
+    for (int i = 0; i < inputFiles.size(); i++) {
+      InputFile inputFile = inputFiles.get(i);
+      sourceFilePaths[i] = inputFile.absolutePath();
+      encodings[i] = inputFile.charset().name();
+      filesByPath.put(sourceFilePaths[i], inputFile);
+    }
+
+    ASTParser astParser = createASTParser(version, classpath);
+    FileASTRequestor requestor = new FileASTRequestor() {
+      @Override
+      public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+        InputFile inputFile = filesByPath.get(sourceFilePath);
+        action.accept(inputFile, () -> convert(version, inputFile.filename(), inputFile.contents(), ast));
+      }
+    };
+    IProgressMonitor monitor = new NullProgressMonitor() {
+      @Override
+      public boolean isCanceled() {
+        return isCanceled.getAsBoolean();
+      }
+    };
+    astParser.createASTs(sourceFilePaths, encodings, new String[0], requestor, monitor);
+  }
+
+  private static ASTParser createASTParser(String version, List<File> classpath) {
     ASTParser astParser = ASTParser.newParser(AST.JLS14);
     Map<String, String> options = new HashMap<>();
     options.put(JavaCore.COMPILER_COMPLIANCE, version);
@@ -273,21 +335,13 @@ public class JParser {
       new String[]{},
       true
     );
-    astParser.setUnitName(unitName);
 
     astParser.setResolveBindings(true);
     astParser.setBindingsRecovery(true);
+    return astParser;
+  }
 
-    char[] sourceChars = source.toCharArray();
-    astParser.setSource(sourceChars);
-
-    CompilationUnit astNode;
-    try {
-      astNode = (CompilationUnit) astParser.createAST(null);
-    } catch (Exception e) {
-      LOG.error("ECJ: Unable to parse file", e);
-      throw new RecognitionException(-1, "ECJ: Unable to parse file.", e);
-    }
+  private static CompilationUnitTree convert(String version, String unitName, String source, CompilationUnit astNode) {
     for (IProblem problem : astNode.getProblems()) {
       if (!problem.isError()) {
         continue;
@@ -304,10 +358,11 @@ public class JParser {
     JParser converter = new JParser();
     converter.sema = new JSema(astNode.getAST());
     converter.compilationUnit = astNode;
-    converter.tokenManager = new TokenManager(lex(version, unitName, sourceChars), source, new DefaultCodeFormatterOptions(new HashMap<>()));
+    converter.tokens = TokenTable.lex(version, unitName, source);
 
     JavaTree.CompilationUnitTreeImpl tree = converter.convertCompilationUnit(astNode);
     tree.sema = converter.sema;
+    tree.source = source;
 
     ASTUtils.mayTolerateMissingType(astNode.getAST());
 
@@ -332,37 +387,9 @@ public class JParser {
     return ((JavaTree) node).getChildren().iterator();
   }
 
-  private static List<Token> lex(String version, String unitName, char[] sourceChars) {
-    List<Token> tokens = new ArrayList<>();
-    Scanner scanner = new Scanner(
-      true,
-      false,
-      false,
-      CompilerOptions.versionToJdkLevel(version),
-      null,
-      null,
-      false
-    );
-    scanner.fakeInModule = "module-info.java".equals(unitName);
-    scanner.setSource(sourceChars);
-    while (true) {
-      try {
-        int tokenType = scanner.getNextToken();
-        Token token = Token.fromCurrent(scanner, tokenType);
-        tokens.add(token);
-        if (tokenType == TerminalTokens.TokenNameEOF) {
-          break;
-        }
-      } catch (InvalidInputException e) {
-        throw new IllegalStateException(e);
-      }
-    }
-    return tokens;
-  }
-
   private CompilationUnit compilationUnit;
 
-  private TokenManager tokenManager;
+  private TokenTable tokens;
 
   private JSema sema;
 
@@ -398,8 +425,8 @@ public class JParser {
   }
 
   private int firstTokenIndexAfter(ASTNode e) {
-    int index = tokenManager.firstIndexAfter(e, ANY_TOKEN);
-    while (tokenManager.get(index).isComment()) {
+    int index = tokens.firstIndexAfter(e, ANY_TOKEN);
+    while (tokens.isComment(index)) {
       index++;
     }
     return index;
@@ -412,7 +439,7 @@ public class JParser {
     assert tokenType != ANY_TOKEN;
     do {
       tokenIndex += 1;
-    } while (tokenManager.get(tokenIndex).tokenType != tokenType);
+    } while (tokens.type(tokenIndex) != tokenType);
     return tokenIndex;
   }
 
@@ -420,38 +447,38 @@ public class JParser {
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken firstTokenBefore(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexBefore(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexBefore(e, tokenType));
   }
 
   /**
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken firstTokenAfter(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexAfter(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexAfter(e, tokenType));
   }
 
   /**
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken firstTokenIn(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexIn(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexIn(e, tokenType));
   }
 
   /**
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken lastTokenIn(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.lastIndexIn(e, tokenType));
+    return createSyntaxToken(tokens.lastIndexIn(e, tokenType));
   }
 
   private InternalSyntaxToken createSyntaxToken(int tokenIndex) {
-    Token t = tokenManager.get(tokenIndex);
-    if (t.tokenType == TerminalTokens.TokenNameEOF) {
-      if (t.originalStart == 0) {
+    int start = tokens.start(tokenIndex);
+    if (tokens.type(tokenIndex) == TerminalTokens.TokenNameEOF) {
+      if (start == 0) {
         return new InternalSyntaxToken(1, 0, "", collectComments(tokenIndex), true);
       }
-      final int position = t.originalStart - 1;
-      final char c = tokenManager.getSource().charAt(position);
+      final int position = start - 1;
+      final char c = tokens.source().charAt(position);
       int line = compilationUnit.getLineNumber(position);
       int column = compilationUnit.getColumnNumber(position);
       if (c == '\n' || c == '\r') {
@@ -463,22 +490,22 @@ public class JParser {
       return new InternalSyntaxToken(line, column, "", collectComments(tokenIndex), true);
     }
     return new InternalSyntaxToken(
-      compilationUnit.getLineNumber(t.originalStart),
-      compilationUnit.getColumnNumber(t.originalStart),
-      t.toString(tokenManager.getSource()),
+      compilationUnit.getLineNumber(start),
+      compilationUnit.getColumnNumber(start),
+      tokens.text(tokenIndex),
       collectComments(tokenIndex),
       false
     );
   }
 
   private InternalSyntaxToken createSpecialToken(int tokenIndex) {
-    Token t = tokenManager.get(tokenIndex);
-    List<SyntaxTrivia> comments = t.tokenType == TerminalTokens.TokenNameGREATER
+    List<SyntaxTrivia> comments = tokens.type(tokenIndex) == TerminalTokens.TokenNameGREATER
       ? collectComments(tokenIndex)
       : Collections.emptyList();
+    int end = tokens.end(tokenIndex);
     return new InternalSyntaxToken(
-      compilationUnit.getLineNumber(t.originalEnd),
-      compilationUnit.getColumnNumber(t.originalEnd),
+      compilationUnit.getLineNumber(end),
+      compilationUnit.getColumnNumber(end),
       ">",
       comments,
       false
@@ -487,16 +514,15 @@ public class JParser {
 
   private List<SyntaxTrivia> collectComments(int tokenIndex) {
     int commentIndex = tokenIndex;
-    while (commentIndex > 0 && tokenManager.get(commentIndex - 1).isComment()) {
+    while (commentIndex > 0 && tokens.isComment(commentIndex - 1)) {
       commentIndex--;
     }
     List<SyntaxTrivia> comments = new ArrayList<>();
     for (int i = commentIndex; i < tokenIndex; i++) {
-      Token t = tokenManager.get(i);
       comments.add(new InternalSyntaxTrivia(
-        t.toString(tokenManager.getSource()),
-        compilationUnit.getLineNumber(t.originalStart),
-        compilationUnit.getColumnNumber(t.originalStart)
+        tokens.text(i),
+        compilationUnit.getLineNumber(tokens.start(i)),
+        compilationUnit.getColumnNumber(tokens.start(i))
       ));
     }
     return comments;
@@ -505,12 +531,10 @@ public class JParser {
   @SuppressWarnings({"unchecked", "rawtypes"})
   private void addEmptyDeclarationsToList(int tokenIndex, List list) {
     while (true) {
-      Token token;
       do {
         tokenIndex++;
-        token = tokenManager.get(tokenIndex);
-      } while (token.isComment());
-      if (token.tokenType == TerminalTokens.TokenNameSEMICOLON) {
+      } while (tokens.isComment(tokenIndex));
+      if (tokens.type(tokenIndex) == TerminalTokens.TokenNameSEMICOLON) {
         list.add(
           new EmptyStatementTreeImpl(createSyntaxToken(tokenIndex))
         );
@@ -552,7 +576,7 @@ public class JParser {
       imports.add(t);
 
       addEmptyDeclarationsToList(
-        tokenManager.lastIndexIn(e2, TerminalTokens.TokenNameSEMICOLON),
+        tokens.lastIndexIn(e2, TerminalTokens.TokenNameSEMICOLON),
         imports
       );
     }
@@ -720,16 +744,16 @@ public class JParser {
     if (e.getNodeType() == ASTNode.ENUM_DECLARATION) {
       EnumDeclaration enumDeclaration = (EnumDeclaration) e;
       if (!enumDeclaration.enumConstants().isEmpty()) {
-        leftBraceTokenIndex = tokenManager.firstIndexBefore((ASTNode) enumDeclaration.enumConstants().get(0), TerminalTokens.TokenNameLBRACE);
+        leftBraceTokenIndex = tokens.firstIndexBefore((ASTNode) enumDeclaration.enumConstants().get(0), TerminalTokens.TokenNameLBRACE);
       } else if (!enumDeclaration.bodyDeclarations().isEmpty()) {
-        leftBraceTokenIndex = tokenManager.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalTokens.TokenNameLBRACE);
+        leftBraceTokenIndex = tokens.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalTokens.TokenNameLBRACE);
       } else {
-        leftBraceTokenIndex = tokenManager.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
+        leftBraceTokenIndex = tokens.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
       }
     } else if (!e.bodyDeclarations().isEmpty()) {
-      leftBraceTokenIndex = tokenManager.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalTokens.TokenNameLBRACE);
+      leftBraceTokenIndex = tokens.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalTokens.TokenNameLBRACE);
     } else {
-      leftBraceTokenIndex = tokenManager.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
+      leftBraceTokenIndex = tokens.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
     }
     addEmptyDeclarationsToList(leftBraceTokenIndex, members);
     for (Object o : e.bodyDeclarations()) {
@@ -874,7 +898,7 @@ public class JParser {
     final int openParTokenIndex = firstTokenIndexAfter(e.getName());
     final InternalSyntaxToken openParToken;
     final InternalSyntaxToken closeParToken;
-    if (tokenManager.get(openParTokenIndex).tokenType == TerminalTokens.TokenNameLPAREN) {
+    if (tokens.type(openParTokenIndex) == TerminalTokens.TokenNameLPAREN) {
       openParToken = createSyntaxToken(openParTokenIndex);
       closeParToken = e.arguments().isEmpty()
         ? firstTokenAfter(e.getName(), TerminalTokens.TokenNameRPAREN)
@@ -903,7 +927,7 @@ public class JParser {
 
     final int separatorTokenIndex = firstTokenIndexAfter(e);
     final InternalSyntaxToken separatorToken;
-    switch (tokenManager.get(separatorTokenIndex).tokenType) {
+    switch (tokens.type(separatorTokenIndex)) {
       case TerminalTokens.TokenNameCOMMA:
       case TerminalTokens.TokenNameSEMICOLON:
         separatorToken = createSyntaxToken(separatorTokenIndex);
@@ -948,7 +972,7 @@ public class JParser {
       case ASTNode.RECORD_DECLARATION:
       case ASTNode.TYPE_DECLARATION: {
         members.add(convertTypeDeclaration((AbstractTypeDeclaration) node));
-        lastTokenIndex = tokenManager.lastIndexIn(node, TerminalTokens.TokenNameRBRACE);
+        lastTokenIndex = tokens.lastIndexIn(node, TerminalTokens.TokenNameRBRACE);
         break;
       }
       case ASTNode.ANNOTATION_TYPE_MEMBER_DECLARATION: {
@@ -970,7 +994,7 @@ public class JParser {
         t.methodBinding = e.resolveBinding();
         declaration(t.methodBinding, t);
         members.add(t);
-        lastTokenIndex = tokenManager.lastIndexIn(node, TerminalTokens.TokenNameSEMICOLON);
+        lastTokenIndex = tokens.lastIndexIn(node, TerminalTokens.TokenNameSEMICOLON);
         break;
       }
       case ASTNode.INITIALIZER: {
@@ -991,7 +1015,7 @@ public class JParser {
             (InternalSyntaxToken) blockTree.closeBraceToken()
           ));
         }
-        lastTokenIndex = tokenManager.lastIndexIn(node, TerminalTokens.TokenNameRBRACE);
+        lastTokenIndex = tokens.lastIndexIn(node, TerminalTokens.TokenNameRBRACE);
         break;
       }
       case ASTNode.METHOD_DECLARATION: {
@@ -1046,7 +1070,7 @@ public class JParser {
         declaration(t.methodBinding, t);
 
         members.add(t);
-        lastTokenIndex = tokenManager.lastIndexIn(node, body == null ? TerminalTokens.TokenNameSEMICOLON : TerminalTokens.TokenNameRBRACE);
+        lastTokenIndex = tokens.lastIndexIn(node, body == null ? TerminalTokens.TokenNameSEMICOLON : TerminalTokens.TokenNameRBRACE);
         break;
       }
       case ASTNode.FIELD_DECLARATION: {
@@ -1078,7 +1102,7 @@ public class JParser {
 
           members.add(t);
         }
-        lastTokenIndex = tokenManager.lastIndexIn(node, TerminalTokens.TokenNameSEMICOLON);
+        lastTokenIndex = tokens.lastIndexIn(node, TerminalTokens.TokenNameSEMICOLON);
         break;
       }
       default:
@@ -1110,8 +1134,8 @@ public class JParser {
       return null;
     }
     ASTNode last = (ASTNode) list.get(list.size() - 1);
-    int tokenIndex = tokenManager.firstIndexAfter(last, ANY_TOKEN);
-    while (tokenManager.get(tokenIndex).isComment()) {
+    int tokenIndex = tokens.firstIndexAfter(last, ANY_TOKEN);
+    while (tokens.isComment(tokenIndex)) {
       tokenIndex++;
     }
     return convertTypeArguments(
@@ -1143,8 +1167,8 @@ public class JParser {
       return new TypeParameterListTreeImpl();
     }
     ASTNode last = (ASTNode) list.get(list.size() - 1);
-    int tokenIndex = tokenManager.firstIndexAfter(last, ANY_TOKEN);
-    while (tokenManager.get(tokenIndex).isComment()) {
+    int tokenIndex = tokens.firstIndexAfter(last, ANY_TOKEN);
+    while (tokens.isComment(tokenIndex)) {
       tokenIndex++;
     }
     TypeParameterListTreeImpl t = new TypeParameterListTreeImpl(
@@ -1410,12 +1434,12 @@ public class JParser {
         }
 
         final int firstSemicolonTokenIndex = e.initializers().isEmpty()
-          ? tokenManager.firstIndexIn(e, TerminalTokens.TokenNameSEMICOLON)
-          : tokenManager.firstIndexAfter((ASTNode) e.initializers().get(e.initializers().size() - 1), TerminalTokens.TokenNameSEMICOLON);
+          ? tokens.firstIndexIn(e, TerminalTokens.TokenNameSEMICOLON)
+          : tokens.firstIndexAfter((ASTNode) e.initializers().get(e.initializers().size() - 1), TerminalTokens.TokenNameSEMICOLON);
         Expression expression = e.getExpression();
         final int secondSemicolonTokenIndex = expression == null
           ? nextTokenIndex(firstSemicolonTokenIndex, TerminalTokens.TokenNameSEMICOLON)
-          : tokenManager.firstIndexAfter(expression, TerminalTokens.TokenNameSEMICOLON);
+          : tokens.firstIndexAfter(expression, TerminalTokens.TokenNameSEMICOLON);
 
         return new ForStatementTreeImpl(
           firstTokenIn(e, TerminalTokens.TokenNamefor),
@@ -1614,14 +1638,12 @@ public class JParser {
           if (i < e.resources().size() - 1) {
             resources.separators().add(firstTokenAfter(o, TerminalTokens.TokenNameSEMICOLON));
           } else {
-            int tokenIndex = tokenManager.firstIndexBefore(e.getBody(), TerminalTokens.TokenNameRPAREN);
+            int tokenIndex = tokens.firstIndexBefore(e.getBody(), TerminalTokens.TokenNameRPAREN);
             while (true) {
-              Token token;
               do {
                 tokenIndex--;
-                token = tokenManager.get(tokenIndex);
-              } while (token.isComment());
-              if (token.tokenType == TerminalTokens.TokenNameSEMICOLON) {
+              } while (tokens.isComment(tokenIndex));
+              if (tokens.type(tokenIndex) == TerminalTokens.TokenNameSEMICOLON) {
                 resources.separators().add(
                   createSyntaxToken(tokenIndex)
                 );
@@ -1938,7 +1960,7 @@ public class JParser {
           Expression o = (Expression) e.expressions().get(i);
           initializers.add(convertExpression(o));
           final int commaTokenIndex = firstTokenIndexAfter(o);
-          if (tokenManager.get(commaTokenIndex).tokenType == TerminalTokens.TokenNameCOMMA) {
+          if (tokens.type(commaTokenIndex) == TerminalTokens.TokenNameCOMMA) {
             initializers.separators().add(firstTokenAfter(o, TerminalTokens.TokenNameCOMMA));
           }
         }
@@ -2130,7 +2152,7 @@ public class JParser {
             rhs
           );
         } else {
-          final int firstDotTokenIndex = tokenManager.firstIndexAfter(e.getQualifier(), TerminalTokens.TokenNameDOT);
+          final int firstDotTokenIndex = tokens.firstIndexAfter(e.getQualifier(), TerminalTokens.TokenNameDOT);
           AbstractTypedTree qualifier = (AbstractTypedTree) convertExpression(e.getQualifier());
           KeywordSuper keywordSuper = new KeywordSuper(firstTokenAfter(e.getQualifier(), TerminalTokens.TokenNamesuper), null);
           MemberSelectExpressionTreeImpl qualifiedSuper = new MemberSelectExpressionTreeImpl(
@@ -2306,12 +2328,12 @@ public class JParser {
       }
       case ASTNode.NUMBER_LITERAL: {
         NumberLiteral e = (NumberLiteral) node;
-        int tokenIndex = tokenManager.findIndex(e.getStartPosition(), ANY_TOKEN, true);
-        int tokenType = tokenManager.get(tokenIndex).tokenType;
+        int tokenIndex = tokens.findIndex(e.getStartPosition(), ANY_TOKEN, true);
+        int tokenType = tokens.type(tokenIndex);
         boolean unaryMinus = tokenType == TerminalTokens.TokenNameMINUS;
         if (unaryMinus) {
           tokenIndex++;
-          tokenType = tokenManager.get(tokenIndex).tokenType;
+          tokenType = tokens.type(tokenIndex);
         }
         ExpressionTree result;
         switch (tokenType) {
@@ -2497,7 +2519,7 @@ public class JParser {
         ArrayType e = (ArrayType) node;
         @Nullable ITypeBinding elementTypeBinding = e.getElementType().resolveBinding();
         TypeTree t = convertType(e.getElementType());
-        int tokenIndex = tokenManager.firstIndexAfter(e.getElementType(), TerminalTokens.TokenNameLBRACKET);
+        int tokenIndex = tokens.firstIndexAfter(e.getElementType(), TerminalTokens.TokenNameLBRACKET);
         for (int i = 0; i < e.dimensions().size(); i++) {
           if (i > 0) {
             tokenIndex = nextTokenIndex(tokenIndex, TerminalTokens.TokenNameLBRACKET);
@@ -2686,7 +2708,7 @@ public class JParser {
     }
   }
 
-  private static final int ANY_TOKEN = -1;
+  private static final int ANY_TOKEN = TokenTable.ANY_TOKEN;
 
   private static final Map<Object, Op> operators = new HashMap<>();
 
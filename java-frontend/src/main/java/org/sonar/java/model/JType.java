@@ -25,7 +25,9 @@ import org.sonar.plugins.java.api.semantic.Type;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 final class JType implements Type, Type.ArrayType {
@@ -40,6 +42,11 @@ final class JType implements Type, Type.ArrayType {
    */
   private List<Type> typeArguments;
 
+  /**
+   * Cache for {@link #isSubtypeOf(String)}, as method matchers check the same supertypes over and over.
+   */
+  private Map<String, Boolean> subtypeOf;
+
   JType(JSema sema, ITypeBinding typeBinding) {
     this.sema = Objects.requireNonNull(sema);
     this.typeBinding = Objects.requireNonNull(typeBinding);
@@ -53,7 +60,10 @@ final class JType implements Type, Type.ArrayType {
 
   @Override
   public boolean isSubtypeOf(String fullyQualifiedName) {
-    return isSubtypeOf(sema.getClassType(fullyQualifiedName));
+    if (subtypeOf == null) {
+      subtypeOf = new HashMap<>();
+    }
+    return subtypeOf.computeIfAbsent(fullyQualifiedName, name -> isSubtypeOf(sema.getClassType(name)));
   }
 
   @Override
@@ -0,0 +1,227 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Arrays;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
+
+/**
+ * Tokens of a source file, comments included, stored as arrays of types and positions instead of one object per token.
+ * Positions are offsets in the source, end positions being inclusive.
+ */
+final class TokenTable {
+
+  static final int ANY_TOKEN = -1;
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final String source;
+  private int[] types;
+  private int[] starts;
+  private int[] ends;
+  private int size;
+
+  private TokenTable(String source) {
+    this.source = source;
+    // the density of tokens varies too much between sources to size the arrays from the source length: they grow while lexing,
+    // and are trimmed once the end of file is reached
+    types = new int[INITIAL_CAPACITY];
+    starts = new int[INITIAL_CAPACITY];
+    ends = new int[INITIAL_CAPACITY];
+  }
+
+  static TokenTable lex(String version, String unitName, String source) {
+    TokenTable tokens = new TokenTable(source);
+    char[] sourceChars = source.toCharArray();
+    Scanner scanner = new Scanner(
+      true,
+      false,
+      false,
+      CompilerOptions.versionToJdkLevel(version),
+      null,
+      null,
+      false
+    );
+    scanner.fakeInModule = "module-info.java".equals(unitName);
+    scanner.setSource(sourceChars);
+    while (true) {
+      int tokenType;
+      try {
+        tokenType = scanner.getNextToken();
+      } catch (InvalidInputException e) {
+        throw new IllegalStateException(e);
+      }
+      int start = scanner.getCurrentTokenStartPosition();
+      int end = scanner.getCurrentTokenEndPosition();
+      if (tokenType == TerminalTokens.TokenNameCOMMENT_LINE) {
+        // line separator is not part of the comment
+        while (end >= start && (sourceChars[end] == '\r' || sourceChars[end] == '\n')) {
+          end--;
+        }
+      }
+      tokens.add(tokenType, start, end);
+      if (tokenType == TerminalTokens.TokenNameEOF) {
+        tokens.trimToSize();
+        return tokens;
+      }
+    }
+  }
+
+  private void add(int tokenType, int start, int end) {
+    if (size == types.length) {
+      resize(size + (size >> 1));
+    }
+    types[size] = tokenType;
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  private void trimToSize() {
+    if (size < types.length) {
+      resize(size);
+    }
+  }
+
+  private void resize(int capacity) {
+    types = Arrays.copyOf(types, capacity);
+    starts = Arrays.copyOf(starts, capacity);
+    ends = Arrays.copyOf(ends, capacity);
+  }
+
+  @VisibleForTesting
+  int capacity() {
+    return types.length;
+  }
+
+  String source() {
+    return source;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return {@link TerminalTokens}
+   */
+  int type(int index) {
+    return types[index];
+  }
+
+  int start(int index) {
+    return starts[index];
+  }
+
+  int end(int index) {
+    return ends[index];
+  }
+
+  boolean isComment(int index) {
+    switch (types[index]) {
+      case TerminalTokens.TokenNameCOMMENT_LINE:
+      case TerminalTokens.TokenNameCOMMENT_BLOCK:
+      case TerminalTokens.TokenNameCOMMENT_JAVADOC:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  String text(int index) {
+    return source.substring(starts[index], ends[index] + 1);
+  }
+
+  /**
+   * @param tokenType {@link TerminalTokens} or {@link #ANY_TOKEN}
+   */
+  int firstIndexIn(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition(), tokenType, true);
+  }
+
+  /**
+   * @param tokenType {@link TerminalTokens} or {@link #ANY_TOKEN}
+   */
+  int lastIndexIn(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition() + node.getLength() - 1, tokenType, false);
+  }
+
+  /**
+   * @param tokenType {@link TerminalTokens} or {@link #ANY_TOKEN}
+   */
+  int firstIndexAfter(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition() + node.getLength(), tokenType, true);
+  }
+
+  /**
+   * @param tokenType {@link TerminalTokens} or {@link #ANY_TOKEN}
+   */
+  int firstIndexBefore(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition() - 1, tokenType, false);
+  }
+
+  /**
+   * @param tokenType {@link TerminalTokens} or {@link #ANY_TOKEN}
+   * @param forward true to look for the token at the given position or after it, false for the token at the given position or before it
+   */
+  int findIndex(int position, int tokenType, boolean forward) {
+    int index;
+    if (forward) {
+      // first token ending at or after the position
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (ends[middle] < position) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      index = low;
+    } else {
+      // last token starting at or before the position
+      int low = -1;
+      int high = size - 1;
+      while (low < high) {
+        int middle = (low + high + 1) >>> 1;
+        if (starts[middle] <= position) {
+          low = middle;
+        } else {
+          high = middle - 1;
+        }
+      }
+      index = low;
+    }
+    if (tokenType != ANY_TOKEN) {
+      int step = forward ? 1 : -1;
+      while (types[index] != tokenType) {
+        index += step;
+      }
+    }
+    return index;
+  }
+
+}
@@ -29,28 +29,42 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.check.Rule;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.AnalysisResultCache;
+import org.sonar.java.AnalyzerMessage;
 import org.sonar.java.CheckFailureException;
 import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.ExceptionHandler;
 import org.sonar.java.IllegalRuleParameterException;
 import org.sonar.java.JavaVersionAwareVisitor;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.ast.visitors.FileLinesVisitor;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.ast.visitors.SyntaxHighlighterVisitor;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.se.SECheckTimes;
 import org.sonar.java.se.SymbolicExecutionMode;
 import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.checks.SECheck;
 import org.sonar.java.se.xproc.BehaviorCache;
+import org.sonar.java.se.xproc.MethodBehavior;
+import org.sonar.java.se.xproc.ProjectBehaviorCache;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
@@ -75,7 +89,33 @@ public class VisitorsBridge {
   private final List<File> classpath;
   private final JavaFileScanner analysisIssueFilter;
   private IssuableSubsciptionVisitorsRunner issuableSubscriptionVisitorsRunner;
-  private static final Predicate<JavaFileScanner> IS_ISSUABLE_SUBSCRIPTION_VISITOR = IssuableSubscriptionVisitor.class::isInstance;
+  private boolean checkFailedOnCurrentFile;
+  private boolean projectBehaviorsInitialized = false;
+  private AnalysisResultCache analysisResultCache;
+  @Nullable
+  private CacheableChecks cacheableChecks;
+  private int replayedFiles;
+  /**
+   * Counters of method control flow graphs when the first file of the analysis is visited: the counters of {@link CFG} are shared by
+   * all the analyses run in the same process.
+   */
+  private long methodCfgBuildsAtStart = -1;
+  private long methodCfgReusesAtStart;
+  /**
+   * Time spent by symbolic execution checks during the analysis, only recorded when debug logs are enabled.
+   */
+  @Nullable
+  private SECheckTimes seCheckTimes;
+  private int checkedFiles;
+  private long checkedFilesNanos;
+  /**
+   * Subscription visitors run together in a single traversal of each file: issuable checks, and the visitors saving symbols,
+   * highlighting and lines data into Sonar.
+   */
+  private static final Predicate<JavaFileScanner> IS_ISSUABLE_SUBSCRIPTION_VISITOR = scanner -> scanner instanceof IssuableSubscriptionVisitor
+    || scanner instanceof SonarSymbolTableVisitor
+    || scanner instanceof SyntaxHighlighterVisitor
+    || scanner instanceof FileLinesVisitor;
 
   @VisibleForTesting
   public VisitorsBridge(JavaFileScanner visitor) {
@@ -97,6 +137,9 @@ public class VisitorsBridge {
                         @Nullable SonarComponents sonarComponents, SymbolicExecutionMode symbolicExecutionMode,
                         @Nullable JavaFileScanner analysisIssueFilter) {
     this.allScanners = new ArrayList<>();
+    if (sonarComponents != null) {
+      allScanners.add(new SonarSymbolTableVisitor(sonarComponents));
+    }
     for (Object visitor : visitors) {
       if (visitor instanceof JavaFileScanner) {
         allScanners.add((JavaFileScanner) visitor);
@@ -124,17 +167,35 @@ public class VisitorsBridge {
     List<JavaFileScanner> scannersForJavaVersion = executableScanners(allScanners, javaVersion);
     this.executableScanners = scannersForJavaVersion.stream().filter(IS_ISSUABLE_SUBSCRIPTION_VISITOR.negate()).collect(Collectors.toList());
     this.issuableSubscriptionVisitorsRunner = new IssuableSubsciptionVisitorsRunner(scannersForJavaVersion);
+    this.cacheableChecks = null;
   }
 
   public void visitFile(@Nullable Tree parsedTree) {
+    if (methodCfgBuildsAtStart < 0) {
+      methodCfgBuildsAtStart = CFG.methodCfgBuilds();
+      methodCfgReusesAtStart = CFG.methodCfgReuses();
+    }
     JavaTree.CompilationUnitTreeImpl tree = new JavaTree.CompilationUnitTreeImpl(null, new ArrayList<>(), new ArrayList<>(), null, null);
     boolean fileParsed = parsedTree != null;
     if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
       tree = (JavaTree.CompilationUnitTreeImpl) parsedTree;
-      createSonarSymbolTable(tree);
     }
+    if (sonarComponents != null) {
+      sonarComponents.startOfFile();
+    }
+    scanFile(tree, fileParsed);
+    if (sonarComponents != null) {
+      sonarComponents.endOfFile();
+    }
+  }
 
+  private void scanFile(JavaTree.CompilationUnitTreeImpl tree, boolean fileParsed) {
     JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, tree.sema, sonarComponents, fileParsed);
+    checkFailedOnCurrentFile = false;
+    if (symbolicExecutionEnabled && !projectBehaviorsInitialized && sonarComponents != null) {
+      behaviorCache.setProjectBehaviors(sonarComponents.projectBehaviorCache());
+      projectBehaviorsInitialized = true;
+    }
 
     // Prepare issue filter
     if (analysisIssueFilter != null) {
@@ -145,17 +206,85 @@ public class VisitorsBridge {
       }
     }
 
+    CacheableChecks cacheable = cacheableChecks(fileParsed ? tree.sema : null);
+    if (cacheable == null) {
+      runScanners(javaFileScannerContext, symbolicExecutionEnabled, executableScanners, issuableSubscriptionVisitorsRunner);
+      return;
+    }
+    String cacheKey = AnalysisResultCache.hash(
+      cacheable.configurationFingerprint,
+      javaFileScannerContext.getFileContent(),
+      ExternalTypesSignature.of(tree.sema),
+      externalMethodBehaviors(tree.sema));
+    AnalysisResultCache.Entry cached = analysisResultCache.get(currentFile, cacheKey);
+    if (cached != null) {
+      replayedFiles++;
+      cached.issues().forEach(issue -> sonarComponents.reportIssue(issue.toAnalyzerMessage(cacheable.checksByRuleKey.get(issue.ruleKey()), currentFile)));
+      ProjectBehaviorCache projectBehaviors = behaviorCache.projectBehaviors();
+      if (symbolicExecutionEnabled && projectBehaviors != null) {
+        // files analyzed after this one rely on the behaviors symbolic execution would have shared
+        cached.behaviors().forEach(projectBehaviors::add);
+      }
+      runScanners(javaFileScannerContext, false, cacheable.otherScanners, cacheable.otherSubscriptionVisitorsRunner);
+      return;
+    }
+    List<AnalyzerMessage> issues = new ArrayList<>();
+    boolean[] issuesOutsideOfFile = {false};
+    sonarComponents.setIssueRecorder(message -> {
+      if (!cacheable.checks.contains(message.getCheck())) {
+        return;
+      }
+      if (currentFile.equals(message.getInputComponent())) {
+        issues.add(message);
+      } else {
+        issuesOutsideOfFile[0] = true;
+      }
+    });
+    long start = System.nanoTime();
+    List<MethodBehavior> sharedBehaviors;
+    try {
+      sharedBehaviors = runScanners(javaFileScannerContext, symbolicExecutionEnabled, executableScanners, issuableSubscriptionVisitorsRunner);
+    } finally {
+      sonarComponents.setIssueRecorder(null);
+    }
+    checkedFiles++;
+    checkedFilesNanos += System.nanoTime() - start;
+    if (!checkFailedOnCurrentFile && !issuesOutsideOfFile[0]) {
+      analysisResultCache.put(currentFile, cacheKey, issues, sharedBehaviors, sonarComponents::getRuleKey);
+    }
+  }
+
+  /**
+   * Issues raised by symbolic execution also depend on the behaviors of methods declared in other files, when they are shared.
+   */
+  private String externalMethodBehaviors(JSema sema) {
+    ProjectBehaviorCache projectBehaviors = behaviorCache.projectBehaviors();
+    if (!symbolicExecutionEnabled || projectBehaviors == null) {
+      return "";
+    }
+    return projectBehaviors.fingerprint(ExternalTypesSignature.externalMethodSignatures(sema));
+  }
+
+  /**
+   * @return the method behaviors of the file kept for the other files by symbolic execution
+   */
+  private List<MethodBehavior> runScanners(JavaFileScannerContext javaFileScannerContext, boolean runSymbolicExecution, List<JavaFileScanner> scanners,
+    IssuableSubsciptionVisitorsRunner subscriptionVisitorsRunner) {
+    List<MethodBehavior> sharedBehaviors = Collections.emptyList();
     // Symbolic execution checks
-    if (symbolicExecutionEnabled) {
+    if (runSymbolicExecution) {
       try {
-        runScanner(javaFileScannerContext, new SymbolicExecutionVisitor(executableScanners, behaviorCache));
-        behaviorCache.cleanup();
+        if (seCheckTimes == null && LOG.isDebugEnabled()) {
+          seCheckTimes = new SECheckTimes();
+        }
+        runScanner(javaFileScannerContext, new SymbolicExecutionVisitor(executableScanners, behaviorCache, seCheckTimes));
+        sharedBehaviors = behaviorCache.cleanup();
       } catch (CheckFailureException e) {
         interruptIfFailFast(e);
       }
     }
 
-    for (JavaFileScanner scanner : executableScanners) {
+    for (JavaFileScanner scanner : scanners) {
       try {
         runScanner(javaFileScannerContext, scanner);
       } catch (CheckFailureException e) {
@@ -163,14 +292,32 @@ public class VisitorsBridge {
       }
     }
 
-    try {
-      issuableSubscriptionVisitorsRunner.run(javaFileScannerContext);
-    } catch (CheckFailureException e) {
-      interruptIfFailFast(e);
+    subscriptionVisitorsRunner.run(javaFileScannerContext);
+    return sharedBehaviors;
+  }
+
+  /**
+   * @return null when issues of the current file can not be cached: cache disabled, file not parsed, or generated file
+   */
+  @Nullable
+  private CacheableChecks cacheableChecks(@Nullable JSema sema) {
+    if (sema == null || sonarComponents == null || currentFile instanceof GeneratedFile) {
+      return null;
+    }
+    if (analysisResultCache == null) {
+      analysisResultCache = sonarComponents.analysisResultCache();
+      if (analysisResultCache == null) {
+        return null;
+      }
     }
+    if (cacheableChecks == null) {
+      cacheableChecks = new CacheableChecks();
+    }
+    return cacheableChecks.enabled ? cacheableChecks : null;
   }
 
   private void interruptIfFailFast(CheckFailureException e) {
+    checkFailedOnCurrentFile = true;
     if (sonarComponents != null && sonarComponents.shouldFailAnalysisOnException()) {
       throw new AnalysisException("Failing check", e);
     }
@@ -231,16 +378,6 @@ public class VisitorsBridge {
       fileParsed);
   }
 
-  private void createSonarSymbolTable(CompilationUnitTree tree) {
-    if (sonarComponents != null
-      && !sonarComponents.isSonarLintContext()
-      // don't provide semantic data (symbol highlighting) to SQ for generated files (jsp)
-      && !(currentFile instanceof GeneratedFile)) {
-      SonarSymbolTableVisitor symVisitor = new SonarSymbolTableVisitor(sonarComponents.symbolizableFor(currentFile));
-      symVisitor.visitCompilationUnit(tree);
-    }
-  }
-
   public void processRecognitionException(RecognitionException e, InputFile inputFile) {
     if(sonarComponents == null || !sonarComponents.reportAnalysisError(e, inputFile)) {
       this.visitFile(null);
@@ -260,11 +397,62 @@ public class VisitorsBridge {
       .filter(s -> s instanceof EndOfAnalysisCheck)
       .map(EndOfAnalysisCheck.class::cast)
       .forEach(EndOfAnalysisCheck::endOfAnalysis);
+    if (sonarComponents != null) {
+      sonarComponents.awaitIssuesSaved();
+    }
+    if (analysisResultCache != null) {
+      analysisResultCache.save();
+      LOG.debug("Analysis cache: issues of {} files replayed, checks executed on {} files in {} ms", replayedFiles, checkedFiles, checkedFilesNanos / 1_000_000);
+    }
+    if (methodCfgBuildsAtStart >= 0) {
+      LOG.debug("Control flow graphs: " + (CFG.methodCfgBuilds() - methodCfgBuildsAtStart) + " method graphs built, "
+        + (CFG.methodCfgReuses() - methodCfgReusesAtStart) + " builds avoided by reuse");
+      methodCfgBuildsAtStart = -1;
+    }
+    Map<String, Long> seCheckMillis = seCheckTimes == null ? Collections.emptyMap() : seCheckTimes.millisByCheck();
+    if (!seCheckMillis.isEmpty()) {
+      LOG.debug("Time spent by symbolic execution checks: " + seCheckMillis.entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .map(entry -> entry.getKey() + " " + entry.getValue() + " ms")
+        .collect(Collectors.joining(", ")));
+    }
+    seCheckTimes = null;
+  }
+
+  /**
+   * Rule checks whose issues only depend on the analyzed file: they are not executed when issues can be replayed from the cache.
+   * Other scanners (metrics, highlighting, checks collecting data across files) are always executed.
+   */
+  private class CacheableChecks {
+    private final Set<JavaCheck> checks = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<RuleKey, JavaCheck> checksByRuleKey = new HashMap<>();
+    private final List<JavaFileScanner> otherScanners;
+    private final IssuableSubsciptionVisitorsRunner otherSubscriptionVisitorsRunner;
+    private final String configurationFingerprint;
+    private final boolean enabled;
+
+    CacheableChecks() {
+      List<JavaFileScanner> scannersForJavaVersion = javaVersion == null ? allScanners : executableScanners(allScanners, javaVersion);
+      for (JavaFileScanner scanner : scannersForJavaVersion) {
+        RuleKey ruleKey = sonarComponents.getRuleKey(scanner);
+        if (ruleKey != null && !(scanner instanceof EndOfAnalysisCheck)) {
+          checks.add(scanner);
+          checksByRuleKey.put(ruleKey, scanner);
+        }
+      }
+      List<JavaFileScanner> others = scannersForJavaVersion.stream().filter(s -> !checks.contains(s)).collect(Collectors.toList());
+      otherScanners = others.stream().filter(IS_ISSUABLE_SUBSCRIPTION_VISITOR.negate()).collect(Collectors.toList());
+      otherSubscriptionVisitorsRunner = new IssuableSubsciptionVisitorsRunner(others);
+      configurationFingerprint = sonarComponents.analysisConfigurationFingerprint(classpath) + ":" + (javaVersion == null ? -1 : javaVersion.asInt());
+      // symbolic execution is skipped as a whole when replaying issues from cache
+      enabled = !symbolicExecutionEnabled || others.stream().noneMatch(SECheck.class::isInstance);
+    }
   }
 
   private class IssuableSubsciptionVisitorsRunner {
     private EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
     private List<SubscriptionVisitor> subscriptionVisitors;
+    private final Set<SubscriptionVisitor> failedVisitors = Collections.newSetFromMap(new IdentityHashMap<>());
 
     IssuableSubsciptionVisitorsRunner(List<JavaFileScanner> executableScanners) {
       checks = new EnumMap<>(Tree.Kind.class);
@@ -278,13 +466,18 @@ public class VisitorsBridge {
           .forEach(k -> checks.computeIfAbsent(k, key -> new ArrayList<>()).add(s)));
     }
 
-    public void run(JavaFileScannerContext javaFileScannerContext) throws CheckFailureException {
+    /**
+     * A visitor failing on the file is not called anymore on this file, while the other visitors (including the ones saving symbols,
+     * highlighting and lines data) complete their traversal.
+     */
+    public void run(JavaFileScannerContext javaFileScannerContext) {
+      failedVisitors.clear();
       forEach(subscriptionVisitors, s -> s.setContext(javaFileScannerContext));
       visit(javaFileScannerContext.getTree());
       forEach(subscriptionVisitors, s -> s.leaveFile(javaFileScannerContext));
     }
 
-    private void visitChildren(Tree tree) throws CheckFailureException {
+    private void visitChildren(Tree tree) {
       JavaTree javaTree = (JavaTree) tree;
       if (!javaTree.isLeaf()) {
         for (Tree next : javaTree.getChildren()) {
@@ -295,7 +488,7 @@ public class VisitorsBridge {
       }
     }
 
-    private void visit(Tree tree) throws CheckFailureException {
+    private void visit(Tree tree) {
       Kind kind = tree.kind();
       List<SubscriptionVisitor> subscribed = checks.getOrDefault(kind, Collections.emptyList());
       Consumer<SubscriptionVisitor> callback;
@@ -316,9 +509,17 @@ public class VisitorsBridge {
       }
     }
 
-    private final void forEach(Collection<SubscriptionVisitor> visitors, Consumer<SubscriptionVisitor> callback) throws CheckFailureException {
+    private final void forEach(Collection<SubscriptionVisitor> visitors, Consumer<SubscriptionVisitor> callback) {
       for (SubscriptionVisitor visitor : visitors) {
-        runScanner(() -> callback.accept(visitor), visitor);
+        if (failedVisitors.contains(visitor)) {
+          continue;
+        }
+        try {
+          runScanner(() -> callback.accept(visitor), visitor);
+        } catch (CheckFailureException e) {
+          failedVisitors.add(visitor);
+          interruptIfFailFast(e);
+        }
       }
     }
   }
@@ -239,6 +239,10 @@ public class MethodTreeImpl extends JavaTree implements MethodTree {
     return cfg;
   }
 
+  public boolean isCfgComputed() {
+    return cfg != null;
+  }
+
   @Override
   public Iterable<Tree> children() {
     ImmutableList.Builder<Tree> iteratorBuilder = ImmutableList.builder();
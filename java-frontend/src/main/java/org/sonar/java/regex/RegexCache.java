@@ -23,17 +23,31 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.sonar.java.regex.ast.FlagSet;
 import org.sonar.java.regex.ast.RegexSource;
 import org.sonar.plugins.java.api.tree.LiteralTree;
 
 public final class RegexCache {
   private final Map<List<LiteralTree>, RegexParseResult> cache = new HashMap<>();
+  @Nullable
+  private final SharedRegexCache sharedCache;
+
+  public RegexCache() {
+    this(null);
+  }
+
+  /**
+   * @param sharedCache regexes already parsed in other files of the module, or null to parse every regex of the file
+   */
+  public RegexCache(@Nullable SharedRegexCache sharedCache) {
+    this.sharedCache = sharedCache;
+  }
 
   public RegexParseResult getRegexForLiterals(FlagSet initialFlags, LiteralTree... stringLiterals) {
     return cache.computeIfAbsent(
       Arrays.asList(stringLiterals),
-      k -> new RegexParser(new RegexSource(k), initialFlags).parse());
+      k -> sharedCache != null ? sharedCache.getRegexForLiterals(this, initialFlags, k) : new RegexParser(new RegexSource(k), initialFlags).parse());
   }
 
 }
@@ -20,7 +20,10 @@
 package org.sonar.java.regex;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import org.sonar.java.regex.ast.FlagSet;
 import org.sonar.java.regex.ast.OpeningQuote;
 import org.sonar.java.regex.ast.RegexSyntaxElement;
@@ -36,6 +39,8 @@ public class RegexParseResult {
 
   private final boolean containsComments;
 
+  private final Map<Object, Object> analysisResults = new HashMap<>();
+
   public RegexParseResult(RegexTree result, FlagSet initialFlags, List<SyntaxError> syntaxErrors, boolean containsComments) {
     this.result = result;
     this.initialFlags = initialFlags;
@@ -63,6 +68,16 @@ public class RegexParseResult {
     return containsComments;
   }
 
+  /**
+   * Returns the result of an analysis which only depends on the regex, computing it the first time it is requested. As parse results
+   * are shared by all the usages of the same pattern in the module (see {@link SharedRegexCache}), so is the result of the analysis.
+   * @param analysisKey identifies the analysis, usually the class of the check performing it
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T analysisResult(Object analysisKey, Function<RegexParseResult, T> analysis) {
+    return (T) analysisResults.computeIfAbsent(analysisKey, k -> analysis.apply(this));
+  }
+
   /**
    * Returns a syntax element representing the first opening quote of the string literal(s) making up the regex
    */
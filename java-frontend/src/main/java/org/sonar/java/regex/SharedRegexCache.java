@@ -0,0 +1,150 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.regex;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.sonar.java.regex.ast.FlagSet;
+import org.sonar.java.regex.ast.RegexSource;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+
+/**
+ * Regexes parsed in the files of a module, shared between files so that a pattern appearing in several files is parsed only once.
+ * Patterns are identified by the values of their string literals and their initial flags, and the least recently used ones are
+ * evicted once the maximum size is reached.
+ * <p>
+ * A shared parse result is bound to the literals of the file which requested it last (see {@link RegexSource#bindTo(List)}), so that
+ * locations of its syntax elements are computed on that file. Within a file, syntax elements of distinct literals must remain distinct:
+ * a pattern already bound to some literals of the file is parsed again for other literals of the same file.
+ */
+public final class SharedRegexCache {
+
+  public static final int DEFAULT_MAX_SIZE = 10_000;
+
+  private final Map<Key, Entry> entries;
+  private final List<Entry> boundEntries = new ArrayList<>();
+  private Object currentFile;
+  private long parsed = 0;
+  private long reused = 0;
+
+  public SharedRegexCache(int maxSize) {
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, SharedRegexCache.Entry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @param file identifies the file containing the literals, entries bound to a previous file are released when it changes
+   */
+  synchronized RegexParseResult getRegexForLiterals(Object file, FlagSet initialFlags, List<LiteralTree> stringLiterals) {
+    if (file != currentFile) {
+      // do not retain the trees of the previous file
+      boundEntries.forEach(Entry::unbind);
+      boundEntries.clear();
+      currentFile = file;
+    }
+    Key key = new Key(initialFlags.getMask(), stringLiterals.stream().map(LiteralTree::value).collect(Collectors.toList()));
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(parse(initialFlags, stringLiterals));
+      entries.put(key, entry);
+    } else if (entry.bound) {
+      return parse(initialFlags, stringLiterals);
+    } else {
+      entry.result.getResult().getSource().bindTo(stringLiterals);
+      reused++;
+    }
+    entry.bound = true;
+    boundEntries.add(entry);
+    return entry.result;
+  }
+
+  private RegexParseResult parse(FlagSet initialFlags, List<LiteralTree> stringLiterals) {
+    parsed++;
+    return new RegexParser(new RegexSource(stringLiterals), initialFlags).parse();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Number of regexes parsed so far.
+   */
+  public synchronized long parsed() {
+    return parsed;
+  }
+
+  /**
+   * Number of regexes which did not have to be parsed, reusing the parse result of another file.
+   */
+  public synchronized long reused() {
+    return reused;
+  }
+
+  private static class Entry {
+    private final RegexParseResult result;
+    private boolean bound = false;
+
+    Entry(RegexParseResult result) {
+      this.result = result;
+    }
+
+    void unbind() {
+      result.getResult().getSource().unbind();
+      bound = false;
+    }
+  }
+
+  private static class Key {
+    private final int flags;
+    private final List<String> literalValues;
+
+    Key(int flags, List<String> literalValues) {
+      this.flags = flags;
+      this.literalValues = literalValues;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return flags == key.flags && literalValues.equals(key.literalValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(flags, literalValues);
+    }
+  }
+
+}
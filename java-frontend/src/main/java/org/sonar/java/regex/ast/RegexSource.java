@@ -32,12 +32,14 @@ import org.sonar.plugins.java.api.tree.LiteralTree;
  */
 public class RegexSource {
 
-  private final List<LiteralTree> stringLiterals;
+  private List<LiteralTree> stringLiterals;
+  private final List<String> literalValues;
   private final String sourceText;
   private final TreeMap<Integer, Integer> indices;
 
   public RegexSource(List<LiteralTree> stringLiterals) {
     this.stringLiterals = stringLiterals;
+    literalValues = stringLiterals.stream().map(LiteralTree::value).collect(Collectors.toList());
     sourceText = stringLiterals.stream().map(RegexSource::getString).collect(Collectors.joining());
     indices = new TreeMap<>();
     int currentSourceIndex = 0;
@@ -49,6 +51,25 @@ public class RegexSource {
     }
   }
 
+  /**
+   * Binds this source, and therefore all the regex syntax elements parsed from it, to other string literals having the
+   * same values. Locations of the syntax elements are then computed on these literals.
+   */
+  public void bindTo(List<LiteralTree> otherStringLiterals) {
+    List<String> otherValues = otherStringLiterals.stream().map(LiteralTree::value).collect(Collectors.toList());
+    if (!literalValues.equals(otherValues)) {
+      throw new IllegalArgumentException("Regex source can only be bound to string literals with the same values");
+    }
+    stringLiterals = otherStringLiterals;
+  }
+
+  /**
+   * Releases the string literals this source is bound to: locations can not be computed until it is bound again.
+   */
+  public void unbind() {
+    stringLiterals = Collections.emptyList();
+  }
+
   public String substringAt(IndexRange range) {
     return sourceText.substring(range.getBeginningOffset(), range.getEndingOffset());
   }
@@ -20,8 +20,11 @@
 package org.sonar.java.se;
 
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.java.cfg.CFG;
@@ -35,8 +38,20 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public class CheckerDispatcher implements CheckerContext {
+  private static final ClassValue<Boolean> OVERRIDES_PRE_STATEMENT = overrides("checkPreStatement");
+  private static final ClassValue<Boolean> OVERRIDES_POST_STATEMENT = overrides("checkPostStatement");
+
   private final ExplodedGraphWalker explodedGraphWalker;
   private final List<SECheck> checks;
+  private final Map<Tree.Kind, int[]> preStatementChecks = new EnumMap<>(Tree.Kind.class);
+  private final Map<Tree.Kind, int[]> postStatementChecks = new EnumMap<>(Tree.Kind.class);
+  private final int[] allChecks;
+  private int[] currentPostStatementChecks;
+  // time spent in checks, excluding the time spent by transitions they add, only recorded when requested
+  @Nullable
+  private SECheckTimes checkTimes;
+  private long[] checkNanos;
+  private long nestedNanos = 0;
   private int currentCheckerIndex = -1;
   private boolean transition = false;
   private Exception interruptionCause = null;
@@ -48,13 +63,52 @@ public class CheckerDispatcher implements CheckerContext {
   public CheckerDispatcher(ExplodedGraphWalker explodedGraphWalker, List<SECheck> checks) {
     this.explodedGraphWalker = explodedGraphWalker;
     this.checks = checks;
+    this.allChecks = IntStream.range(0, checks.size()).toArray();
+    this.currentPostStatementChecks = allChecks;
+  }
+
+  /**
+   * @param checkTimes totals to which the time spent by each check is added at the end of the execution of each method
+   */
+  void recordCheckTimes(SECheckTimes checkTimes) {
+    this.checkTimes = checkTimes;
+    this.checkNanos = new long[checks.size()];
+  }
+
+  private static ClassValue<Boolean> overrides(String methodName) {
+    return new ClassValue<Boolean>() {
+      @Override
+      protected Boolean computeValue(Class<?> checkClass) {
+        try {
+          return checkClass.getMethod(methodName, CheckerContext.class, Tree.class).getDeclaringClass() != SECheck.class;
+        } catch (NoSuchMethodException e) {
+          return true;
+        }
+      }
+    };
+  }
+
+  /**
+   * @return indexes of the checks to call for the given syntax node, skipping the ones keeping the default behavior for it
+   */
+  private int[] checksFor(@Nullable Tree tree, Map<Tree.Kind, int[]> checksByKind, ClassValue<Boolean> overrides) {
+    Tree.Kind treeKind = tree == null ? null : tree.kind();
+    if (treeKind == null) {
+      return allChecks;
+    }
+    return checksByKind.computeIfAbsent(treeKind, kind -> IntStream.range(0, checks.size())
+      .filter(i -> overrides.get(checks.get(i).getClass()) && checks.get(i).syntaxNodesToVisit().contains(kind))
+      .toArray());
   }
 
   public boolean executeCheckPreStatement(Tree syntaxNode) {
     this.syntaxNode = syntaxNode;
     ProgramState ps;
-    for (SECheck checker : checks) {
-      ps = checker.checkPreStatement(this, syntaxNode);
+    for (int checkIndex : checksFor(syntaxNode, preStatementChecks, OVERRIDES_PRE_STATEMENT)) {
+      long start = startTime();
+      long nestedBefore = nestedNanos;
+      ps = checks.get(checkIndex).checkPreStatement(this, syntaxNode);
+      recordTime(checkIndex, start, nestedBefore);
       if (ps == null) {
         return false;
       }
@@ -64,6 +118,24 @@ public class CheckerDispatcher implements CheckerContext {
 
   }
 
+  private long startTime() {
+    return checkTimes == null ? 0L : System.nanoTime();
+  }
+
+  /**
+   * @param checkIndex index of the timed check, or -1 when the time is spent outside of checks
+   */
+  private void recordTime(int checkIndex, long start, long nestedBefore) {
+    if (checkTimes == null) {
+      return;
+    }
+    long elapsed = System.nanoTime() - start;
+    if (checkIndex >= 0) {
+      checkNanos[checkIndex] += elapsed - (nestedNanos - nestedBefore);
+    }
+    nestedNanos = nestedBefore + elapsed;
+  }
+
   public void executeCheckPostStatement(Tree syntaxNode) {
     this.syntaxNode = syntaxNode;
     addTransition(explodedGraphWalker.programState);
@@ -93,6 +165,9 @@ public class CheckerDispatcher implements CheckerContext {
   public void addTransition(ProgramState state) {
     ProgramState oldState = explodedGraphWalker.programState;
     explodedGraphWalker.programState = state;
+    if (currentCheckerIndex == -1) {
+      currentPostStatementChecks = checksFor(syntaxNode, postStatementChecks, OVERRIDES_POST_STATEMENT);
+    }
     currentCheckerIndex++;
     executePost();
     currentCheckerIndex--;
@@ -102,8 +177,12 @@ public class CheckerDispatcher implements CheckerContext {
 
   private void executePost() {
     this.transition = false;
-    if (currentCheckerIndex < checks.size()) {
-      explodedGraphWalker.programState = checks.get(currentCheckerIndex).checkPostStatement(this, syntaxNode);
+    long start = startTime();
+    long nestedBefore = nestedNanos;
+    if (currentCheckerIndex < currentPostStatementChecks.length) {
+      int checkIndex = currentPostStatementChecks[currentCheckerIndex];
+      explodedGraphWalker.programState = checks.get(checkIndex).checkPostStatement(this, syntaxNode);
+      recordTime(checkIndex, start, nestedBefore);
     } else {
       CFG.Block block = (CFG.Block) explodedGraphWalker.programPosition.block;
       if (explodedGraphWalker.programPosition.i< block.elements().size()) {
@@ -112,6 +191,7 @@ public class CheckerDispatcher implements CheckerContext {
       explodedGraphWalker.enqueue(
         explodedGraphWalker.programPosition.next(),
         explodedGraphWalker.programState, explodedGraphWalker.node.exitPath, methodYield);
+      recordTime(-1, start, nestedBefore);
       return;
     }
     if (!transition) {
@@ -134,6 +214,19 @@ public class CheckerDispatcher implements CheckerContext {
     for (SECheck checker : checks) {
       checker.checkEndOfExecution(this);
     }
+    flushCheckTimes();
+  }
+
+  private void flushCheckTimes() {
+    if (checkTimes == null) {
+      return;
+    }
+    for (int i = 0; i < checkNanos.length; i++) {
+      if (checkNanos[i] > 0) {
+        checkTimes.add(checks.get(i), checkNanos[i]);
+        checkNanos[i] = 0;
+      }
+    }
   }
 
   public void executeCheckEndOfExecutionPath(ConstraintManager constraintManager) {
@@ -157,6 +250,7 @@ public class CheckerDispatcher implements CheckerContext {
     this.interruptionCause = interruptionCause;
     checks.forEach(c -> c.interruptedExecution(this));
     this.interruptionCause = null;
+    flushCheckTimes();
   }
 
   /**
@@ -20,94 +20,191 @@
 package org.sonar.java.se;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Multimap;
 
 import org.sonar.java.se.xproc.MethodYield;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import javax.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+/**
+ * Nodes explored by the {@link ExplodedGraphWalker} for a method. Storage is kept compact as graphs may reach tens of thousands of nodes:
+ * nodes are indexed in an open addressing hash table (no entry object per node, no node allocated when an existing one is looked up),
+ * and edges to parents are stored in an array, indexed by parent only for the few nodes with many parents.
+ */
 public class ExplodedGraph {
 
-  private final Map<Node, Node> nodes = new HashMap<>();
-  private final Multimap<ProgramPoint, Node> nodesByProgramPoint = LinkedListMultimap.create();
+  private static final int INITIAL_CAPACITY = 64;
+
+  private Node[] table = new Node[INITIAL_CAPACITY];
+  private int size = 0;
+  private final Map<ProgramPoint, List<Node>> nodesByProgramPoint = new HashMap<>();
 
   /**
    * Returns node associated with given (programPoint,programState) pair. If no node for this pair exists, it is created.
    */
   public Node node(ProgramPoint programPoint, @Nullable ProgramState programState) {
-    Node result = new Node(programPoint, programState, this);
-    Node cached = nodes.get(result);
-    if (cached != null) {
-      cached.isNew = false;
-      return cached;
+    Objects.requireNonNull(programPoint);
+    int hashcode = Node.hashCode(programPoint, programState);
+    int mask = table.length - 1;
+    int index = spread(hashcode) & mask;
+    Node cached = table[index];
+    while (cached != null) {
+      if (cached.hashcode == hashcode && cached.programPoint.equals(programPoint) && Objects.equals(cached.programState, programState)) {
+        cached.isNew = false;
+        return cached;
+      }
+      index = (index + 1) & mask;
+      cached = table[index];
     }
+    Node result = new Node(programPoint, programState, hashcode, this);
     result.isNew = true;
-    nodes.put(result, result);
-    nodesByProgramPoint.put(programPoint, result);
+    table[index] = result;
+    size++;
+    if (size * 2 > table.length) {
+      resize();
+    }
+    nodesByProgramPoint.computeIfAbsent(programPoint, p -> new ArrayList<>(2)).add(result);
+    return result;
+  }
+
+  private void resize() {
+    Node[] oldTable = table;
+    table = new Node[oldTable.length * 2];
+    int mask = table.length - 1;
+    for (Node node : oldTable) {
+      if (node != null) {
+        int index = spread(node.hashcode) & mask;
+        while (table[index] != null) {
+          index = (index + 1) & mask;
+        }
+        table[index] = node;
+      }
+    }
+  }
+
+  private static int spread(int hashcode) {
+    return hashcode ^ (hashcode >>> 16);
+  }
+
+  public Collection<Node> nodes() {
+    List<Node> result = new ArrayList<>(size);
+    for (Node node : table) {
+      if (node != null) {
+        result.add(node);
+      }
+    }
     return result;
   }
 
-  public Map<Node, Node> nodes() {
-    return nodes;
+  public int size() {
+    return size;
   }
 
   public static final class Node {
 
+    private static final Edge[] NO_EDGES = new Edge[0];
+    private static final int EDGES_INDEX_THRESHOLD = 8;
+
     public final ProgramPoint programPoint;
     @Nullable
     public final ProgramState programState;
 
-    private final Map<Node, Edge> edges = new HashMap<>();
+    private Edge[] edges = NO_EDGES;
+    private int edgesCount = 0;
+    @Nullable
+    private Map<Node, Edge> edgesByParent;
 
     private boolean isNew;
     boolean exitPath = false;
     private final int hashcode;
     private final ExplodedGraph explodedGraph;
 
-    private Node(ProgramPoint programPoint, @Nullable ProgramState programState, ExplodedGraph explodedGraph) {
-      Objects.requireNonNull(programPoint);
+    private Node(ProgramPoint programPoint, @Nullable ProgramState programState, int hashcode, ExplodedGraph explodedGraph) {
       this.programPoint = programPoint;
       this.programState = programState;
       this.explodedGraph = explodedGraph;
-      hashcode = programPoint.hashCode() * 31 + (programState == null ? 0 : programState.hashCode());
+      this.hashcode = hashcode;
+    }
+
+    private static int hashCode(ProgramPoint programPoint, @Nullable ProgramState programState) {
+      return programPoint.hashCode() * 31 + (programState == null ? 0 : programState.hashCode());
     }
 
     public void addParent(@Nullable Node parent, @Nullable MethodYield methodYield) {
       if (parent == null) {
         return;
       }
-      Edge edge = edges.computeIfAbsent(parent, p -> new Edge(this, p));
+      Edge edge = edge(parent);
+      if (edge == null) {
+        edge = new Edge(this, parent);
+        addEdge(edge);
+      }
       if (methodYield != null) {
         Preconditions.checkState(parent.programPoint.syntaxTree().is(Tree.Kind.METHOD_INVOCATION), "Yield on edge where parent is not MIT");
-        edge.yields.add(methodYield);
+        edge.addYield(methodYield);
+      }
+    }
+
+    @Nullable
+    private Edge edge(Node parent) {
+      if (edgesByParent != null) {
+        return edgesByParent.get(parent);
+      }
+      for (int i = 0; i < edgesCount; i++) {
+        if (edges[i].parent.equals(parent)) {
+          return edges[i];
+        }
+      }
+      return null;
+    }
+
+    private void addEdge(Edge edge) {
+      if (edgesCount == edges.length) {
+        edges = Arrays.copyOf(edges, edgesCount == 0 ? 1 : (edgesCount * 2));
+      }
+      edges[edgesCount] = edge;
+      edgesCount++;
+      if (edgesByParent != null) {
+        edgesByParent.put(edge.parent, edge);
+      } else if (edgesCount > EDGES_INDEX_THRESHOLD) {
+        edgesByParent = new HashMap<>();
+        for (int i = 0; i < edgesCount; i++) {
+          edgesByParent.put(edges[i].parent, edges[i]);
+        }
       }
     }
 
     public Collection<Node> siblings() {
-      Collection<Node> collection = explodedGraph.nodesByProgramPoint.get(programPoint);
+      List<Node> collection = explodedGraph.nodesByProgramPoint.get(programPoint);
       collection.remove(this);
       return collection;
     }
 
     @Nullable
     public Node parent() {
-      return parents().stream().findFirst().orElse(null);
+      return edgesCount == 0 ? null : edges[0].parent;
     }
 
     /**
      * @return the ordered (by insertion) sets of parents
      */
     public Set<Node> parents() {
-      return edges.keySet();
+      Set<Node> parents = new LinkedHashSet<>();
+      for (int i = 0; i < edgesCount; i++) {
+        parents.add(edges[i].parent);
+      }
+      return parents;
     }
 
     @Override
@@ -130,8 +227,11 @@ public class ExplodedGraph {
       return "B" + programPoint.block.id() + "." + programPoint.i + ": " + programState;
     }
 
+    /**
+     * @return the edges to the parents of the node, ordered by insertion
+     */
     public Collection<Edge> edges() {
-      return edges.values();
+      return Collections.unmodifiableList(Arrays.asList(edges).subList(0, edgesCount));
     }
 
     public boolean isNew() {
@@ -146,13 +246,13 @@ public class ExplodedGraph {
 
     private Set<LearnedConstraint> lc;
     private Set<LearnedAssociation> la;
-    private final Set<MethodYield> yields = new LinkedHashSet<>();
+    private Set<MethodYield> yields = Collections.emptySet();
 
     private Edge(Node child, Node parent) {
       Preconditions.checkState(!child.equals(parent));
       this.child = child;
       this.parent = parent;
-      hashcode = Objects.hash(child, parent);
+      hashcode = child.hashCode() * 31 + parent.hashCode();
     }
 
     public Node child() {
@@ -181,6 +281,13 @@ public class ExplodedGraph {
       return yields;
     }
 
+    private void addYield(MethodYield methodYield) {
+      if (yields.isEmpty()) {
+        yields = new LinkedHashSet<>();
+      }
+      yields.add(methodYield);
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -24,6 +24,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -32,7 +33,6 @@ import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -227,14 +227,14 @@ public class ExplodedGraphWalker {
   }
 
   private void execute(MethodTree tree) {
-    CFG cfg = CFG.build(tree);
+    CFG cfg = CFG.of(tree);
     exitBlock = cfg.exitBlock();
     checkerDispatcher.init(tree, cfg);
-    liveVariables = LiveVariables.analyze(cfg);
+    liveVariables = cfg.liveVariables();
     explodedGraph = new ExplodedGraph();
     methodTree = tree;
     constraintManager = new ConstraintManager();
-    workList = new LinkedList<>();
+    workList = new ArrayDeque<>();
     // Linked hashSet is required to guarantee order of yields to be generated
     endOfExecutionPath = new LinkedHashSet<>();
     if(DEBUG_MODE_ACTIVATED) {
@@ -1234,8 +1234,18 @@ public class ExplodedGraphWalker {
 
     @VisibleForTesting
     final List<SECheck> seChecks = new ArrayList<>();
+    @Nullable
+    private final SECheckTimes checkTimes;
 
     public ExplodedGraphWalkerFactory(List<JavaFileScanner> scanners) {
+      this(scanners, null);
+    }
+
+    /**
+     * @param checkTimes totals of the time spent by each check, or null when check times are not recorded
+     */
+    public ExplodedGraphWalkerFactory(List<JavaFileScanner> scanners, @Nullable SECheckTimes checkTimes) {
+      this.checkTimes = checkTimes;
       List<SECheck> debugChecks = new ArrayList<>();
       List<SECheck> checks = new ArrayList<>();
       for (JavaFileScanner scanner : scanners) {
@@ -1266,7 +1276,11 @@ public class ExplodedGraphWalker {
     }
 
     public ExplodedGraphWalker createWalker(BehaviorCache behaviorCache, Sema semanticModel) {
-      return new ExplodedGraphWalker(seChecks, behaviorCache, semanticModel);
+      ExplodedGraphWalker walker = new ExplodedGraphWalker(seChecks, behaviorCache, semanticModel);
+      if (checkTimes != null) {
+        walker.checkerDispatcher.recordCheckTimes(checkTimes);
+      }
+      return walker;
     }
 
     @SuppressWarnings("unchecked")
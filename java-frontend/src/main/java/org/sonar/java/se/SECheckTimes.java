@@ -0,0 +1,46 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.sonar.java.se.checks.SECheck;
+
+/**
+ * Time spent by each symbolic execution check during an analysis, excluding the time spent by the transitions it adds.
+ */
+public class SECheckTimes {
+
+  private final Map<String, Long> nanosByCheck = new HashMap<>();
+
+  void add(SECheck check, long nanos) {
+    nanosByCheck.merge(check.getClass().getName(), nanos, Long::sum);
+  }
+
+  /**
+   * @return time in milliseconds spent by each check, by check class name
+   */
+  public Map<String, Long> millisByCheck() {
+    return nanosByCheck.entrySet().stream()
+      .collect(Collectors.toMap(Map.Entry::getKey, entry -> TimeUnit.NANOSECONDS.toMillis(entry.getValue())));
+  }
+}
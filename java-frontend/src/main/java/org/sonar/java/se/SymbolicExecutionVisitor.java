@@ -22,6 +22,7 @@ package org.sonar.java.se;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
@@ -43,7 +44,14 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
   private final ExplodedGraphWalker.ExplodedGraphWalkerFactory egwFactory;
 
   public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache) {
-    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(executableScanners);
+    this(executableScanners, behaviorCache, null);
+  }
+
+  /**
+   * @param checkTimes totals of the time spent by each check, or null when check times are not recorded
+   */
+  public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache, @Nullable SECheckTimes checkTimes) {
+    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(executableScanners, checkTimes);
     this.behaviorCache = behaviorCache;
   }
 
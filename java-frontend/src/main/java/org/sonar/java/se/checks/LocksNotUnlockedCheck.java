@@ -38,7 +38,9 @@ import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Rule(key = "S2222")
 public class LocksNotUnlockedCheck extends SECheck {
@@ -165,6 +167,11 @@ public class LocksNotUnlockedCheck extends SECheck {
     return ProgramState.isField(expression.symbol());
   }
 
+  @Override
+  public Set<Tree.Kind> syntaxNodesToVisit() {
+    return EnumSet.of(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     final PreStatementVisitor visitor = new PreStatementVisitor(context);
@@ -23,6 +23,7 @@ import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -72,6 +73,11 @@ public class MapComputeIfAbsentOrPresentCheck extends SECheck implements JavaVer
     checkIssues.clear();
   }
 
+  @Override
+  public Set<Tree.Kind> syntaxNodesToVisit() {
+    return EnumSet.of(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
     if (syntaxNode.is(Tree.Kind.METHOD_INVOCATION)) {
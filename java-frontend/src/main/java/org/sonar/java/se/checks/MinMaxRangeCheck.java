@@ -20,6 +20,7 @@
 package org.sonar.java.se.checks;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -49,6 +50,14 @@ import static org.sonar.plugins.java.api.semantic.MethodMatchers.ANY;
 @Rule(key = "S3065")
 public class MinMaxRangeCheck extends SECheck {
 
+  private static final Set<Tree.Kind> SYNTAX_NODES_TO_VISIT = EnumSet.of(
+    Tree.Kind.INT_LITERAL,
+    Tree.Kind.LONG_LITERAL,
+    Tree.Kind.UNARY_MINUS,
+    Tree.Kind.UNARY_PLUS,
+    Tree.Kind.IDENTIFIER,
+    Tree.Kind.METHOD_INVOCATION);
+
   private static final String UPPER = "upper";
   private static final String LOWER = "lower";
   private static final String FLOW_MESSAGE = "Returns the %s bound.";
@@ -118,6 +127,11 @@ public class MinMaxRangeCheck extends SECheck {
     }
   }
 
+  @Override
+  public Set<Tree.Kind> syntaxNodesToVisit() {
+    return SYNTAX_NODES_TO_VISIT;
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     ProgramState programState = context.getState();
@@ -20,6 +20,8 @@
 package org.sonar.java.se.checks;
 
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 import org.sonar.check.Rule;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
@@ -37,6 +39,12 @@ import org.sonar.plugins.java.api.tree.Tree;
 @Rule(key = "S2689")
 public class ObjectOutputStreamCheck extends SECheck {
 
+  private static final Set<Tree.Kind> SYNTAX_NODES_TO_VISIT = EnumSet.of(
+    Tree.Kind.NEW_CLASS,
+    Tree.Kind.METHOD_INVOCATION,
+    Tree.Kind.MEMBER_SELECT,
+    Tree.Kind.IDENTIFIER);
+
   private static final MethodMatchers FILES_NEW_OUTPUT_STREAM = MethodMatchers.create()
     .ofTypes("java.nio.file.Files")
     .names("newOutputStream")
@@ -51,6 +59,11 @@ public class ObjectOutputStreamCheck extends SECheck {
     }
   }
 
+  @Override
+  public Set<Tree.Kind> syntaxNodesToVisit() {
+    return SYNTAX_NODES_TO_VISIT;
+  }
+
   @Override
   public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
     ProgramState programState = context.getState();
@@ -21,8 +21,10 @@ package org.sonar.java.se.checks;
 
 import com.google.common.base.Preconditions;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.java.se.CheckerContext;
@@ -68,6 +70,11 @@ public class OptionalGetBeforeIsPresentCheck extends SECheck {
     }
   }
 
+  @Override
+  public Set<Tree.Kind> syntaxNodesToVisit() {
+    return EnumSet.of(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     PreStatementVisitor visitor = new PreStatementVisitor(this, context);
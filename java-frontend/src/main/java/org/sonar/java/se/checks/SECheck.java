@@ -30,6 +30,7 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -37,12 +38,22 @@ import java.util.stream.Collectors;
 
 public abstract class SECheck implements JavaFileScanner {
 
+  private static final Set<Tree.Kind> ALL_KINDS = Collections.unmodifiableSet(EnumSet.allOf(Tree.Kind.class));
+
   protected Set<SEIssue> issues = new HashSet<>();
 
   public void init(MethodTree methodTree, CFG cfg) {
 
   }
 
+  /**
+   * Kinds of the syntax nodes for which {@link #checkPreStatement} and {@link #checkPostStatement} are called. For other syntax nodes,
+   * execution goes on as if they returned the current program state. All the kinds by default.
+   */
+  public Set<Tree.Kind> syntaxNodesToVisit() {
+    return ALL_KINDS;
+  }
+
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     return context.getState();
   }
@@ -27,6 +27,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -52,13 +53,40 @@ public class BehaviorCache {
   @VisibleForTesting
   public final Map<String, MethodBehavior> behaviors = new LinkedHashMap<>();
   private Map<String, MethodBehavior> hardcodedBehaviors = null;
+  @Nullable
+  private ProjectBehaviorCache projectBehaviors = null;
 
   public void setFileContext(@Nullable SymbolicExecutionVisitor sev) {
     this.sev = sev;
   }
 
-  public void cleanup() {
+  /**
+   * @param projectBehaviors store in which behaviors computed for a file are kept at cleanup, to be reused for other files
+   */
+  public void setProjectBehaviors(@Nullable ProjectBehaviorCache projectBehaviors) {
+    this.projectBehaviors = projectBehaviors;
+  }
+
+  @CheckForNull
+  public ProjectBehaviorCache projectBehaviors() {
+    return projectBehaviors;
+  }
+
+  /**
+   * @return the behaviors computed for the file which are kept for the other files
+   */
+  public List<MethodBehavior> cleanup() {
+    List<MethodBehavior> shared = new ArrayList<>();
+    if (projectBehaviors != null) {
+      for (MethodBehavior methodBehavior : behaviors.values()) {
+        MethodBehavior stored = projectBehaviors.add(methodBehavior);
+        if (stored != null) {
+          shared.add(stored);
+        }
+      }
+    }
     behaviors.clear();
+    return shared;
   }
 
   @VisibleForTesting
@@ -100,7 +128,7 @@ public class BehaviorCache {
       }
     }
 
-    return hardcodedBehaviors().get(signature);
+    return projectOrHardcodedBehavior(signature);
   }
 
   /**
@@ -116,7 +144,18 @@ public class BehaviorCache {
     if (mb != null) {
       return mb;
     }
-    // check for hardcoded signatures
+    // check for behaviors computed in other files, then hardcoded signatures
+    return projectOrHardcodedBehavior(signature);
+  }
+
+  @CheckForNull
+  private MethodBehavior projectOrHardcodedBehavior(String signature) {
+    if (projectBehaviors != null) {
+      MethodBehavior mb = projectBehaviors.get(signature);
+      if (mb != null) {
+        return mb;
+      }
+    }
     return hardcodedBehaviors().get(signature);
   }
 
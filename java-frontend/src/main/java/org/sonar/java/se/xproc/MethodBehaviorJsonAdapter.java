@@ -55,12 +55,19 @@ public class MethodBehaviorJsonAdapter implements JsonSerializer<MethodBehavior>
   }
 
   public static Gson gson() {
+    return gsonBuilder()
+      .setPrettyPrinting()
+      .create();
+  }
+
+  /**
+   * @return builder of a {@link Gson} converting method behaviors, for documents containing them among other data
+   */
+  public static GsonBuilder gsonBuilder() {
     return new GsonBuilder()
       .registerTypeAdapter(MethodBehavior.class,
         new MethodBehaviorJsonAdapter())
-      .serializeNulls()
-      .setPrettyPrinting()
-      .create();
+      .serializeNulls();
   }
 
   @Override
@@ -88,7 +95,8 @@ public class MethodBehaviorJsonAdapter implements JsonSerializer<MethodBehavior>
     MethodYield result;
     if (methodYield.has(JSON_THROWN_EXCEPTION)) {
       ExceptionalYield exceptionalYield = new ExceptionalYield(behavior);
-      exceptionalYield.setExceptionType(methodYield.get(JSON_THROWN_EXCEPTION).getAsString());
+      JsonElement exceptionType = methodYield.get(JSON_THROWN_EXCEPTION);
+      exceptionalYield.setExceptionType(exceptionType.isJsonNull() ? null : exceptionType.getAsString());
       result = exceptionalYield;
     } else {
       HappyPathYield happyPathYield = new HappyPathYield(behavior);
@@ -0,0 +1,123 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.gson.Gson;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import org.sonar.java.se.constraint.BooleanConstraint;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.ObjectConstraint;
+
+/**
+ * Method behaviors computed from the sources of the project, kept across files so that a method explored in one file does not
+ * have to be explored again (and is known at all) when it is called from another file.
+ * <p>
+ * Behaviors are stored detached from the exploded graph they have been computed from: they are converted through
+ * {@link MethodBehaviorJsonAdapter}, in the same form as hardcoded behaviors. The number of stored behaviors is bounded, least
+ * recently used ones being evicted first.
+ * <p>
+ * Behaviors are only kept for the current analysis: a behavior also depends on the behaviors of the methods of other files it
+ * has been computed with, so it can not be invalidated from the content of its own file only.
+ */
+public class ProjectBehaviorCache {
+
+  public static final int DEFAULT_MAX_SIZE = 50_000;
+
+  private final Gson gson = MethodBehaviorJsonAdapter.gson();
+  private final Map<String, MethodBehavior> behaviors;
+
+  public ProjectBehaviorCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public ProjectBehaviorCache(int maxSize) {
+    this.behaviors = new LinkedHashMap<String, MethodBehavior>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, MethodBehavior> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Store a behavior computed from sources, replacing any previously known behavior of the same method.
+   * Incomplete behaviors, and behaviors which can not be converted without loss, are ignored.
+   *
+   * @return the stored behavior, or null when the behavior is ignored
+   */
+  @CheckForNull
+  public MethodBehavior add(MethodBehavior methodBehavior) {
+    if (!methodBehavior.isComplete() || !methodBehavior.yields().stream().allMatch(ProjectBehaviorCache::isConvertible)) {
+      return null;
+    }
+    MethodBehavior detached = gson.fromJson(gson.toJsonTree(methodBehavior), MethodBehavior.class);
+    behaviors.put(methodBehavior.signature(), detached);
+    return detached;
+  }
+
+  /**
+   * Only nullness and boolean constraints are converted by {@link MethodBehaviorJsonAdapter}. Dropping the other ones, such as the
+   * zero constraints of {@link org.sonar.java.se.checks.DivisionByZeroCheck}, would make yields which exclude each other apply
+   * together. Yields created by SE checks are not converted at all.
+   */
+  private static boolean isConvertible(MethodYield methodYield) {
+    if (methodYield instanceof ExceptionalCheckBasedYield) {
+      return false;
+    }
+    Stream<ConstraintsByDomain> constraints = methodYield.parametersConstraints.stream();
+    if (methodYield instanceof HappyPathYield) {
+      constraints = Stream.concat(constraints, Stream.of(((HappyPathYield) methodYield).resultConstraint()));
+    }
+    return constraints
+      .filter(Objects::nonNull)
+      .flatMap(ConstraintsByDomain::stream)
+      .allMatch(constraint -> constraint instanceof ObjectConstraint || constraint instanceof BooleanConstraint);
+  }
+
+  @CheckForNull
+  public MethodBehavior get(String signature) {
+    return behaviors.get(signature);
+  }
+
+  public int size() {
+    return behaviors.size();
+  }
+
+  /**
+   * @return textual representation of the known behaviors of the given methods
+   */
+  public String fingerprint(Collection<String> signatures) {
+    SortedSet<String> result = new TreeSet<>();
+    for (String signature : signatures) {
+      MethodBehavior methodBehavior = behaviors.get(signature);
+      if (methodBehavior != null) {
+        result.add(gson.toJson(methodBehavior, MethodBehavior.class));
+      }
+    }
+    return String.join("\n", result);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.java.se.xproc.HappyPathYield;
+import org.sonar.java.se.xproc.MethodBehavior;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisResultCacheTest {
+
+  private static final RuleKey RULE_KEY = RuleKey.of("java", "S42");
+
+  @TempDir
+  File workDir;
+
+  @Test
+  void issues_are_replayed_from_saved_cache_when_key_did_not_change() {
+    InputFile inputFile = TestUtils.emptyInputFile("A.java");
+    JavaCheck check = new JavaCheck() {
+    };
+    AnalyzerMessage message = new AnalyzerMessage(check, inputFile, new AnalyzerMessage.TextSpan(1, 2, 3, 4), "message", 5);
+    message.flows.add(Collections.singletonList(new AnalyzerMessage(check, inputFile, new AnalyzerMessage.TextSpan(2), "flow", 0)));
+
+    AnalysisResultCache cache = new AnalysisResultCache(workDir);
+    assertThat(cache.get(inputFile, "key")).isNull();
+    cache.put(inputFile, "key", Collections.singletonList(message), Collections.emptyList(), c -> RULE_KEY);
+    cache.save();
+
+    AnalysisResultCache reloaded = new AnalysisResultCache(workDir);
+    assertThat(reloaded.get(inputFile, "other key")).isNull();
+    List<AnalysisResultCache.CachedIssue> issues = reloaded.get(inputFile, "key").issues();
+    assertThat(issues).hasSize(1);
+    assertThat(issues.get(0).ruleKey()).isEqualTo(RULE_KEY);
+
+    AnalyzerMessage replayed = issues.get(0).toAnalyzerMessage(check, inputFile);
+    assertThat(replayed.getCheck()).isSameAs(check);
+    assertThat(replayed.getInputComponent()).isSameAs(inputFile);
+    assertThat(replayed.getMessage()).isEqualTo("message");
+    assertThat(replayed.getCost()).isEqualTo(5.0);
+    assertThat(replayed.primaryLocation()).hasToString("(1:2)-(3:4)");
+    assertThat(replayed.flows).hasSize(1);
+    assertThat(replayed.flows.get(0).get(0).getMessage()).isEqualTo("flow");
+    assertThat(replayed.flows.get(0).get(0).primaryLocation().onLine()).isTrue();
+  }
+
+  @Test
+  void entries_not_used_during_analysis_are_dropped() {
+    InputFile a = TestUtils.emptyInputFile("A.java");
+    InputFile b = TestUtils.emptyInputFile("B.java");
+    AnalysisResultCache cache = new AnalysisResultCache(workDir);
+    cache.put(a, "keyA", Collections.emptyList(), Collections.emptyList(), c -> RULE_KEY);
+    cache.put(b, "keyB", Collections.emptyList(), Collections.emptyList(), c -> RULE_KEY);
+    cache.save();
+
+    cache = new AnalysisResultCache(workDir);
+    assertThat(cache.get(a, "keyA").issues()).isEmpty();
+    cache.save();
+
+    cache = new AnalysisResultCache(workDir);
+    assertThat(cache.get(a, "keyA").issues()).isEmpty();
+    assertThat(cache.get(b, "keyB")).isNull();
+  }
+
+  @Test
+  void method_behaviors_are_saved_with_issues() {
+    InputFile inputFile = TestUtils.emptyInputFile("A.java");
+    MethodBehavior behavior = new MethodBehavior("A#foo()V", false);
+    HappyPathYield yield = new HappyPathYield(behavior);
+    yield.setResult(-1, null);
+    behavior.addYield(yield);
+    behavior.completed();
+
+    AnalysisResultCache cache = new AnalysisResultCache(workDir);
+    cache.put(inputFile, "key", Collections.emptyList(), Collections.singletonList(behavior), c -> RULE_KEY);
+    cache.save();
+
+    List<MethodBehavior> behaviors = new AnalysisResultCache(workDir).get(inputFile, "key").behaviors();
+    assertThat(behaviors).hasSize(1);
+    assertThat(behaviors.get(0)).isNotSameAs(behavior).isEqualTo(behavior);
+  }
+
+  @Test
+  void hash_depends_on_all_parts() {
+    assertThat(AnalysisResultCache.hash("a", "bc")).isNotEqualTo(AnalysisResultCache.hash("ab", "c"));
+    assertThat(AnalysisResultCache.hash("a", "b")).isEqualTo(AnalysisResultCache.hash("a", "b")).hasSize(64);
+  }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncIssueWriterTest {
+
+  @Test
+  void issues_are_saved_in_order() {
+    List<Integer> saved = Collections.synchronizedList(new ArrayList<>());
+    AsyncIssueWriter writer = new AsyncIssueWriter();
+    for (int file = 0; file < AsyncIssueWriter.MAX_PENDING_FILES * 3; file++) {
+      int issue = file;
+      writer.add(() -> saved.add(issue));
+      writer.endOfFile();
+    }
+    writer.add(() -> saved.add(-1));
+    writer.close(false);
+    assertThat(saved).hasSize(AsyncIssueWriter.MAX_PENDING_FILES * 3 + 1).startsWith(0, 1, 2).endsWith(-1);
+  }
+
+  @Test
+  void failure_is_reported_to_analysis_thread() {
+    AsyncIssueWriter writer = new AsyncIssueWriter();
+    writer.add(() -> {
+      throw new IllegalStateException("boom");
+    });
+    assertThatThrownBy(() -> writer.close(false))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Unable to save issues")
+      .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void pending_issues_are_dropped_on_cancellation() throws Exception {
+    CountDownLatch saving = new CountDownLatch(1);
+    CountDownLatch end = new CountDownLatch(1);
+    List<String> saved = Collections.synchronizedList(new ArrayList<>());
+    AsyncIssueWriter writer = new AsyncIssueWriter();
+    writer.add(() -> {
+      saving.countDown();
+      try {
+        end.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    writer.endOfFile();
+    writer.add(() -> saved.add("second file"));
+    writer.endOfFile();
+    saving.await();
+    writer.close(true);
+    end.countDown();
+    assertThat(saved).isEmpty();
+  }
+
+}
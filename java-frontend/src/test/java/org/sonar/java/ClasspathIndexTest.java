@@ -0,0 +1,146 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.condition.OS.WINDOWS;
+
+class ClasspathIndexTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void entries_without_classes_and_duplicated_jars_are_not_part_of_compilation_classpath() throws Exception {
+    File jar = jar("lib.jar", "org/foo/A.class", "org/foo/bar/B.class", "C.class");
+    File copy = jar("copy/lib.jar", "org/foo/A.class", "org/foo/bar/B.class", "C.class");
+    File resources = jar("resources.jar", "META-INF/MANIFEST.MF", "org/foo/messages.properties");
+    File other = jar("other.jar", "org/foo/D.class");
+    File directory = Files.createDirectory(tempDir.resolve("classes")).toFile();
+    File missing = tempDir.resolve("missing.jar").toFile();
+    File notAJar = tempDir.resolve("broken.jar").toFile();
+    Files.write(notAJar.toPath(), "not a zip".getBytes());
+
+    ClasspathIndex index = new ClasspathIndex(null);
+    assertThat(index.compilationClasspath(Arrays.asList(directory, missing, jar, resources, copy, notAJar, other)))
+      .containsExactly(directory, jar, notAJar, other);
+  }
+
+  @Test
+  void index_is_persisted_and_invalidated_on_change() throws Exception {
+    File cacheDir = tempDir.resolve("cache").toFile();
+    File jar = jar("lib.jar", "org/foo/A.class");
+    long lastModified = jar.lastModified();
+    long size = jar.length();
+    new ClasspathIndex(cacheDir).compilationClasspath(Collections.singletonList(jar));
+    assertThat(cacheDir.toPath().resolve("sonar-java-classpath-index.json")).exists();
+
+    // same path, size and modification time: the persisted entry is used, without reading the jar
+    jar("lib.jar", "org/foo/A.clasz");
+    assertThat(jar.length()).isEqualTo(size);
+    assertThat(jar.setLastModified(lastModified)).isTrue();
+    assertThat(new ClasspathIndex(cacheDir).compilationClasspath(Collections.singletonList(jar))).containsExactly(jar);
+
+    assertThat(jar.setLastModified(lastModified + 1000)).isTrue();
+    assertThat(new ClasspathIndex(cacheDir).compilationClasspath(Collections.singletonList(jar))).isEmpty();
+  }
+
+  @Test
+  void corrupted_index_is_ignored() throws Exception {
+    File cacheDir = tempDir.resolve("cache").toFile();
+    assertThat(cacheDir.mkdir()).isTrue();
+    Files.write(cacheDir.toPath().resolve("sonar-java-classpath-index.json"), "{ corrupted".getBytes());
+    File jar = jar("lib.jar", "org/foo/A.class");
+    ClasspathIndex index = new ClasspathIndex(cacheDir);
+    assertThat(index.compilationClasspath(Collections.singletonList(jar))).containsExactly(jar);
+  }
+
+  @Test
+  void class_files_of_directories() throws Exception {
+    Path first = Files.createDirectories(tempDir.resolve("first/org/foo")).getParent().getParent();
+    Path second = Files.createDirectories(tempDir.resolve("second/org/foo")).getParent().getParent();
+    Files.createFile(first.resolve("org/foo/A.class"));
+    Files.createFile(second.resolve("org/foo/A.class"));
+    Files.createFile(second.resolve("org/foo/A$1.class"));
+    Files.createFile(second.resolve("org/foo/B.java"));
+
+    ClasspathIndex index = new ClasspathIndex(null);
+    List<File> directories = Arrays.asList(tempDir.resolve("missing").toFile(), first.toFile(), second.toFile());
+    assertThat(index.findClassFile(directories, "org/foo/A.class")).isEqualTo(new File(first.toFile(), "org/foo/A.class"));
+    assertThat(index.findClassFile(directories, "org/foo/A$1.class")).isEqualTo(new File(second.toFile(), "org/foo/A$1.class"));
+    assertThat(index.findClassFile(directories, "org/foo/B.class")).isNull();
+    assertThat(index.findClassFile(directories, "org/foo/B.java")).isNull();
+  }
+
+  @Test
+  @DisabledOnOs(WINDOWS)
+  void class_files_of_directories_through_symbolic_links() throws Exception {
+    Path output = Files.createDirectories(tempDir.resolve("output/org/foo")).getParent().getParent();
+    Files.createFile(output.resolve("org/foo/A.class"));
+    Path classes = Files.createDirectory(tempDir.resolve("classes"));
+    Files.createSymbolicLink(classes.resolve("org"), output.resolve("org"));
+    // cycle
+    Files.createSymbolicLink(output.resolve("org/foo/loop"), output.resolve("org"));
+    Path linkedClasses = Files.createSymbolicLink(tempDir.resolve("linked"), classes);
+
+    ClasspathIndex index = new ClasspathIndex(null);
+    assertThat(index.findClassFile(Collections.singletonList(classes.toFile()), "org/foo/A.class"))
+      .isEqualTo(new File(classes.toFile(), "org/foo/A.class"));
+    assertThat(index.findClassFile(Collections.singletonList(linkedClasses.toFile()), "org/foo/A.class"))
+      .isEqualTo(new File(linkedClasses.toFile(), "org/foo/A.class"));
+  }
+
+  private File jar(String path, String... entries) throws IOException {
+    Path jar = tempDir.resolve(path);
+    Files.createDirectories(jar.getParent());
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      for (String entry : entries) {
+        // stored entries, so that the size of the jar only depends on the length of the names of its entries
+        byte[] content = entry.getBytes();
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        JarEntry jarEntry = new JarEntry(entry);
+        jarEntry.setMethod(ZipEntry.STORED);
+        jarEntry.setSize(content.length);
+        jarEntry.setCrc(crc.getValue());
+        out.putNextEntry(jarEntry);
+        out.write(content);
+        out.closeEntry();
+      }
+    }
+    return jar.toFile();
+  }
+
+}
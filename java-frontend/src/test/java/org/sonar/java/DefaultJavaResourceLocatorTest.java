@@ -29,7 +29,12 @@ import org.sonar.java.ast.JavaAstScanner;
 import org.sonar.java.model.VisitorsBridge;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class DefaultJavaResourceLocatorTest {
@@ -76,6 +81,20 @@ class DefaultJavaResourceLocatorTest {
     assertThat(javaResourceLocator.classFilesToAnalyze()).hasSize(5);
   }
 
+  @Test
+  void classpath_index_of_analysis_is_used_when_enabled() throws Exception {
+    JavaClasspath javaClasspath = mock(JavaClasspath.class);
+    when(javaClasspath.getBinaryDirs()).thenReturn(Lists.newArrayList(new File("target/test-classes")));
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    ClasspathIndex classpathIndex = spy(new ClasspathIndex(null));
+    when(sonarComponents.classpathIndex()).thenReturn(classpathIndex);
+    DefaultJavaResourceLocator jrl = new DefaultJavaResourceLocator(javaClasspath, sonarComponents);
+    jrl.resourcesByClass.putAll(javaResourceLocator.resourcesByClass);
+
+    assertThat(jrl.classFilesToAnalyze()).hasSize(5);
+    verify(classpathIndex, times(5)).findClassFile(any(), anyString());
+  }
+
   static class A { // NOSONAR
 
     interface I {
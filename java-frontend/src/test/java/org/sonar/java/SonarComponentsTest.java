@@ -23,15 +23,20 @@ import com.google.common.collect.Lists;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -50,6 +55,7 @@ import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.batch.sensor.issue.Issue;
 import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
@@ -65,7 +71,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -275,6 +283,74 @@ class SonarComponentsTest {
 
   }
 
+  @Test
+  void rule_key_is_looked_up_once_per_check() {
+    JavaCheck expectedCheck = new CustomCheck();
+    RuleKey ruleKey = RuleKey.of(REPOSITORY_NAME, "custom");
+    when(this.checks.ruleKey(expectedCheck)).thenReturn(ruleKey);
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, null, null, null, checkFactory, new CheckRegistrar[] {
+      getRegistrar(expectedCheck)
+    }, null);
+
+    assertThat(sonarComponents.getRuleKey(expectedCheck)).isSameAs(ruleKey);
+    assertThat(sonarComponents.getRuleKey(expectedCheck)).isSameAs(ruleKey);
+    verify(this.checks, times(1)).ruleKey(expectedCheck);
+  }
+
+  @Test
+  void issues_saved_asynchronously_from_start_of_file() {
+    JavaCheck expectedCheck = new CustomCheck();
+    SensorContextTester context = SensorContextTester.create(new File("."));
+    context.setSettings(new MapSettings().setProperty(SonarComponents.ASYNC_ISSUES_KEY, true));
+    InputFile inputFile = spy(createInputFile());
+    List<Thread> resolvingThreads = new ArrayList<>();
+    doAnswer(invocation -> {
+      resolvingThreads.add(Thread.currentThread());
+      return invocation.callRealMethod();
+    }).when(inputFile).selectLine(anyInt());
+    context.fileSystem().add(inputFile);
+    when(this.checks.ruleKey(any(JavaCheck.class))).thenReturn(RuleKey.of(REPOSITORY_NAME, "custom"));
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, context.fileSystem(), null, null, checkFactory, new CheckRegistrar[] {
+      getRegistrar(expectedCheck)
+    }, null);
+    sonarComponents.setSensorContext(context);
+
+    sonarComponents.addIssue(inputFile, expectedCheck, 42, "before first file", null);
+    assertThat(context.allIssues()).hasSize(1);
+
+    sonarComponents.startOfFile();
+    sonarComponents.addIssue(inputFile, expectedCheck, 35, "first file", null);
+    sonarComponents.endOfFile();
+    sonarComponents.startOfFile();
+    sonarComponents.addIssue(inputFile, expectedCheck, 42, "second file", null);
+    sonarComponents.endOfFile();
+    sonarComponents.addIssue(inputFile, expectedCheck, 35, "end of analysis", null);
+    sonarComponents.awaitIssuesSaved();
+
+    sonarComponents.addIssue(inputFile, expectedCheck, 42, "after end of analysis", null);
+    assertThat(context.allIssues())
+      .extracting(issue -> issue.primaryLocation().message())
+      .containsExactly("before first file", "first file", "second file", "end of analysis", "after end of analysis");
+    assertThat(resolvingThreads).hasSize(5).containsOnly(Thread.currentThread());
+  }
+
+  @Test
+  void issues_not_saved_asynchronously_by_default() {
+    JavaCheck expectedCheck = new CustomCheck();
+    SensorContextTester context = SensorContextTester.create(new File("."));
+    InputFile inputFile = createInputFile();
+    context.fileSystem().add(inputFile);
+    when(this.checks.ruleKey(any(JavaCheck.class))).thenReturn(RuleKey.of(REPOSITORY_NAME, "custom"));
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, context.fileSystem(), null, null, checkFactory, new CheckRegistrar[] {
+      getRegistrar(expectedCheck)
+    }, null);
+    sonarComponents.setSensorContext(context);
+
+    sonarComponents.startOfFile();
+    sonarComponents.addIssue(inputFile, expectedCheck, 42, "message", null);
+    assertThat(context.allIssues()).hasSize(1);
+  }
+
   @Test
   void test_filtered_issue_are_not_reported() throws Exception {
     JavaCheck expectedCheck = new CustomCheck();
@@ -410,6 +486,85 @@ class SonarComponentsTest {
     }
   }
 
+  @Test
+  void batch_size_and_analysis_threads_should_be_configurable() {
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(context);
+    assertThat(sonarComponents.batchSize()).isEqualTo(1);
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(1);
+
+    context.setSettings(new MapSettings()
+      .setProperty(SonarComponents.BATCH_SIZE_KEY, 10)
+      .setProperty(SonarComponents.ANALYSIS_THREADS_KEY, 4));
+    assertThat(sonarComponents.batchSize()).isEqualTo(10);
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(4);
+  }
+
+  @Test
+  void classpath_index_should_prune_compilation_classpath_when_enabled(@TempDir Path workDir) {
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    context.fileSystem().setWorkDir(workDir);
+    context.settings().setProperty(SonarComponents.CACHE_DIR_KEY, workDir.resolve("cache").toString());
+    JavaClasspath javaClasspath = mock(JavaClasspath.class);
+    File binaries = new File("target/test-classes");
+    when(javaClasspath.getElements()).thenReturn(Arrays.asList(binaries, new File("missing.jar")));
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), javaClasspath, null, null, null);
+    sonarComponents.setSensorContext(context);
+    assertThat(sonarComponents.classpathIndex()).isNull();
+    assertThat(sonarComponents.getJavaClasspath()).hasSize(2);
+
+    context.settings().setProperty(SonarComponents.CLASSPATH_INDEX_KEY, true);
+    assertThat(sonarComponents.classpathIndex()).isNotNull();
+    assertThat(sonarComponents.getJavaClasspath()).containsExactly(binaries);
+  }
+
+  @Test
+  void cache_dir_should_be_outside_of_work_dir(@TempDir Path tempDir) throws Exception {
+    Files.createDirectories(tempDir.resolve("project"));
+    Files.createDirectories(tempDir.resolve("otherProject"));
+    SensorContextTester context = SensorContextTester.create(tempDir.resolve("project"));
+    context.fileSystem().setWorkDir(tempDir.resolve("project/.scannerwork"));
+    context.settings().setProperty("sonar.userHome", tempDir.resolve("userHome").toString());
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(context);
+    assertThat(sonarComponents.cacheDir().getParentFile()).isEqualTo(tempDir.resolve("userHome/sonar-java-cache").toFile());
+
+    SensorContextTester otherProject = SensorContextTester.create(tempDir.resolve("otherProject"));
+    otherProject.setSettings(context.settings());
+    assertThat(SonarComponents.cacheDir(otherProject)).isNotEqualTo(sonarComponents.cacheDir());
+
+    context.settings().setProperty(SonarComponents.CACHE_DIR_KEY, tempDir.resolve("cache").toString());
+    assertThat(sonarComponents.cacheDir()).isEqualTo(tempDir.resolve("cache").toFile());
+  }
+
+  @Test
+  void persistent_caches_should_be_reused_after_cleaning_of_work_dir(@TempDir Path tempDir) throws Exception {
+    Path workDir = tempDir.resolve("work");
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.CACHE_DIR_KEY, tempDir.resolve("cache").toString())
+      .setProperty(SonarComponents.ANALYSIS_CACHE_KEY, true);
+    InputFile inputFile = TestUtils.emptyInputFile("Foo.java");
+
+    SonarComponents firstAnalysis = sonarComponentsWithWorkDir(settings, workDir);
+    firstAnalysis.analysisResultCache().put(inputFile, "key", Collections.emptyList(), Collections.emptyList(), check -> RuleKey.of("java", "S1"));
+    firstAnalysis.analysisResultCache().save();
+
+    // the scanner cleans the working directory at the start of each analysis
+    FileUtils.deleteDirectory(workDir.toFile());
+    SonarComponents secondAnalysis = sonarComponentsWithWorkDir(settings, workDir);
+    assertThat(secondAnalysis.analysisResultCache().get(inputFile, "key").issues()).isEmpty();
+  }
+
+  private static SonarComponents sonarComponentsWithWorkDir(MapSettings settings, Path workDir) {
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    context.fileSystem().setWorkDir(workDir);
+    context.setSettings(settings);
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(context);
+    return sonarComponents;
+  }
+
   @Test
   void jsp_classpath_should_include_plugin() throws Exception {
     SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
@@ -452,6 +607,27 @@ class SonarComponentsTest {
     assertThat(sonarComponents.jspCodeVisitors()).isEmpty();
   }
 
+  @Test
+  void analysis_configuration_fingerprint_depends_on_plugins_providing_checks() {
+    ActiveRules activeRules = new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder().setRuleKey(RuleKey.of("custom", "jsp")).build())
+      .build();
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    context.setActiveRules(activeRules);
+    CheckFactory checkFactory = new CheckFactory(activeRules);
+
+    SonarComponents withoutCustomChecks = new SonarComponents(null, context.fileSystem(), null, null, checkFactory, null);
+    withoutCustomChecks.setSensorContext(context);
+    SonarComponents withCustomChecks = new SonarComponents(null, context.fileSystem(), null, null, checkFactory,
+      new CheckRegistrar[] {getRegistrar(new JspCodeCheck())}, null);
+    withCustomChecks.setSensorContext(context);
+
+    String fingerprint = withCustomChecks.analysisConfigurationFingerprint(Collections.emptyList());
+    assertThat(fingerprint)
+      .isEqualTo(withCustomChecks.analysisConfigurationFingerprint(Collections.emptyList()))
+      .isNotEqualTo(withoutCustomChecks.analysisConfigurationFingerprint(Collections.emptyList()));
+  }
+
   @Rule(key = "jsp")
   public static class JspCodeCheck implements JspCodeVisitor {
 
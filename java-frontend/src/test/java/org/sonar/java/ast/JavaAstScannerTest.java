@@ -42,6 +42,7 @@ import org.sonar.api.utils.Version;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.ExceptionHandler;
 import org.sonar.java.Measurer;
 import org.sonar.java.SonarComponents;
@@ -151,6 +152,93 @@ class JavaAstScannerTest {
     verifyNoMoreInteractions(visitor);
   }
 
+  @Test
+  void parallel_scan_should_visit_files_in_order_and_end_analysis_once() {
+    context.setSettings(new MapSettings().setProperty(SonarComponents.ANALYSIS_THREADS_KEY, 4));
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(context);
+    List<InputFile> inputFiles = Arrays.asList(
+      TestUtils.inputFile("src/test/files/metrics/Classes.java"),
+      TestUtils.inputFile("src/test/files/metrics/Methods.java"),
+      TestUtils.inputFile("src/test/resources/AstScannerParseError.txt"),
+      TestUtils.inputFile("src/test/files/metrics/Comments.java"),
+      TestUtils.inputFile("src/test/files/metrics/NoSonar.java"));
+    FileRecorder recorder = new FileRecorder();
+    JavaAstScanner scanner = new JavaAstScanner(sonarComponents);
+    scanner.setVisitorBridge(new VisitorsBridge(Collections.singletonList(recorder), new ArrayList<>(), sonarComponents));
+
+    scanner.scan(inputFiles);
+
+    assertThat(recorder.visitedFiles).containsExactly(inputFiles.get(0), inputFiles.get(1), inputFiles.get(3), inputFiles.get(4));
+    assertThat(recorder.parseErrors).isEqualTo(1);
+    assertThat(recorder.endOfAnalysisCalls).isEqualTo(1);
+  }
+
+  @Test
+  void batch_scan_should_visit_all_files_and_end_analysis_once() {
+    context.setSettings(new MapSettings().setProperty(SonarComponents.BATCH_SIZE_KEY, 2));
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(context);
+    List<InputFile> inputFiles = Arrays.asList(
+      TestUtils.inputFile("src/test/files/metrics/Classes.java"),
+      TestUtils.inputFile("src/test/files/metrics/Methods.java"),
+      TestUtils.inputFile("src/test/resources/AstScannerParseError.txt"));
+    FileRecorder recorder = new FileRecorder();
+    JavaAstScanner scanner = new JavaAstScanner(sonarComponents);
+    scanner.setVisitorBridge(new VisitorsBridge(Collections.singletonList(recorder), new ArrayList<>(), sonarComponents));
+
+    scanner.scan(inputFiles);
+
+    assertThat(recorder.visitedFiles).containsExactlyInAnyOrder(inputFiles.get(0), inputFiles.get(1));
+    assertThat(recorder.parseErrors).isEqualTo(1);
+    assertThat(recorder.endOfAnalysisCalls).isEqualTo(1);
+  }
+
+  @Test
+  void batch_scan_should_warn_when_threads_are_also_set() {
+    context.setSettings(new MapSettings()
+      .setProperty(SonarComponents.BATCH_SIZE_KEY, 2)
+      .setProperty(SonarComponents.ANALYSIS_THREADS_KEY, 4));
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(context);
+    List<InputFile> inputFiles = Arrays.asList(
+      TestUtils.inputFile("src/test/files/metrics/Classes.java"),
+      TestUtils.inputFile("src/test/files/metrics/Methods.java"));
+    FileRecorder recorder = new FileRecorder();
+    JavaAstScanner scanner = new JavaAstScanner(sonarComponents);
+    scanner.setVisitorBridge(new VisitorsBridge(Collections.singletonList(recorder), new ArrayList<>(), sonarComponents));
+
+    scanner.scan(inputFiles);
+
+    assertThat(recorder.visitedFiles).containsExactlyInAnyOrder(inputFiles.get(0), inputFiles.get(1));
+    assertThat(logTester.logs(LoggerLevel.WARN)).containsExactly("Both sonar.java.internal.analysis.batchSize and "
+      + "sonar.java.internal.analysis.threads are set: files are parsed in batches of 2 and the 4 threads setting is ignored.");
+  }
+
+  @Test
+  void parallel_scan_should_handle_analysis_cancellation() {
+    context.setSettings(new MapSettings().setProperty(SonarComponents.ANALYSIS_THREADS_KEY, 2));
+    JavaFileScanner visitor = spy(new JavaFileScanner() {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        JavaAstScannerTest.this.context.setCancelled(true);
+      }
+    });
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(context);
+    JavaAstScanner scanner = new JavaAstScanner(sonarComponents);
+    scanner.setVisitorBridge(new VisitorsBridge(Lists.newArrayList(visitor), new ArrayList<>(), sonarComponents));
+    scanner.scan(Arrays.asList(
+      TestUtils.inputFile("src/test/files/metrics/Classes.java"),
+      TestUtils.inputFile("src/test/files/metrics/Methods.java"),
+      TestUtils.inputFile("src/test/files/metrics/Comments.java")
+    ));
+
+    verify(visitor, Mockito.times(1))
+      .scanFile(any());
+    verifyNoMoreInteractions(visitor);
+  }
+
   @Test
   void should_interrupt_analysis_when_InterruptedException_is_thrown() {
     InputFile inputFile = TestUtils.inputFile("src/test/files/metrics/NoSonar.java");
@@ -279,6 +367,35 @@ class JavaAstScannerTest {
     }
   }
 
+  private static class FileRecorder implements JavaFileScanner, ExceptionHandler, EndOfAnalysisCheck {
+    private final List<InputFile> visitedFiles = new ArrayList<>();
+    private int parseErrors = 0;
+    private int endOfAnalysisCalls = 0;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      if (context.getTree().types().isEmpty()) {
+        // empty compilation unit created upon parse error
+        return;
+      }
+      visitedFiles.add(context.getInputFile());
+    }
+
+    @Override
+    public void processRecognitionException(RecognitionException e) {
+      parseErrors++;
+    }
+
+    @Override
+    public void processException(Exception e) {
+    }
+
+    @Override
+    public void endOfAnalysis() {
+      endOfAnalysisCalls++;
+    }
+  }
+
   private static class FakeAuditListener implements JavaFileScanner, ExceptionHandler {
 
     @Override
@@ -30,7 +30,14 @@ import org.sonar.api.measures.FileLinesContext;
 import org.sonar.java.JavaSquid;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.TestUtils;
+import org.sonar.java.cfg.CFG;
 import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.BlockTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -46,13 +53,16 @@ class FileLinesVisitorTest {
     baseDir = new File("src/test/files/metrics");
   }
 
-  private void checkLines(String filename, FileLinesContext context) {
+  private void checkLines(String filename, FileLinesContext context, JavaCheck... otherChecks) {
     InputFile inputFile = TestUtils.inputFile(new File(baseDir, filename));
 
     SonarComponents sonarComponents = mock(SonarComponents.class);
     when(sonarComponents.fileLinesContextFor(Mockito.any(InputFile.class))).thenReturn(context);
 
-    JavaSquid squid = new JavaSquid(new JavaVersionImpl(), null, null, null, null, new FileLinesVisitor(sonarComponents));
+    JavaCheck[] checks = new JavaCheck[otherChecks.length + 1];
+    checks[0] = new FileLinesVisitor(sonarComponents);
+    System.arraycopy(otherChecks, 0, checks, 1, otherChecks.length);
+    JavaSquid squid = new JavaSquid(new JavaVersionImpl(), null, null, null, null, checks);
 
     squid.scan(Collections.singletonList(inputFile), Collections.emptyList(), Collections.emptyList());
   }
@@ -86,4 +96,35 @@ class FileLinesVisitorTest {
     verify(context).save();
   }
 
+  @Test
+  void executable_lines_reuse_cfg_of_methods() {
+    FileLinesContext context = mock(FileLinesContext.class);
+    MethodCfgConsumer cfgConsumer = new MethodCfgConsumer();
+    long reuses = CFG.methodCfgReuses();
+    checkLines("ExecutableLines.java", context, cfgConsumer);
+    assertThat(cfgConsumer.methods).isPositive();
+    assertThat(CFG.methodCfgReuses() - reuses).isEqualTo(cfgConsumer.methods);
+    verify(context).setIntValue(CoreMetrics.EXECUTABLE_LINES_DATA_KEY, 5, 1);
+    verify(context).save();
+  }
+
+  private static class MethodCfgConsumer extends BaseTreeVisitor implements JavaFileScanner {
+    private int methods = 0;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scan(context.getTree());
+    }
+
+    @Override
+    public void visitMethod(MethodTree tree) {
+      BlockTree block = tree.block();
+      if (block != null && !block.body().isEmpty()) {
+        CFG.of(tree);
+        methods++;
+      }
+      super.visitMethod(tree);
+    }
+  }
+
 }
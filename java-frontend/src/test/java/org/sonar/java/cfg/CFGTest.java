@@ -30,6 +30,7 @@ import org.junit.jupiter.api.Test;
 import org.sonar.java.cfg.CFG.Block;
 import org.sonar.java.model.JParserTestUtils;
 import org.sonar.java.model.LiteralUtils;
+import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
@@ -2937,6 +2938,41 @@ class CFGTest {
     cfgChecker.check(cfg);
   }
 
+  @Test
+  void method_cfg_and_live_variables_should_be_shared_between_consumers() {
+    CompilationUnitTree cut = JParserTestUtils.parse("class A { int f; void meth(int p) { int a = p; f = a; } }");
+    MethodTree methodTree = (MethodTree) ((ClassTree) cut.types().get(0)).members().get(1);
+    long builds = CFG.methodCfgBuilds();
+    long reuses = CFG.methodCfgReuses();
+
+    CFG cfg = CFG.of(methodTree);
+    assertThat(CFG.of(methodTree)).isSameAs(cfg).isSameAs(methodTree.cfg());
+    assertThat(CFG.methodCfgBuilds()).isEqualTo(builds + 1);
+    assertThat(CFG.methodCfgReuses()).isEqualTo(reuses + 1);
+
+    LiveVariables liveVariables = cfg.liveVariables();
+    LiveVariables liveVariablesWithFields = cfg.liveVariablesWithFields();
+    assertThat(cfg.liveVariables()).isSameAs(liveVariables);
+    assertThat(cfg.liveVariablesWithFields()).isSameAs(liveVariablesWithFields).isNotSameAs(liveVariables);
+    assertThat(liveVariables.getIn(cfg.entryBlock())).extracting(Symbol::name).containsExactly("p");
+    assertThat(liveVariablesWithFields.getIn(cfg.entryBlock())).extracting(Symbol::name).containsExactly("p");
+
+    cfg.setMethodSymbol(methodTree.symbol());
+    assertThat(cfg.liveVariables()).isNotSameAs(liveVariables);
+  }
+
+  @Test
+  void cfg_of_method_without_body_should_fail() {
+    CompilationUnitTree cut = JParserTestUtils.parse("abstract class A { abstract void meth(); }");
+    MethodTree methodTree = (MethodTree) ((ClassTree) cut.types().get(0)).members().get(0);
+    try {
+      CFG.of(methodTree);
+      fail("IllegalArgumentException should have been thrown");
+    } catch (IllegalArgumentException iae) {
+      assertThat(iae).hasMessage("Cannot build CFG for method with no body.");
+    }
+  }
+
   private void build_partial_cfg(String breakOrContinue) {
     String methodCode = "void meth(){ try {fun(); } catch ( Exception e) {e.printStackTrace(); "+breakOrContinue+"; } }";
     CompilationUnitTree cut = JParserTestUtils.parse("class A {" + methodCode + "}");
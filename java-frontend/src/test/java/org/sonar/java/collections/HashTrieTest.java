@@ -0,0 +1,159 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashTrieTest {
+
+  private static final class Key {
+    private final int hashCode;
+    private final String toString;
+
+    private Key(int hashCode, String toString) {
+      this.hashCode = hashCode;
+      this.toString = toString;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return toString;
+    }
+  }
+
+  @Test
+  void empty() {
+    HashTrie<Object, Object> t = HashTrie.create();
+    assertThat(t.isEmpty()).isTrue();
+    assertThat(t.get("k")).isNull();
+    assertThat(t.remove("k")).isSameAs(t);
+    assertThat(t).hasToString("").isEqualTo(HashTrie.create()).isNotEqualTo(AVLTree.create());
+    assertThat(t.put("k", "v").remove("k")).isSameAs(t);
+  }
+
+  @Test
+  void put_get_remove() {
+    HashTrie<Object, Object> t = HashTrie.create();
+    t = t.put("k1", "v1").put("k2", "v2");
+    assertThat(t.get("k1")).isEqualTo("v1");
+    assertThat(t.get("k2")).isEqualTo("v2");
+    assertThat(t.get("k3")).isNull();
+    assertThat(t.put("k1", "v1")).as("same key-value").isSameAs(t);
+    assertThat(t.put("k1", "v3").get("k1")).isEqualTo("v3");
+    assertThat(t.remove("k3")).isSameAs(t);
+    assertThat(t.remove("k1").remove("k2").isEmpty()).isTrue();
+  }
+
+  @Test
+  void collisions() {
+    Object k1 = new Key(42, "k1");
+    Object k2 = new Key(42, "k2");
+    Object k3 = new Key(42, "k3");
+    Object k4 = new Key(42 + 32, "k4");
+    HashTrie<Object, Object> t = HashTrie.create().put(k1, "v1").put(k2, "v2").put(k3, "v3");
+    assertThat(t.get(k1)).isEqualTo("v1");
+    assertThat(t.get(k3)).isEqualTo("v3");
+    assertThat(t.get(k4)).isNull();
+    assertThat(t.get(new Key(42, "k5"))).isNull();
+    assertThat(t.put(k2, "v2")).isSameAs(t);
+    assertThat(t.put(k2, "v4").get(k2)).isEqualTo("v4");
+    assertThat(t.remove(new Key(42, "k5"))).isSameAs(t);
+    assertThat(t.remove(k4)).isSameAs(t);
+
+    HashTrie<Object, Object> other = HashTrie.create().put(k3, "v3").put(k1, "v1").put(k2, "v2");
+    assertThat(t).isEqualTo(other).hasSameHashCodeAs(other);
+    assertThat(t).isNotEqualTo(HashTrie.create().put(k3, "v3").put(k1, "v1").put(k2, "v4"));
+
+    HashTrie<Object, Object> withK4 = t.put(k4, "v4");
+    assertThat(withK4.get(k4)).isEqualTo("v4");
+    assertThat(withK4.get(k2)).isEqualTo("v2");
+    assertThat(withK4.remove(k4)).isEqualTo(t);
+    assertThat(t.remove(k2).remove(k3)).isEqualTo(HashTrie.create().put(k1, "v1"));
+  }
+
+  @Test
+  void structure_should_not_depend_on_order_of_operations() {
+    Random random = new Random(42);
+    Map<Object, Object> expected = new HashMap<>();
+    HashTrie<Object, Object> t = HashTrie.create();
+    for (int i = 0; i < 10_000; i++) {
+      Object key = new Key(random.nextInt(500) * 1_000_003, "k" + i);
+      Integer value = random.nextInt(3);
+      if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+        Object keyToRemove = new ArrayList<>(expected.keySet()).get(random.nextInt(expected.size()));
+        expected.remove(keyToRemove);
+        t = t.remove(keyToRemove);
+      } else {
+        expected.put(key, value);
+        t = t.put(key, value);
+      }
+    }
+    Map<Object, Object> actual = new HashMap<>();
+    HashTrie<Object, Object> result = t;
+    result.forEach(actual::put);
+    assertThat(actual).isEqualTo(expected);
+    expected.forEach((k, v) -> assertThat(result.get(k)).isEqualTo(v));
+
+    List<Object> keys = new ArrayList<>(expected.keySet());
+    Collections.shuffle(keys, random);
+    HashTrie<Object, Object> rebuilt = HashTrie.create();
+    for (Object key : keys) {
+      rebuilt = rebuilt.put(key, expected.get(key));
+    }
+    assertThat(rebuilt).isEqualTo(t).hasSameHashCodeAs(t);
+    assertThat(rebuilt.put(keys.get(0), 42)).isNotEqualTo(t);
+  }
+
+  @Test
+  void set() {
+    HashTrie<Object, Object> s = HashTrie.create().add("a").add("b");
+    assertThat(s.contains("a")).isTrue();
+    assertThat(s.contains("c")).isFalse();
+    assertThat(s.add("a")).isSameAs(s);
+    Set<Object> elements = new HashSet<>();
+    s.forEach(elements::add);
+    assertThat(elements).containsOnly("a", "b");
+  }
+
+  @Test
+  void to_string_should_list_entries_in_ascending_order_of_hash_codes() {
+    HashTrie<Object, Object> t = HashTrie.create()
+      .put(new Key(3, "k3"), "v3")
+      .put(new Key(-1, "k-1"), "v-1")
+      .put(new Key(64, "k64"), "v64");
+    assertThat(t).hasToString(" k-1->v-1 k3->v3 k64->v64");
+  }
+
+}
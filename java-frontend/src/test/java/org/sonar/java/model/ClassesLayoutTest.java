@@ -90,7 +90,7 @@ class ClassesLayoutTest {
   @Test
   void type() {
     assertAll(
-      () -> assertThat(instanceSize(JType.class, X86_64)).isEqualTo(48),
+      () -> assertThat(instanceSize(JType.class, X86_64)).isEqualTo(56),
       () -> assertThat(instanceSize(JType.class, X86_64_COOPS)).isEqualTo(32)
     );
   }
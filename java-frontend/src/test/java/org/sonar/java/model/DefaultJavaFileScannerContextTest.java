@@ -20,6 +20,7 @@
 package org.sonar.java.model;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -111,13 +112,23 @@ class DefaultJavaFileScannerContextTest {
   }
 
   @Test
-  void get_file_content() {
-    assertThat(context.getFileContent()).isEqualTo("content");
+  void get_file_content() throws Exception {
+    assertThat(context.getFileContent()).isEqualTo(JAVA_INPUT_FILE.contents());
+  }
+
+  @Test
+  void get_file_lines() throws Exception {
+    assertThat(context.getFileLines()).isEqualTo(Files.readAllLines(JAVA_FILE.toPath()));
   }
 
   @Test
-  void get_file_lines() {
-    assertThat(context.getFileLines()).isEmpty();
+  void get_file_content_of_tree_without_source() {
+    ((JavaTree.CompilationUnitTreeImpl) compilationUnitTree).source = null;
+    context = new DefaultJavaFileScannerContext(compilationUnitTree, JAVA_INPUT_FILE, null, sonarComponents, new JavaVersionImpl(), true);
+    assertThat(context.getFileContent()).isEqualTo("content");
+    List<String> fileLines = context.getFileLines();
+    assertThat(fileLines).containsExactly("content");
+    assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> fileLines.add("other"));
   }
 
   @Test
@@ -345,7 +356,6 @@ class DefaultJavaFileScannerContextTest {
       return null;
     }).when(sonarComponents).addIssue(any(InputComponent.class), any(JavaCheck.class), anyInt(), anyString(), any());
 
-    when(sonarComponents.fileLines(any(InputFile.class))).thenReturn(Collections.emptyList());
     when(sonarComponents.inputFileContents(any(InputFile.class))).thenReturn("content");
     when(sonarComponents.workDir()).thenReturn(WORK_DIR);
     when(sonarComponents.project()).thenReturn(PROJECT_BASE_DIR);
@@ -0,0 +1,54 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExternalTypesSignatureTest {
+
+  @Test
+  void only_external_types_are_part_of_signature() {
+    String signature = signature("class A { java.util.List<String> l; B b; class B { } }");
+    assertThat(signature)
+      .contains("Ljava/util/List")
+      .contains("Ljava/util/Collection")
+      .contains("Ljava/lang/String;")
+      .doesNotContain("LA;")
+      .doesNotContain("LA$B;");
+  }
+
+  @Test
+  void signature_changes_with_external_type_members() {
+    String withoutMethod = signature("class A { void m(Other o) { } } class Other { }");
+    String withMethod = signature("class A { void m(Other o) { } } class Other { void foo() { } }");
+    // Other is declared in the same file, and is not part of the signature
+    assertThat(withoutMethod).isEqualTo(withMethod);
+    assertThat(signature("class A { void m(java.util.List<String> l) { } }"))
+      .isNotEqualTo(signature("class A { void m(java.util.Set<String> l) { } }"));
+  }
+
+  private static String signature(String source) {
+    JavaTree.CompilationUnitTreeImpl cut = (JavaTree.CompilationUnitTreeImpl) JParserTestUtils.parse(source);
+    return ExternalTypesSignature.of(cut.sema);
+  }
+
+}
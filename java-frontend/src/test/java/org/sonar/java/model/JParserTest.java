@@ -21,9 +21,18 @@ package org.sonar.java.model;
 
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
@@ -32,6 +41,7 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -134,6 +144,29 @@ class JParserTest {
     assertSame(s1.type(), s2.type());
   }
 
+  @Test
+  void parse_all_should_resolve_bindings_between_files_of_the_batch(@TempDir Path tempDir) throws Exception {
+    Path a = Files.write(tempDir.resolve("A.java"), "class A { }".getBytes(StandardCharsets.UTF_8));
+    Path b = Files.write(tempDir.resolve("B.java"), "class B extends A { }".getBytes(StandardCharsets.UTF_8));
+    Path c = Files.write(tempDir.resolve("C.java"), "class C".getBytes(StandardCharsets.UTF_8));
+    List<InputFile> inputFiles = Arrays.asList(new GeneratedFile(a), new GeneratedFile(b), new GeneratedFile(c));
+
+    Map<String, CompilationUnitTree> trees = new HashMap<>();
+    List<String> failures = new ArrayList<>();
+    JParser.parseAll("14", Collections.emptyList(), inputFiles, () -> false, (inputFile, parser) -> {
+      try {
+        trees.put(inputFile.filename(), parser.call());
+      } catch (Exception e) {
+        failures.add(inputFile.filename());
+      }
+    });
+
+    assertEquals(Arrays.asList("C.java"), failures);
+    ClassTree classB = (ClassTree) trees.get("B.java").types().get(0);
+    assertEquals("A", classB.symbol().superClass().fullyQualifiedName());
+    assertFalse(classB.symbol().superClass().isUnknown());
+  }
+
   private static void testExpression(String expression) {
     test("class C { Object m() { return " + expression + " ; } }");
   }
@@ -0,0 +1,91 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenTableTest {
+
+  private static final String SOURCE = "class A { // c\r\n int i; }";
+
+  @Test
+  void tokens_and_comments() {
+    TokenTable tokens = TokenTable.lex("14", "A.java", SOURCE);
+    assertThat(tokens.size()).isEqualTo(9);
+    assertThat(tokens.type(0)).isEqualTo(TerminalTokens.TokenNameclass);
+    assertThat(tokens.text(0)).isEqualTo("class");
+    assertThat(tokens.isComment(0)).isFalse();
+
+    // line separator is not part of line comments
+    assertThat(tokens.type(3)).isEqualTo(TerminalTokens.TokenNameCOMMENT_LINE);
+    assertThat(tokens.isComment(3)).isTrue();
+    assertThat(tokens.text(3)).isEqualTo("// c");
+    assertThat(tokens.start(3)).isEqualTo(10);
+    assertThat(tokens.end(3)).isEqualTo(13);
+
+    assertThat(tokens.type(8)).isEqualTo(TerminalTokens.TokenNameEOF);
+    assertThat(tokens.start(8)).isEqualTo(SOURCE.length());
+    assertThat(tokens.source()).isSameAs(SOURCE);
+  }
+
+  @Test
+  void find_index() {
+    TokenTable tokens = TokenTable.lex("14", "A.java", SOURCE);
+    // inside a token
+    assertThat(tokens.findIndex(2, TokenTable.ANY_TOKEN, true)).isZero();
+    assertThat(tokens.findIndex(2, TokenTable.ANY_TOKEN, false)).isZero();
+    // between tokens
+    assertThat(tokens.findIndex(5, TokenTable.ANY_TOKEN, true)).isEqualTo(1);
+    assertThat(tokens.findIndex(5, TokenTable.ANY_TOKEN, false)).isZero();
+    assertThat(tokens.findIndex(15, TokenTable.ANY_TOKEN, true)).isEqualTo(4);
+    assertThat(tokens.findIndex(15, TokenTable.ANY_TOKEN, false)).isEqualTo(3);
+    // with a given type
+    assertThat(tokens.findIndex(0, TerminalTokens.TokenNameSEMICOLON, true)).isEqualTo(6);
+    assertThat(tokens.findIndex(24, TerminalTokens.TokenNameLBRACE, false)).isEqualTo(2);
+    // trailing position
+    assertThat(tokens.findIndex(SOURCE.length() - 1, TokenTable.ANY_TOKEN, true)).isEqualTo(7);
+  }
+
+  @Test
+  void empty_source() {
+    TokenTable tokens = TokenTable.lex("14", "A.java", "");
+    assertThat(tokens.size()).isEqualTo(1);
+    assertThat(tokens.type(0)).isEqualTo(TerminalTokens.TokenNameEOF);
+    assertThat(tokens.capacity()).isEqualTo(1);
+  }
+
+  @Test
+  void arrays_grow_while_lexing_and_are_trimmed() {
+    StringBuilder source = new StringBuilder("class A {");
+    for (int i = 0; i < 1000; i++) {
+      source.append(" int f").append(i).append(';');
+    }
+    source.append('}');
+    TokenTable tokens = TokenTable.lex("14", "A.java", source.toString());
+    assertThat(tokens.size()).isEqualTo(3 + 3 * 1000 + 2);
+    assertThat(tokens.capacity()).isEqualTo(tokens.size());
+    assertThat(tokens.text(3 + 3 * 999 + 1)).isEqualTo("f999");
+    assertThat(tokens.type(tokens.size() - 1)).isEqualTo(TerminalTokens.TokenNameEOF);
+  }
+
+}
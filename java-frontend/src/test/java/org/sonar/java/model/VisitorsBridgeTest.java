@@ -20,6 +20,7 @@
 package org.sonar.java.model;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,8 +34,10 @@ import org.assertj.core.api.Fail;
 import org.junit.Rule;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.migrationsupport.rules.EnableRuleMigrationSupport;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.log.LogTester;
@@ -44,10 +47,12 @@ import org.sonar.java.CheckFailureException;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.TestUtils;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.ast.visitors.SyntaxHighlighterVisitor;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.ProgramState;
 import org.sonar.java.se.SymbolicExecutionMode;
 import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.xproc.ProjectBehaviorCache;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -224,9 +229,29 @@ class VisitorsBridgeTest {
       e.printStackTrace();
       Fail.fail("Exceptions should be swallowed when property is not set");
     }
-    assertThat(logTester.logs(LoggerLevel.ERROR)).hasSize(1);
+    assertThat(logTester.logs(LoggerLevel.ERROR)).hasSize(2);
     assertThat(logTester.logs(LoggerLevel.ERROR).stream().map(VisitorsBridgeTest::ruleKeyFromErrorLog))
-      .containsOnly("IV1_ThrowingNPEVisitingClass - IV1");
+      .containsExactlyInAnyOrder(
+        "IV1_ThrowingNPEVisitingClass - IV1",
+        "IV2_ThrowingNPELeavingClass - IV2");
+  }
+
+  @Test
+  void highlighting_saved_when_a_rule_fails() {
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.fileSystem().add(INPUT_FILE);
+    sonarComponents = new SonarComponents(null, sensorContextTester.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(sensorContextTester);
+    VisitorsBridge visitorsBridge = new VisitorsBridge(
+      Arrays.asList(new IV1_ThrowingNPEVisitingClass(), new SyntaxHighlighterVisitor(sonarComponents)), new ArrayList<>(), sonarComponents);
+    visitorsBridge.setCurrentFile(INPUT_FILE);
+
+    visitorsBridge.visitFile(COMPILATION_UNIT_TREE);
+
+    assertThat(logTester.logs(LoggerLevel.ERROR).stream().map(VisitorsBridgeTest::ruleKeyFromErrorLog))
+      .containsExactly("IV1_ThrowingNPEVisitingClass - IV1");
+    assertThat(sensorContextTester.highlightingTypeAt(INPUT_FILE.key(), 1, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(sensorContextTester.highlightingTypeAt(INPUT_FILE.key(), 3, 4)).containsExactly(TypeOfText.COMMENT);
   }
 
   @Test
@@ -330,6 +355,62 @@ class VisitorsBridgeTest {
     assertThat(logTester.logs(LoggerLevel.ERROR)).isEmpty();
   }
 
+  @Test
+  void behaviors_of_files_replayed_from_cache_are_shared(@TempDir Path cacheDir) {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.CACHE_DIR_KEY, cacheDir.toString())
+      .setProperty(SonarComponents.ANALYSIS_CACHE_KEY, true)
+      .setProperty(SonarComponents.SE_PROJECT_BEHAVIORS_KEY, true);
+    logTester.setLevel(LoggerLevel.DEBUG);
+
+    ProjectBehaviorCache analyzed = analyzeWithCache(settings);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).anyMatch(log -> log.startsWith("Analysis cache: issues of 0 files replayed, checks executed on 1 files"));
+    assertThat(analyzed.get("A#foo()V")).isNotNull();
+
+    logTester.clear();
+    ProjectBehaviorCache replayed = analyzeWithCache(settings);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).anyMatch(log -> log.startsWith("Analysis cache: issues of 1 files replayed, checks executed on 0 files"));
+    assertThat(replayed.size()).isEqualTo(analyzed.size());
+    assertThat(replayed.fingerprint(Collections.singleton("A#foo()V"))).isEqualTo(analyzed.fingerprint(Collections.singleton("A#foo()V")));
+  }
+
+  private ProjectBehaviorCache analyzeWithCache(MapSettings settings) {
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.setSettings(settings);
+    sonarComponents = new SonarComponents(null, sensorContextTester.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(sensorContextTester);
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.emptyList(), new ArrayList<>(), sonarComponents, SymbolicExecutionMode.ENABLED);
+    visitorsBridge.setCurrentFile(INPUT_FILE);
+    visitorsBridge.visitFile(JParserTestUtils.parse(FILE));
+    visitorsBridge.endOfAnalysis();
+    return sonarComponents.projectBehaviorCache();
+  }
+
+  @Test
+  void control_flow_graphs_counted_for_each_analysis() {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    for (int i = 0; i < 2; i++) {
+      VisitorsBridge visitorsBridge = visitorsBridge(Collections.emptyList(), false);
+      visitorsBridge.visitFile(JParserTestUtils.parse(FILE));
+      visitorsBridge.endOfAnalysis();
+    }
+    assertThat(logTester.logs(LoggerLevel.DEBUG).stream().filter(log -> log.startsWith("Control flow graphs")))
+      .containsExactly(
+        "Control flow graphs: 1 method graphs built, 0 builds avoided by reuse",
+        "Control flow graphs: 1 method graphs built, 0 builds avoided by reuse");
+  }
+
+  @Test
+  void symbolic_execution_check_times_logged_for_each_analysis_in_debug() {
+    for (LoggerLevel level : Arrays.asList(LoggerLevel.INFO, LoggerLevel.DEBUG, LoggerLevel.DEBUG)) {
+      logTester.setLevel(level);
+      VisitorsBridge visitorsBridge = visitorsBridge(Collections.emptyList(), false);
+      visitorsBridge.visitFile(JParserTestUtils.parse(FILE));
+      visitorsBridge.endOfAnalysis();
+    }
+    assertThat(logTester.logs(LoggerLevel.DEBUG).stream().filter(log -> log.startsWith("Time spent by symbolic execution checks"))).hasSize(2);
+  }
+
   @Test
   void should_not_create_symbol_table_for_generated() {
     SonarComponents sonarComponents = mock(SonarComponents.class);
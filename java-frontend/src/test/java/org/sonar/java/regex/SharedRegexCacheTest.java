@@ -0,0 +1,142 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.regex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.java.regex.ast.FlagSet;
+import org.sonar.java.regex.ast.Location;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SharedRegexCacheTest {
+
+  @Test
+  void same_pattern_in_other_file_should_be_parsed_once_and_located_in_that_file() {
+    List<LiteralTree> file1 = literals("class A {\n  String s0 = \"a+b\";\n}");
+    List<LiteralTree> file2 = literals("class B {\n\n  String s0 = \"x\", s1 = \"a+b\";\n}");
+    SharedRegexCache sharedCache = new SharedRegexCache(SharedRegexCache.DEFAULT_MAX_SIZE);
+
+    RegexParseResult result1 = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), file1.get(0));
+    assertThat(firstLocation(result1).getJavaTree()).isSameAs(file1.get(0));
+
+    RegexParseResult result2 = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), file2.get(1));
+    assertThat(result2).isSameAs(result1);
+    assertThat(firstLocation(result2).getJavaTree()).isSameAs(file2.get(1));
+
+    assertThat(sharedCache.size()).isEqualTo(1);
+    assertThat(sharedCache.parsed()).isEqualTo(1);
+    assertThat(sharedCache.reused()).isEqualTo(1);
+  }
+
+  @Test
+  void same_pattern_with_other_literals_of_same_file_should_not_be_shared() {
+    List<LiteralTree> file = literals("class A {\n  String s0 = \"abc\", s1 = \"abc\";\n}");
+    SharedRegexCache sharedCache = new SharedRegexCache(SharedRegexCache.DEFAULT_MAX_SIZE);
+    RegexCache cache = new RegexCache(sharedCache);
+
+    RegexParseResult resultForS0 = cache.getRegexForLiterals(new FlagSet(), file.get(0));
+    RegexParseResult resultForS1 = cache.getRegexForLiterals(new FlagSet(), file.get(1));
+
+    assertThat(resultForS0).isNotSameAs(resultForS1);
+    assertThat(firstLocation(resultForS0).getJavaTree()).isSameAs(file.get(0));
+    assertThat(firstLocation(resultForS1).getJavaTree()).isSameAs(file.get(1));
+    assertThat(sharedCache.parsed()).isEqualTo(2);
+  }
+
+  @Test
+  void patterns_should_be_identified_by_literals_and_flags() {
+    List<LiteralTree> file1 = literals("class A {\n  String s0 = \"ab\", s1 = \"a\", s2 = \"b\";\n}");
+    List<LiteralTree> file2 = literals("class B {\n  String s0 = \"ab\", s1 = \"a\", s2 = \"b\";\n}");
+    SharedRegexCache sharedCache = new SharedRegexCache(SharedRegexCache.DEFAULT_MAX_SIZE);
+    RegexCache cache1 = new RegexCache(sharedCache);
+    cache1.getRegexForLiterals(new FlagSet(), file1.get(0));
+    cache1.getRegexForLiterals(new FlagSet(), file1.get(1), file1.get(2));
+
+    RegexCache cache2 = new RegexCache(sharedCache);
+    RegexParseResult concatenation = cache2.getRegexForLiterals(new FlagSet(), file2.get(1), file2.get(2));
+    assertThat(concatenation.getResult().getLocations()).extracting(Location::getJavaTree).containsExactly(file2.get(1), file2.get(2));
+    cache2.getRegexForLiterals(new FlagSet(Pattern.CASE_INSENSITIVE), file2.get(0));
+
+    assertThat(sharedCache.size()).isEqualTo(3);
+    assertThat(sharedCache.reused()).isEqualTo(1);
+  }
+
+  @Test
+  void least_recently_used_patterns_should_be_evicted() {
+    List<LiteralTree> file = literals("class A {\n  String s0 = \"a\", s1 = \"b\", s2 = \"c\";\n}");
+    SharedRegexCache sharedCache = new SharedRegexCache(2);
+    RegexCache cache = new RegexCache(sharedCache);
+    file.forEach(literal -> cache.getRegexForLiterals(new FlagSet(), literal));
+
+    assertThat(sharedCache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void analysis_results_should_be_shared_with_parse_result() {
+    List<LiteralTree> file1 = literals("class A {\n  String s0 = \"a*\";\n}");
+    List<LiteralTree> file2 = literals("class B {\n  String s0 = \"a*\";\n}");
+    SharedRegexCache sharedCache = new SharedRegexCache(SharedRegexCache.DEFAULT_MAX_SIZE);
+    int[] computations = {0};
+
+    for (List<LiteralTree> file : Arrays.asList(file1, file2)) {
+      RegexParseResult result = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), file.get(0));
+      String text = result.analysisResult(SharedRegexCacheTest.class, r -> {
+        computations[0]++;
+        return r.getResult().getText();
+      });
+      assertThat(text).isEqualTo("a*");
+    }
+    assertThat(computations[0]).isEqualTo(1);
+  }
+
+  @Test
+  void source_should_only_be_bound_to_literals_with_same_values() {
+    List<LiteralTree> file = literals("class A {\n  String s0 = \"a\", s1 = \"b\";\n}");
+    RegexParseResult result = new RegexCache().getRegexForLiterals(new FlagSet(), file.get(0));
+    List<LiteralTree> otherLiterals = Collections.singletonList(file.get(1));
+
+    assertThatThrownBy(() -> result.getResult().getSource().bindTo(otherLiterals))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Regex source can only be bound to string literals with the same values");
+  }
+
+  private static Location firstLocation(RegexParseResult result) {
+    return result.getResult().getLocations().get(0);
+  }
+
+  private static List<LiteralTree> literals(String code) {
+    CompilationUnitTree cut = JParserTestUtils.parse(code);
+    return ((ClassTree) cut.types().get(0)).members().stream()
+      .map(member -> (LiteralTree) ((VariableTree) member).initializer())
+      .collect(Collectors.toList());
+  }
+
+}
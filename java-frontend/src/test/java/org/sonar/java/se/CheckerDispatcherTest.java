@@ -26,10 +26,14 @@ import org.sonar.java.se.checks.NullDereferenceCheck;
 import org.sonar.java.se.checks.SECheck;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class CheckerDispatcherTest {
 
@@ -45,6 +49,47 @@ class CheckerDispatcherTest {
     }
   }
 
+  @Test
+  void checks_are_only_executed_on_syntax_nodes_they_visit() {
+    CheckTest allNodes = new CheckTest();
+    CheckTest methodInvocations = new CheckTest(Tree.Kind.METHOD_INVOCATION);
+    CheckerDispatcher checkerDispatcher = new CheckerDispatcher(mockExplodedGraphWalker(), Lists.newArrayList(allNodes, methodInvocations));
+
+    checkerDispatcher.executeCheckPreStatement(mockTree(Tree.Kind.IDENTIFIER));
+    checkerDispatcher.executeCheckPostStatement(mockTree(Tree.Kind.IDENTIFIER));
+    assertThat(allNodes.preStatementExecution).isEqualTo(1);
+    assertThat(allNodes.postStatementExecution).isEqualTo(1);
+    assertThat(methodInvocations.preStatementExecution).isZero();
+    assertThat(methodInvocations.postStatementExecution).isZero();
+
+    checkerDispatcher.executeCheckPreStatement(mockTree(Tree.Kind.METHOD_INVOCATION));
+    checkerDispatcher.executeCheckPostStatement(mockTree(Tree.Kind.METHOD_INVOCATION));
+    assertThat(allNodes.preStatementExecution).isEqualTo(2);
+    assertThat(allNodes.postStatementExecution).isEqualTo(2);
+    assertThat(methodInvocations.preStatementExecution).isEqualTo(1);
+    assertThat(methodInvocations.postStatementExecution).isEqualTo(1);
+  }
+
+  @Test
+  void time_spent_by_checks_is_recorded_on_request() {
+    SECheckTimes checkTimes = new SECheckTimes();
+    CheckerDispatcher checkerDispatcher = new CheckerDispatcher(mockExplodedGraphWalker(), Lists.newArrayList(new CheckTest()));
+    checkerDispatcher.executeCheckPreStatement(mockTree(Tree.Kind.IDENTIFIER));
+    checkerDispatcher.executeCheckEndOfExecution();
+
+    checkerDispatcher.recordCheckTimes(checkTimes);
+    checkerDispatcher.executeCheckPreStatement(mockTree(Tree.Kind.IDENTIFIER));
+    checkerDispatcher.executeCheckPostStatement(mockTree(Tree.Kind.IDENTIFIER));
+    checkerDispatcher.executeCheckEndOfExecution();
+    assertThat(checkTimes.millisByCheck()).containsOnlyKeys(CheckTest.class.getName());
+  }
+
+  private static Tree mockTree(Tree.Kind kind) {
+    Tree tree = mock(Tree.class);
+    when(tree.kind()).thenReturn(kind);
+    return tree;
+  }
+
   private static ExplodedGraphWalker mockExplodedGraphWalker() {
     ExplodedGraphWalker explodedGraphWalker = mock(ExplodedGraphWalker.class);
     explodedGraphWalker.programPosition = new ProgramPoint(new CFG.Block(1));
@@ -54,8 +99,25 @@ class CheckerDispatcherTest {
   }
 
   private static class CheckTest extends SECheck {
+    private final Set<Tree.Kind> syntaxNodesToVisit;
+    int preStatementExecution = 0;
     int postStatementExecution = 0;
 
+    CheckTest(Tree.Kind... syntaxNodesToVisit) {
+      this.syntaxNodesToVisit = syntaxNodesToVisit.length == 0 ? super.syntaxNodesToVisit() : EnumSet.copyOf(Arrays.asList(syntaxNodesToVisit));
+    }
+
+    @Override
+    public Set<Tree.Kind> syntaxNodesToVisit() {
+      return syntaxNodesToVisit;
+    }
+
+    @Override
+    public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
+      preStatementExecution++;
+      return context.getState();
+    }
+
     @Override
     public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
       postStatementExecution++;
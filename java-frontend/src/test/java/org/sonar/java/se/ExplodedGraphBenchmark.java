@@ -0,0 +1,120 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.TestUtils;
+import org.sonar.java.collections.PCollections;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.se.xproc.BehaviorCache;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+/**
+ * Time and allocations of the symbolic execution of a method, averaged over all the methods of the symbolic execution test sources
+ * ({@code src/test/files/se}). Each benchmark operation explores the exploded graph of one method, with a fresh behavior cache: methods
+ * of the same file invoked by the method are explored as well.
+ * <p>
+ * Run from the {@code java-frontend} directory after {@code mvn test-compile}, with the test classpath, by executing the main method:
+ * allocations per method are reported by the GC profiler as {@code gc.alloc.rate.norm}. Each implementation of the persistent
+ * collections backing program states is measured in its own JVM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExplodedGraphBenchmark {
+
+  @Param({"avl", "hamt"})
+  public String pcollections;
+
+  private final List<JavaFileScannerContext> contexts = new ArrayList<>();
+  private final List<MethodTree> methods = new ArrayList<>();
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    // must be set before persistent collections are first used
+    System.setProperty(PCollections.IMPLEMENTATION_PROPERTY, pcollections);
+    File[] files = new File("src/test/files/se").listFiles((dir, name) -> name.endsWith(".java"));
+    for (File file : files) {
+      InputFile inputFile = TestUtils.inputFile(file);
+      JavaTree.CompilationUnitTreeImpl cut = (JavaTree.CompilationUnitTreeImpl) JParserTestUtils.parse(file, SETestUtils.CLASS_PATH);
+      DefaultJavaFileScannerContext context = new DefaultJavaFileScannerContext(cut, inputFile, cut.sema, null, new JavaVersionImpl(8), true);
+      cut.accept(new BaseTreeVisitor() {
+        @Override
+        public void visitMethod(MethodTree tree) {
+          if (tree.block() != null) {
+            contexts.add(context);
+            methods.add(tree);
+          }
+          super.visitMethod(tree);
+        }
+      });
+    }
+  }
+
+  @Benchmark
+  public BehaviorCache exploreMethod() {
+    int index = next;
+    next = (next + 1) % methods.size();
+    BehaviorCache behaviorCache = new BehaviorCache();
+    SymbolicExecutionVisitor sev = new SymbolicExecutionVisitor(Collections.emptyList(), behaviorCache);
+    sev.setContext(contexts.get(index));
+    behaviorCache.setFileContext(sev);
+    sev.execute(methods.get(index));
+    return behaviorCache;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(ExplodedGraphBenchmark.class.getSimpleName())
+      .addProfiler(GCProfiler.class)
+      .build())
+      .run();
+  }
+
+}
@@ -19,6 +19,8 @@
  */
 package org.sonar.java.se;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,6 +56,45 @@ class ExplodedGraphTest {
     assertThat(child.parents()).hasSize(2);
   }
 
+  @Test
+  void test_node_index() {
+    ExplodedGraph eg = new ExplodedGraph();
+    List<ProgramPoint> programPoints = new ArrayList<>();
+    List<ExplodedGraph.Node> nodes = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      ProgramPoint programPoint = mockProgramPoint("pp" + i);
+      programPoints.add(programPoint);
+      ExplodedGraph.Node node = eg.node(programPoint, null);
+      assertThat(node.isNew()).isTrue();
+      nodes.add(node);
+    }
+    assertThat(eg.size()).isEqualTo(1000);
+    assertThat(eg.nodes()).hasSize(1000).containsAll(nodes);
+    for (int i = 0; i < 1000; i++) {
+      ExplodedGraph.Node node = eg.node(programPoints.get(i), null);
+      assertThat(node).isSameAs(nodes.get(i));
+      assertThat(node.isNew()).isFalse();
+    }
+    assertThat(eg.size()).isEqualTo(1000);
+  }
+
+  @Test
+  void test_node_with_many_parents() {
+    ExplodedGraph eg = new ExplodedGraph();
+    ExplodedGraph.Node child = eg.node(mockProgramPoint("child"), null);
+    List<ExplodedGraph.Node> parents = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      ExplodedGraph.Node parent = eg.node(mockProgramPoint("parent" + i), null);
+      parents.add(parent);
+      child.addParent(parent, null);
+      child.addParent(parent, null);
+    }
+    assertThat(child.edges()).hasSize(20).extracting("parent").containsExactlyElementsOf(parents);
+    assertThat(child.parents()).containsExactlyElementsOf(parents);
+    assertThat(child.parent()).isSameAs(parents.get(0));
+    assertThat(child.edges()).allMatch(edge -> edge.yields().isEmpty());
+  }
+
   private ProgramPoint mockProgramPoint(String toString) {
     ProgramPoint mock = mock(ProgramPoint.class);
     when(mock.toString()).thenReturn(toString);
@@ -0,0 +1,119 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.checks.DivisionByZeroCheck;
+import org.sonar.java.se.constraint.BooleanConstraint;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.ObjectConstraint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.java.se.SETestUtils.createSymbolicExecutionVisitor;
+
+class ProjectBehaviorCacheTest {
+
+  private static final String TOP_METHOD = "MethodBehavior#topMethod(Z)Z";
+
+  @Test
+  void behaviors_are_kept_across_files_at_cleanup() {
+    SymbolicExecutionVisitor sev = createSymbolicExecutionVisitor("src/test/resources/se/MethodBehavior.java");
+    ProjectBehaviorCache projectBehaviors = new ProjectBehaviorCache();
+    sev.behaviorCache.setProjectBehaviors(projectBehaviors);
+    MethodBehavior computed = sev.behaviorCache.behaviors.get(TOP_METHOD);
+
+    sev.behaviorCache.cleanup();
+
+    assertThat(sev.behaviorCache.behaviors).isEmpty();
+    assertThat(projectBehaviors.size()).isEqualTo(4);
+    MethodBehavior stored = projectBehaviors.get(TOP_METHOD);
+    assertThat(stored).isNotSameAs(computed);
+    assertThat(stored.isComplete()).isTrue();
+    assertThat(stored.yields()).hasSameSizeAs(computed.yields());
+    // available to other files, through peek and get
+    assertThat(sev.behaviorCache.peek(TOP_METHOD)).isSameAs(stored);
+    assertThat(sev.behaviorCache.get(TOP_METHOD)).isSameAs(stored);
+  }
+
+  @Test
+  void incomplete_behaviors_are_ignored() {
+    ProjectBehaviorCache projectBehaviors = new ProjectBehaviorCache();
+    projectBehaviors.add(new MethodBehavior("A#foo()V", false));
+    assertThat(projectBehaviors.size()).isZero();
+  }
+
+  @Test
+  void least_recently_used_behaviors_are_evicted() {
+    ProjectBehaviorCache projectBehaviors = new ProjectBehaviorCache(2);
+    projectBehaviors.add(completed("A#a()V"));
+    projectBehaviors.add(completed("A#b()V"));
+    assertThat(projectBehaviors.get("A#a()V")).isNotNull();
+    projectBehaviors.add(completed("A#c()V"));
+
+    assertThat(projectBehaviors.size()).isEqualTo(2);
+    assertThat(projectBehaviors.get("A#b()V")).isNull();
+    assertThat(projectBehaviors.get("A#a()V")).isNotNull();
+    assertThat(projectBehaviors.get("A#c()V")).isNotNull();
+  }
+
+  @Test
+  void behaviors_with_constraints_lost_by_conversion_are_ignored() {
+    ProjectBehaviorCache projectBehaviors = new ProjectBehaviorCache();
+    projectBehaviors.add(completed("A#a(I)V", ConstraintsByDomain.empty().put(DivisionByZeroCheck.ZeroConstraint.ZERO), null));
+    projectBehaviors.add(completed("A#b(I)V", null, ConstraintsByDomain.empty().put(DivisionByZeroCheck.ZeroConstraint.NON_ZERO)));
+    assertThat(projectBehaviors.size()).isZero();
+
+    projectBehaviors.add(completed("A#c(I)V", ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL), ConstraintsByDomain.empty().put(BooleanConstraint.TRUE)));
+    assertThat(projectBehaviors.get("A#c(I)V")).isNotNull();
+  }
+
+  @Test
+  void fingerprint_of_known_behaviors() {
+    ProjectBehaviorCache projectBehaviors = new ProjectBehaviorCache();
+    projectBehaviors.add(completed("A#a()V"));
+    assertThat(projectBehaviors.fingerprint(Arrays.asList("A#a()V", "A#unknown()V")))
+      .isEqualTo(projectBehaviors.fingerprint(Collections.singleton("A#a()V")))
+      .isNotEmpty();
+    assertThat(projectBehaviors.fingerprint(Collections.singleton("A#unknown()V"))).isEmpty();
+  }
+
+  private static MethodBehavior completed(String signature, @Nullable ConstraintsByDomain parameterConstraints, @Nullable ConstraintsByDomain resultConstraints) {
+    MethodBehavior methodBehavior = new MethodBehavior(signature, false);
+    HappyPathYield yield = new HappyPathYield(methodBehavior);
+    yield.parametersConstraints.add(parameterConstraints);
+    yield.setResult(-1, resultConstraints);
+    methodBehavior.addYield(yield);
+    methodBehavior.completed();
+    return methodBehavior;
+  }
+
+  private static MethodBehavior completed(String signature) {
+    MethodBehavior methodBehavior = new MethodBehavior(signature, false);
+    HappyPathYield yield = new HappyPathYield(methodBehavior);
+    yield.setResult(-1, null);
+    methodBehavior.addYield(yield);
+    methodBehavior.completed();
+    return methodBehavior;
+  }
+}
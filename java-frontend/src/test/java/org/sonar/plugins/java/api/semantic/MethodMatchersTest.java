@@ -247,6 +247,37 @@ class MethodMatchersTest {
     assertThat(findMatchesOnSymbol(source, MethodMatchers.none())).isEmpty();
   }
 
+  @Test
+  void test_or_indexed_by_name() {
+    String source = "" +
+      /* 01 */ "package pkg;\n" +
+      /* 02 */ "class A { \n" +
+      /* 03 */ "  A(int x) { }\n" +
+      /* 04 */ "  void f(int x) { }\n" +
+      /* 05 */ "  void g(int x) { }\n" +
+      /* 06 */ "  void h(int x) { }\n" +
+      /* 07 */ "  void main() {\n" +
+      /* 08 */ "    new A(1).f(1);\n" +
+      /* 09 */ "    new A(2).g(2);\n" +
+      /* 10 */ "    new A(3).h(3);\n" +
+      /* 11 */ "    unknown(4);\n" +
+      /* 12 */ "  }\n" +
+      /* 13 */ "} \n";
+
+    MethodMatchers f = MethodMatchers.create().ofTypes("pkg.A").names("f").withAnyParameters().build();
+    MethodMatchers fOrG = MethodMatchers.create().ofTypes("pkg.A").names("f", "g").withAnyParameters().build();
+    MethodMatchers h = MethodMatchers.create().ofTypes("pkg.A").name(name -> name.startsWith("h")).withAnyParameters().build();
+    MethodMatchers constructor = MethodMatchers.create().ofTypes("pkg.A").constructor().withAnyParameters().build();
+
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(f, fOrG))).containsExactly(4, 5, 8, 9);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(f, h))).containsExactly(4, 6, 8, 10);
+    assertThat(findMatchesOnSymbol(source, MethodMatchers.or(f, h))).containsExactly(4, 6, 8, 10);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(MethodMatchers.or(constructor, MethodMatchers.none()), MethodMatchers.or(h))))
+      .containsExactly(3, 6, 8, 9, 10, 10);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(f, MethodMatchers.create().ofAnyType().anyName().withAnyParameters().build())))
+      .containsExactly(3, 4, 5, 6, 7, 8, 8, 9, 9, 10, 10);
+  }
+
   @Test
   void test_inheritance() {
     String source = "" +
@@ -33,17 +33,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
 import javax.servlet.jsp.JspFactory;
 import org.apache.jasper.JasperException;
 import org.apache.jasper.JspCompilationContext;
 import org.apache.jasper.compiler.Compiler;
 import org.apache.jasper.compiler.JspRuntimeContext;
-import org.apache.jasper.compiler.SmapStratum;
 import org.apache.jasper.runtime.JspFactoryImpl;
 import org.apache.jasper.servlet.JspCServletContext;
 import org.sonar.api.batch.fs.FilePredicates;
@@ -53,6 +58,7 @@ import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.scanner.ScannerSide;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.SonarComponents;
 import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.SmapFile;
 
@@ -61,6 +67,9 @@ public class Jasper {
 
   private static final Logger LOG = Loggers.get(Jasper.class);
 
+  public static final String THREADS_KEY = "sonar.java.internal.jsp.threads";
+  public static final String CACHE_KEY = "sonar.java.internal.jsp.cache";
+
   public Collection<GeneratedFile> generateFiles(SensorContext sensorContext, List<File> javaClasspath) {
     List<InputFile> jspFiles = jspFiles(sensorContext.fileSystem());
     LOG.debug("Found {} JSP files.", jspFiles.size());
@@ -82,26 +91,47 @@ public class Jasper {
       JspCServletContext servletContext = new ServletContext(uriRoot.toUri().toURL(), classLoader);
       JasperOptions options = getJasperOptions(outputDir, servletContext);
       JspRuntimeContext runtimeContext = new JspRuntimeContext(servletContext, options);
+      JspTranspilationCache cache = sensorContext.config().getBoolean(CACHE_KEY).orElse(false)
+        ? new JspTranspilationCache(SonarComponents.cacheDir(sensorContext).toPath().resolve("jsp"), outputDir, uriRoot, javaClasspath)
+        : null;
 
-      boolean errorTranspiling = false;
       Map<Path, GeneratedFile> generatedJavaFiles = new HashMap<>();
+      List<JspTranspilationCache.Smap> smaps = new ArrayList<>();
+      List<InputFile> jspFilesToTranspile = new ArrayList<>();
       for (InputFile jsp : jspFiles) {
-        try {
-          Path generatedFile = transpileJsp(jsp.path(), uriRoot, classLoader, servletContext, options, runtimeContext);
-          generatedJavaFiles.put(generatedFile, new GeneratedFile(generatedFile));
-        } catch (Exception | LinkageError e) {
-          errorTranspiling = true;
-          StringWriter w = new StringWriter();
-          e.printStackTrace(new PrintWriter(w));
-          LOG.debug("Error transpiling {}. Error:\n{}", jsp, w.toString());
+        JspTranspilationCache.Entry cached = cache == null ? null : cache.get(jsp);
+        if (cached == null) {
+          jspFilesToTranspile.add(jsp);
+        } else {
+          generatedJavaFiles.put(cached.generatedFile(), new GeneratedFile(cached.generatedFile()));
+          smaps.addAll(cached.smaps());
         }
       }
-      if (errorTranspiling) {
-        LOG.warn("Some JSP pages failed to transpile. Enable debug log for details.");
+      if (cache != null) {
+        LOG.debug("{} JSP files to transpile, {} unchanged since previous analysis.", jspFilesToTranspile.size(), jspFiles.size() - jspFilesToTranspile.size());
+      }
+      int threads = Math.max(1, sensorContext.config().getInt(THREADS_KEY).orElse(1));
+      Map<InputFile, Path> transpiledFiles = transpileAll(jspFilesToTranspile, threads, classLoader,
+        jsp -> transpileJsp(jsp.path(), uriRoot, classLoader, servletContext, options, runtimeContext));
+      transpiledFiles.values().forEach(generatedFile -> generatedJavaFiles.put(generatedFile, new GeneratedFile(generatedFile)));
+
+      runtimeContext.getSmaps().values().forEach(smap -> smaps.add(new JspTranspilationCache.Smap(smap.getClassFileName(), smap.getSmapString())));
+      Map<Path, List<JspTranspilationCache.Smap>> smapsByGeneratedFile = new HashMap<>();
+      for (JspTranspilationCache.Smap smap : smaps) {
+        Path generatedFile = processSourceMap(uriRoot, generatedJavaFiles, smap, sensorContext.fileSystem());
+        if (generatedFile != null) {
+          smapsByGeneratedFile.computeIfAbsent(generatedFile, k -> new ArrayList<>()).add(smap);
+        }
+      }
+      if (cache != null) {
+        transpiledFiles.forEach((jsp, generatedFile) -> cache.put(jsp, generatedFile, smapsByGeneratedFile.getOrDefault(generatedFile, Collections.emptyList())));
+        cache.save();
       }
-      runtimeContext.getSmaps().values().forEach(smap ->
-        processSourceMap(uriRoot, generatedJavaFiles, smap, sensorContext.fileSystem()));
       return generatedJavaFiles.values();
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted while transpiling JSP files.");
+      Thread.currentThread().interrupt();
+      return Collections.emptyList();
     } catch (Exception e) {
       LOG.warn("Failed to transpile JSP files.", e);
       return Collections.emptyList();
@@ -110,13 +140,77 @@ public class Jasper {
     }
   }
 
-  private static void processSourceMap(Path uriRoot, Map<Path, GeneratedFile> generatedJavaFiles, SmapStratum smap, FileSystem fileSystem) {
-    Path smapRoot = Paths.get(smap.getClassFileName()).getParent();
-    SmapFile smapFile = new SmapFile(smapRoot, smap.getSmapString(), uriRoot, fileSystem);
+  /**
+   * Transpiles the JSP files in the current thread, or in a pool of the given number of threads. The JSP files are compiled in
+   * their own {@link JspCompilationContext} in both cases, sharing the runtime context and the class loader as Jasper does when
+   * running in a servlet container.
+   *
+   * @return the generated servlet sources of the JSP files which could be transpiled
+   */
+  private static Map<InputFile, Path> transpileAll(List<InputFile> jspFiles, int threads, ClassLoader classLoader, JspTranspiler transpiler)
+    throws InterruptedException, ExecutionException {
+    List<Path> generatedFiles = new ArrayList<>(jspFiles.size());
+    if (threads == 1 || jspFiles.size() <= 1) {
+      for (InputFile jsp : jspFiles) {
+        generatedFiles.add(transpileOrLog(jsp, transpiler));
+      }
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+        Thread thread = new Thread(runnable, "sonar-java-jsp-transpiler");
+        thread.setDaemon(true);
+        thread.setContextClassLoader(classLoader);
+        return thread;
+      });
+      try {
+        List<Future<Path>> futures = new ArrayList<>(jspFiles.size());
+        for (InputFile jsp : jspFiles) {
+          futures.add(executor.submit(() -> transpileOrLog(jsp, transpiler)));
+        }
+        for (Future<Path> future : futures) {
+          generatedFiles.add(future.get());
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    Map<InputFile, Path> result = new LinkedHashMap<>();
+    for (int i = 0; i < jspFiles.size(); i++) {
+      if (generatedFiles.get(i) != null) {
+        result.put(jspFiles.get(i), generatedFiles.get(i));
+      }
+    }
+    if (result.size() < jspFiles.size()) {
+      LOG.warn("Some JSP pages failed to transpile. Enable debug log for details.");
+    }
+    return result;
+  }
+
+  @CheckForNull
+  private static Path transpileOrLog(InputFile jsp, JspTranspiler transpiler) {
+    try {
+      return transpiler.transpile(jsp);
+    } catch (Exception | LinkageError e) {
+      StringWriter w = new StringWriter();
+      e.printStackTrace(new PrintWriter(w));
+      LOG.debug("Error transpiling {}. Error:\n{}", jsp, w.toString());
+      return null;
+    }
+  }
+
+  /**
+   * @return the generated file the source map applies to, or null if it is not one of the generated files
+   */
+  @CheckForNull
+  private static Path processSourceMap(Path uriRoot, Map<Path, GeneratedFile> generatedJavaFiles, JspTranspilationCache.Smap smap,
+    FileSystem fileSystem) {
+    Path smapRoot = Paths.get(smap.classFileName()).getParent();
+    SmapFile smapFile = new SmapFile(smapRoot, smap.content(), uriRoot, fileSystem);
     GeneratedFile generatedFile = generatedJavaFiles.get(smapFile.getGeneratedFile());
-    if (generatedFile != null) {
-      generatedFile.addSmap(smapFile);
+    if (generatedFile == null) {
+      return null;
     }
+    generatedFile.addSmap(smapFile);
+    return smapFile.getGeneratedFile();
   }
 
   private static Path transpileJsp(Path jsp, Path uriRoot, ClassLoader classLoader, JspCServletContext servletContext,
@@ -132,6 +226,11 @@ public class Jasper {
     return Paths.get(compilationContext.getServletJavaFileName());
   }
 
+  @FunctionalInterface
+  private interface JspTranspiler {
+    Path transpile(InputFile jsp) throws Exception;
+  }
+
   JasperOptions getJasperOptions(Path outputDir, JspCServletContext servletContext) {
     return new JasperOptions(servletContext, outputDir);
   }
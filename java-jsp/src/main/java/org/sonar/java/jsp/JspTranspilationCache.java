@@ -0,0 +1,264 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2020 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.jsp;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.AnalysisResultCache;
+
+/**
+ * Servlet sources generated from JSP files by a previous analysis, with their source maps.
+ * <p>
+ * An entry is identified by the content of the JSP, the content of the files it depends on (included files, tag files and TLDs, as
+ * recorded by Jasper in the generated servlet), the classpath and the deployment descriptor: transpilation of a JSP is skipped when
+ * its key did not change. Entries which are not used during an analysis are dropped when the cache is saved.
+ * <p>
+ * The output directory is located in the working directory, which is cleaned at the start of every analysis: a copy of each servlet
+ * source is kept in the cache directory, and restored in the output directory when the entry is used.
+ */
+class JspTranspilationCache {
+
+  private static final Logger LOG = Loggers.get(JspTranspilationCache.class);
+
+  private static final String CACHE_FILE_NAME = "sonar-java-jsp-cache.json";
+  private static final String SOURCES_DIR_NAME = "sources";
+  private static final Type ENTRIES_TYPE = new TypeToken<Map<String, Entry>>() {}.getType();
+  private static final Pattern DEPENDANT = Pattern.compile("_jspx_dependants\\.put\\(\"([^\"]+)\"");
+
+  private final Gson gson = new Gson();
+  private final Path cacheFile;
+  private final Path sourcesDir;
+  private final Path outputDir;
+  private final Path uriRoot;
+  private final String configurationFingerprint;
+  private final Map<String, Entry> previousEntries;
+  private final Map<String, Entry> currentEntries = new HashMap<>();
+
+  /**
+   * @param cacheDir where the cache and the copies of the servlet sources are persisted
+   * @param outputDir where the servlet sources are generated
+   */
+  JspTranspilationCache(Path cacheDir, Path outputDir, Path uriRoot, List<File> classpath) {
+    this.cacheFile = cacheDir.resolve(CACHE_FILE_NAME);
+    this.sourcesDir = cacheDir.resolve(SOURCES_DIR_NAME);
+    this.outputDir = outputDir;
+    this.uriRoot = uriRoot;
+    this.configurationFingerprint = configurationFingerprint(uriRoot, classpath);
+    this.previousEntries = load();
+  }
+
+  private static String configurationFingerprint(Path uriRoot, List<File> classpath) {
+    List<String> parts = new ArrayList<>();
+    parts.add(pluginJar());
+    // dependencies of the JSP files located in jars are identified by the jars
+    classpath.forEach(file -> parts.add(file.getAbsolutePath() + ":" + file.lastModified() + ":" + file.length()));
+    parts.add(contentOf(uriRoot.resolve("WEB-INF/web.xml")));
+    return AnalysisResultCache.hash(parts.toArray(new String[0]));
+  }
+
+  /**
+   * The servlet generated from a JSP file also depends on the version of Jasper embedded in the plugin
+   */
+  private static String pluginJar() {
+    try {
+      File jar = new File(Jasper.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+      return jar.getAbsolutePath() + ":" + jar.lastModified() + ":" + jar.length();
+    } catch (Exception e) {
+      return "";
+    }
+  }
+
+  private Map<String, Entry> load() {
+    if (!Files.isRegularFile(cacheFile)) {
+      return Collections.emptyMap();
+    }
+    try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+      Map<String, Entry> entries = gson.fromJson(reader, ENTRIES_TYPE);
+      return entries == null ? Collections.emptyMap() : entries;
+    } catch (Exception e) {
+      LOG.warn("Unable to load JSP cache '{}', all JSP files will be transpiled.", cacheFile);
+      LOG.debug("Unable to load JSP cache", e);
+      return Collections.emptyMap();
+    }
+  }
+
+  /**
+   * @return the entry of the JSP, or null if it has to be transpiled
+   */
+  @CheckForNull
+  Entry get(InputFile jsp) {
+    Entry entry = previousEntries.get(jsp.absolutePath());
+    if (entry == null || !Files.isRegularFile(sourcesDir.resolve(entry.generatedFile))) {
+      return null;
+    }
+    try {
+      if (!entry.key.equals(key(jsp, entry.dependants))) {
+        return null;
+      }
+      Path generatedFile = outputDir.resolve(entry.generatedFile);
+      Files.createDirectories(generatedFile.getParent());
+      Files.copy(sourcesDir.resolve(entry.generatedFile), generatedFile, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      LOG.debug("Unable to restore servlet generated from {}", jsp, e);
+      return null;
+    }
+    currentEntries.put(jsp.absolutePath(), entry);
+    return new Entry(entry.key, outputDir.resolve(entry.generatedFile).toString(), entry.dependants, entry.smaps);
+  }
+
+  void put(InputFile jsp, Path generatedFile, List<Smap> smaps) {
+    try {
+      String servletSource = new String(Files.readAllBytes(generatedFile), StandardCharsets.UTF_8);
+      List<String> dependants = new ArrayList<>();
+      Matcher matcher = DEPENDANT.matcher(servletSource);
+      while (matcher.find()) {
+        dependants.add(matcher.group(1));
+      }
+      String relativePath = outputDir.relativize(generatedFile).toString();
+      Path copy = sourcesDir.resolve(relativePath);
+      Files.createDirectories(copy.getParent());
+      Files.copy(generatedFile, copy, StandardCopyOption.REPLACE_EXISTING);
+      currentEntries.put(jsp.absolutePath(), new Entry(key(jsp, dependants), relativePath, dependants, smaps));
+    } catch (IOException e) {
+      LOG.debug("Unable to cache servlet generated from {}", jsp, e);
+    }
+  }
+
+  void save() {
+    try {
+      Files.createDirectories(cacheFile.getParent());
+      try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+        gson.toJson(currentEntries, ENTRIES_TYPE, writer);
+      }
+      deleteUnusedSources();
+    } catch (IOException e) {
+      LOG.warn("Unable to save JSP cache '{}'.", cacheFile);
+      LOG.debug("Unable to save JSP cache", e);
+    }
+  }
+
+  private void deleteUnusedSources() throws IOException {
+    if (!Files.isDirectory(sourcesDir)) {
+      return;
+    }
+    Set<Path> usedSources = currentEntries.values().stream()
+      .map(entry -> sourcesDir.resolve(entry.generatedFile))
+      .collect(Collectors.toSet());
+    List<Path> unusedSources;
+    try (Stream<Path> files = Files.walk(sourcesDir)) {
+      unusedSources = files.filter(Files::isRegularFile).filter(file -> !usedSources.contains(file)).collect(Collectors.toList());
+    }
+    for (Path unusedSource : unusedSources) {
+      Files.delete(unusedSource);
+    }
+  }
+
+  private String key(InputFile jsp, List<String> dependants) throws IOException {
+    List<String> parts = new ArrayList<>();
+    parts.add(configurationFingerprint);
+    parts.add(jsp.contents());
+    for (String dependant : dependants) {
+      parts.add(dependant);
+      if (dependant.startsWith("/")) {
+        parts.add(contentOf(uriRoot.resolve(dependant.substring(1))));
+      }
+    }
+    return AnalysisResultCache.hash(parts.toArray(new String[0]));
+  }
+
+  private static String contentOf(Path path) {
+    try {
+      return Files.isRegularFile(path) ? new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1) : "";
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  static class Entry {
+    private final String key;
+    /**
+     * Path of the servlet source, relative to the output directory when persisted
+     */
+    private final String generatedFile;
+    private final List<String> dependants;
+    private final List<Smap> smaps;
+
+    Entry(String key, String generatedFile, List<String> dependants, List<Smap> smaps) {
+      this.key = key;
+      this.generatedFile = generatedFile;
+      this.dependants = dependants;
+      this.smaps = smaps;
+    }
+
+    Path generatedFile() {
+      return Paths.get(generatedFile);
+    }
+
+    List<Smap> smaps() {
+      return smaps;
+    }
+  }
+
+  /**
+   * Source map of a generated class, as produced by Jasper
+   */
+  static class Smap {
+    private final String classFileName;
+    private final String content;
+
+    Smap(String classFileName, String content) {
+      this.classFileName = classFileName;
+      this.content = content;
+    }
+
+    String classFileName() {
+      return classFileName;
+    }
+
+    String content() {
+      return content;
+    }
+  }
+
+}
@@ -44,6 +44,7 @@ import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.java.SonarComponents;
 import org.sonar.java.model.GeneratedFile;
 
 import static java.util.Arrays.asList;
@@ -264,6 +265,69 @@ class JasperTest {
 
   }
 
+  @Test
+  void test_parallel_transpilation() throws Exception {
+    SensorContextTester ctx = jspContext(JSP_SOURCE);
+    for (int i = 0; i < 10; i++) {
+      addJspFile(ctx, "<h2>Page " + i + "</h2>", webInf.resolve("jsp/page" + i + ".jsp"));
+    }
+    ctx.settings().setProperty(Jasper.THREADS_KEY, 4);
+    Map<String, GeneratedFile> generatedFiles = new Jasper().generateFiles(ctx, emptyList())
+      .stream().collect(Collectors.toMap(GeneratedFile::filename, f -> f));
+
+    assertThat(generatedFiles).hasSize(11).containsKeys("test_jsp.java", "page0_jsp.java", "page9_jsp.java");
+    assertThat(Files.readAllLines(generatedFiles.get("page7_jsp.java").path())).contains("      out.write(\"<h2>Page 7</h2>\");");
+  }
+
+  @Test
+  void test_cache_of_generated_files() throws Exception {
+    Path header = createJspFile("<h1>Header</h1>", webInf.resolve("jsp/header.jspf"));
+    SensorContextTester ctx = jspContext("<%@ include file=\"/WEB-INF/jsp/header.jspf\" %>" + JSP_SOURCE);
+    addJspFile(ctx, JSP_SOURCE, webInf.resolve("jsp/other.jsp"));
+    ctx.settings().setProperty(Jasper.CACHE_KEY, true);
+    ctx.settings().setProperty(SonarComponents.CACHE_DIR_KEY, tempFolder.resolve("cache").toString());
+
+    Collection<GeneratedFile> generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+    assertThat(generatedFiles).hasSize(2);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("2 JSP files to transpile, 0 unchanged since previous analysis.");
+
+    logTester.clear();
+    generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+    assertThat(generatedFiles).hasSize(2);
+    assertThat(logTester.logs(LoggerLevel.DEBUG))
+      .contains("0 JSP files to transpile, 2 unchanged since previous analysis.")
+      .noneMatch(line -> line.startsWith("Transpiling JSP"));
+
+    // included file changed
+    Files.write(header, "<h1>New header</h1>".getBytes(StandardCharsets.UTF_8));
+    logTester.clear();
+    generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+    assertThat(generatedFiles).hasSize(2);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("1 JSP files to transpile, 1 unchanged since previous analysis.");
+    GeneratedFile testJsp = generatedFiles.stream().filter(f -> "test_jsp.java".equals(f.filename())).findFirst().get();
+    assertThat(Files.readAllLines(testJsp.path())).anyMatch(line -> line.contains("New header"));
+  }
+
+  @Test
+  void test_cache_of_generated_files_when_work_dir_is_cleaned() throws Exception {
+    SensorContextTester ctx = jspContext(JSP_SOURCE);
+    ctx.settings().setProperty(Jasper.CACHE_KEY, true);
+    ctx.settings().setProperty(SonarComponents.CACHE_DIR_KEY, tempFolder.resolve("cache").toString());
+    GeneratedFile generatedFile = new Jasper().generateFiles(ctx, emptyList()).iterator().next();
+    List<String> servletSource = Files.readAllLines(generatedFile.path());
+
+    // the scanner cleans the working directory at the start of each analysis
+    FileUtils.deleteDirectory(workDir.toFile());
+    logTester.clear();
+    Collection<GeneratedFile> generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("0 JSP files to transpile, 1 unchanged since previous analysis.");
+    assertThat(generatedFiles).hasSize(1);
+    GeneratedFile restoredFile = generatedFiles.iterator().next();
+    assertThat(restoredFile.path()).isEqualTo(generatedFile.path());
+    assertThat(Files.readAllLines(restoredFile.path())).isEqualTo(servletSource);
+  }
+
   private SensorContextTester jspContext(String jspSource) throws IOException {
     return jspContext(jspSource, webInf.resolve("jsp/test.jsp"));
   }
@@ -280,6 +344,14 @@ class JasperTest {
     return ctx;
   }
 
+  private void addJspFile(SensorContextTester ctx, String jspSource, Path path) throws IOException {
+    createJspFile(jspSource, path);
+    ctx.fileSystem().add(TestInputFileBuilder.create("", tempFolder.toFile(), path.toFile())
+      .setLanguage("jsp")
+      .setContents(jspSource)
+      .build());
+  }
+
   private Path createJspFile(String content, Path path) throws IOException {
     Files.createDirectories(path.getParent());
     Files.write(path, content.getBytes(StandardCharsets.UTF_8));
@@ -21,11 +21,19 @@ package org.sonar.plugins.surefire;
 
 import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.xml.stream.XMLStreamException;
@@ -49,6 +57,11 @@ import org.sonar.plugins.surefire.data.UnitTestIndex;
 public class SurefireJavaParser {
 
   private static final Logger LOGGER = Loggers.get(SurefireJavaParser.class);
+
+  public static final String THREADS_KEY = "sonar.java.internal.surefire.threads";
+
+  private static final int SHARDS_PER_THREAD = 4;
+
   private final JavaResourceLocator javaResourceLocator;
 
   public SurefireJavaParser(JavaResourceLocator javaResourceLocator) {
@@ -56,17 +69,28 @@ public class SurefireJavaParser {
   }
 
   public void collect(SensorContext context, List<File> reportsDirs, boolean reportDirSetByUser) {
-    List<File> xmlFiles = getReports(reportsDirs, reportDirSetByUser);
-    if (!xmlFiles.isEmpty()) {
-      parseFiles(context, xmlFiles);
+    collect(context, reportsDirs, reportDirSetByUser, 1);
+  }
+
+  /**
+   * @param threads number of threads parsing the reports, reports are parsed in the current thread when it is 1
+   */
+  public void collect(SensorContext context, List<File> reportsDirs, boolean reportDirSetByUser, int threads) {
+    Map<File, File[]> reportsByDir = getReports(reportsDirs, reportDirSetByUser);
+    if (!reportsByDir.isEmpty()) {
+      parseFiles(context, reportsByDir, Math.max(1, threads));
     }
   }
 
-  private static List<File> getReports(List<File> dirs, boolean reportDirSetByUser) {
-    return dirs.stream()
-      .map(dir -> getReports(dir, reportDirSetByUser))
-      .flatMap(Arrays::stream)
-      .collect(Collectors.toList());
+  private static Map<File, File[]> getReports(List<File> dirs, boolean reportDirSetByUser) {
+    Map<File, File[]> reportsByDir = new LinkedHashMap<>();
+    for (File dir : dirs) {
+      File[] reports = getReports(dir, reportDirSetByUser);
+      if (reports.length > 0) {
+        reportsByDir.put(dir, reports);
+      }
+    }
+    return reportsByDir;
   }
 
   private static File[] getReports(File dir, boolean reportDirSetByUser) {
@@ -91,21 +115,88 @@ public class SurefireJavaParser {
     return dir.listFiles((parentDir, name) -> name.startsWith(fileNameStart) && name.endsWith(".xml"));
   }
 
-  private void parseFiles(SensorContext context, List<File> reports) {
-    UnitTestIndex index = new UnitTestIndex();
-    parseFiles(reports, index);
+  private void parseFiles(SensorContext context, Map<File, File[]> reportsByDir, int threads) {
+    List<File> reports = reportsByDir.values().stream()
+      .flatMap(Arrays::stream)
+      .collect(Collectors.toList());
+    long[] parseTimes = new long[reports.size()];
+    UnitTestIndex index;
+    if (threads == 1 || reports.size() == 1) {
+      index = parseFiles(reports, 0, reports.size(), parseTimes);
+    } else {
+      index = parseFilesInParallel(reports, threads, parseTimes);
+    }
+    logParseTimes(reportsByDir, parseTimes);
     sanitize(index);
     save(index, context);
   }
 
-  private static void parseFiles(List<File> reports, UnitTestIndex index) {
+  private static UnitTestIndex parseFiles(List<File> reports, int from, int to, long[] parseTimes) {
+    UnitTestIndex index = new UnitTestIndex();
     StaxParser parser = new StaxParser(index);
-    for (File report : reports) {
+    for (int i = from; i < to; i++) {
+      File report = reports.get(i);
+      long start = System.nanoTime();
       try {
         parser.parse(report);
       } catch (XMLStreamException e) {
         throw new AnalysisException("Fail to parse the Surefire report: " + report, e);
       }
+      parseTimes[i] = System.nanoTime() - start;
+    }
+    return index;
+  }
+
+  /**
+   * Reports are split in contiguous shards, each one parsed into its own index by a thread of the pool. Shards are merged in order,
+   * so the results of a class are indexed in the same order as when parsing all the reports in the current thread.
+   */
+  private static UnitTestIndex parseFilesInParallel(List<File> reports, int threads, long[] parseTimes) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "sonar-java-surefire-parser");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      // more shards than threads, to balance reports of different sizes
+      int shardSize = Math.max(1, reports.size() / (SHARDS_PER_THREAD * threads));
+      List<Future<UnitTestIndex>> shards = new ArrayList<>();
+      for (int from = 0; from < reports.size(); from += shardSize) {
+        int shardFrom = from;
+        int shardTo = Math.min(reports.size(), from + shardSize);
+        shards.add(executor.submit(() -> parseFiles(reports, shardFrom, shardTo, parseTimes)));
+      }
+      UnitTestIndex index = new UnitTestIndex();
+      for (Future<UnitTestIndex> shard : shards) {
+        index.merge(shard.get());
+      }
+      return index;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Interrupted while parsing the Surefire reports", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof AnalysisException) {
+        throw (AnalysisException) e.getCause();
+      }
+      throw new AnalysisException("Fail to parse the Surefire reports", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Parse time of a directory is the sum of the parse times of its reports, even when they are parsed by several threads.
+   */
+  private static void logParseTimes(Map<File, File[]> reportsByDir, long[] parseTimes) {
+    int reportIndex = 0;
+    for (Map.Entry<File, File[]> entry : reportsByDir.entrySet()) {
+      long parseTime = 0L;
+      for (int i = 0; i < entry.getValue().length; i++) {
+        parseTime += parseTimes[reportIndex];
+        reportIndex++;
+      }
+      LOGGER.info("Parsed {} Surefire report(s) of {} in {} ms", entry.getValue().length, entry.getKey().getAbsolutePath(),
+        TimeUnit.NANOSECONDS.toMillis(parseTime));
     }
   }
 
@@ -136,8 +227,10 @@ public class SurefireJavaParser {
 
   private Map<InputFile, UnitTestClassReport> mapToInputFile(Map<String, UnitTestClassReport> indexByClassname) {
     Map<InputFile, UnitTestClassReport> result = new HashMap<>();
+    // test suite class names used as fallback are shared by many results: each class name is only looked up once
+    Map<String, Optional<InputFile>> inputFilesByClassName = new HashMap<>();
     indexByClassname.forEach((className, index) -> {
-      InputFile resource = getUnitTestResource(className, index);
+      InputFile resource = getUnitTestResource(className, index, inputFilesByClassName);
       if (resource != null) {
         UnitTestClassReport report = result.computeIfAbsent(resource, r -> new UnitTestClassReport());
         // in case of repeated/parameterized tests (JUnit 5.x) we may end up with tests having the same name
@@ -159,13 +252,13 @@ public class SurefireJavaParser {
   }
 
   @CheckForNull
-  private InputFile getUnitTestResource(String className, UnitTestClassReport unitTestClassReport) {
-    InputFile resource = javaResourceLocator.findResourceByClassName(className);
+  private InputFile getUnitTestResource(String className, UnitTestClassReport unitTestClassReport, Map<String, Optional<InputFile>> inputFilesByClassName) {
+    InputFile resource = findResourceByClassName(className, inputFilesByClassName);
     if (resource == null) {
       // fall back on testSuite class name (repeated and parameterized tests from JUnit 5.0 are using test name as classname)
       // Should be fixed with JUnit 5.1, see: https://github.com/junit-team/junit5/issues/1182
       return unitTestClassReport.getResults().stream()
-        .map(r -> javaResourceLocator.findResourceByClassName(r.getTestSuiteClassName()))
+        .map(r -> findResourceByClassName(r.getTestSuiteClassName(), inputFilesByClassName))
         .filter(Objects::nonNull)
         .findFirst()
         .orElse(null);
@@ -173,6 +266,11 @@ public class SurefireJavaParser {
     return resource;
   }
 
+  @CheckForNull
+  private InputFile findResourceByClassName(String className, Map<String, Optional<InputFile>> inputFilesByClassName) {
+    return inputFilesByClassName.computeIfAbsent(className, name -> Optional.ofNullable(javaResourceLocator.findResourceByClassName(name))).orElse(null);
+  }
+
   private static <T extends Serializable> void saveMeasure(SensorContext context, InputFile inputFile, Metric<T> metric, T value) {
     context.<T>newMeasure().forMetric(metric).on(inputFile).withValue(value).save();
   }
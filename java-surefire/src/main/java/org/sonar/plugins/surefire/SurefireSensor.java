@@ -62,7 +62,8 @@ public class SurefireSensor implements Sensor {
 
   protected void collect(SensorContext context, List<File> reportsDirs) {
     LOGGER.info("parsing {}", reportsDirs);
-    surefireJavaParser.collect(context, reportsDirs, settings.hasKey(SurefireUtils.SUREFIRE_REPORT_PATHS_PROPERTY));
+    surefireJavaParser.collect(context, reportsDirs, settings.hasKey(SurefireUtils.SUREFIRE_REPORT_PATHS_PROPERTY),
+      settings.getInt(SurefireJavaParser.THREADS_KEY).orElse(1));
   }
 
   @Override
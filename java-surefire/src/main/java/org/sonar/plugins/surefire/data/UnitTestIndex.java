@@ -67,6 +67,13 @@ public class UnitTestIndex {
     return null;
   }
 
+  /**
+   * Adds the results of another index, built from other reports. Results of a class are added after the ones already indexed.
+   */
+  public void merge(UnitTestIndex other) {
+    other.indexByClassname.forEach((classname, report) -> indexByClassname.merge(classname, report, UnitTestClassReport::add));
+  }
+
   public void remove(String classname) {
     indexByClassname.remove(classname);
   }
@@ -148,6 +148,24 @@ class SurefireJavaParserTest {
     assertThat(context.measure(":com.example.project.CalculatorTests", CoreMetrics.TESTS).value()).isEqualTo(6);
   }
 
+  @Test
+  void should_parse_reports_in_parallel() throws URISyntaxException {
+    SensorContextTester context = mockContext();
+    parser.collect(context, getDirs("multipleDirectories/dir1", "multipleDirectories/dir2", "innerClassExtraFile"), true, 2);
+    assertThat(context.measures(":ch.hortis.sonar.mvn.mc.MetricsCollectorRegistryTest")).hasSize(5);
+    assertThat(context.measures(":ch.hortis.sonar.mvn.mc.CloverCollectorTest")).hasSize(5);
+    assertThat(context.measures(":ch.hortis.sonar.mvn.mc.CheckstyleCollectorTest")).hasSize(5);
+    assertThat(context.measures(":ch.hortis.sonar.mvn.SonarMojoTest")).hasSize(5);
+    assertThat(context.measures(":ch.hortis.sonar.mvn.mc.JDependsCollectorTest")).hasSize(5);
+    assertThat(context.measures(":ch.hortis.sonar.mvn.mc.JavaNCSSCollectorTest")).hasSize(5);
+    assertThat(context.measure(":com.example.project.CalculatorTests", CoreMetrics.TESTS).value()).isEqualTo(6);
+    assertThat(logTester.logs(LoggerLevel.INFO))
+      .hasSize(3)
+      .anySatisfy(log -> assertThat(log).matches("Parsed 4 Surefire report\\(s\\) of .*dir1 in \\d+ ms"))
+      .anySatisfy(log -> assertThat(log).matches("Parsed 2 Surefire report\\(s\\) of .*dir2 in \\d+ ms"))
+      .anySatisfy(log -> assertThat(log).matches("Parsed 3 Surefire report\\(s\\) of .*innerClassExtraFile in \\d+ ms"));
+  }
+
   @Test
   void should_not_count_negative_tests() throws URISyntaxException {
     SensorContextTester context = mockContext();
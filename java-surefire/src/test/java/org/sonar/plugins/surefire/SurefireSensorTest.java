@@ -40,6 +40,7 @@ import org.sonar.plugins.surefire.api.SurefireUtils;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class SurefireSensorTest {
@@ -82,6 +83,17 @@ class SurefireSensorTest {
     surefireSensor.execute(mock(SensorContext.class));
   }
 
+  @Test
+  void should_pass_threads_setting_to_parser() {
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SurefireJavaParser.THREADS_KEY, 3);
+    SurefireJavaParser parser = mock(SurefireJavaParser.class);
+    SensorContext context = mock(SensorContext.class);
+
+    new SurefireSensor(parser, settings.asConfig(), fs, pathResolver).collect(context, Collections.emptyList());
+    verify(parser).collect(context, Collections.emptyList(), false, 3);
+  }
+
   @Test
   void shouldHandleTestSuiteDetails() throws URISyntaxException {
     SensorContextTester context = SensorContextTester.create(new File(""));
@@ -109,4 +109,23 @@ class UnitTestIndexTest {
 
     assertThat(index.size()).isZero();
   }
+
+  @Test
+  void shouldMergeIndexes() {
+    UnitTestIndex index = new UnitTestIndex();
+    index.index("org.sonar.Foo").add(new UnitTestResult().setName("test1").setStatus(UnitTestResult.STATUS_ERROR).setDurationMilliseconds(500L));
+    UnitTestIndex other = new UnitTestIndex();
+    other.index("org.sonar.Foo").add(new UnitTestResult().setName("test2").setStatus(UnitTestResult.STATUS_OK).setDurationMilliseconds(200L));
+    other.index("org.sonar.Bar").add(new UnitTestResult().setName("test3").setStatus(UnitTestResult.STATUS_SKIPPED).setDurationMilliseconds(0L));
+
+    index.merge(other);
+
+    assertThat(index.getClassnames()).containsOnly("org.sonar.Foo", "org.sonar.Bar");
+    UnitTestClassReport report = index.get("org.sonar.Foo");
+    assertThat(report.getResults()).extracting(UnitTestResult::getName).containsExactly("test1", "test2");
+    assertThat(report.getTests()).isEqualTo(2);
+    assertThat(report.getErrors()).isEqualTo(1);
+    assertThat(report.getDurationMilliseconds()).isEqualTo(500L + 200L);
+    assertThat(index.get("org.sonar.Bar").getSkipped()).isEqualTo(1);
+  }
 }
@@ -21,10 +21,22 @@ package org.sonar.plugins.java;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.sonar.api.batch.fs.FilePredicate;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -37,6 +49,7 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.checks.CheckList;
+import org.sonar.java.checks.xml.PrefilteredXmlCheck;
 import org.sonarsource.analyzer.commons.ProgressReport;
 import org.sonarsource.analyzer.commons.xml.ParseException;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -46,6 +59,8 @@ public class XmlFileSensor implements Sensor {
 
   private static final Logger LOG = Loggers.get(XmlFileSensor.class);
 
+  public static final String THREADS_KEY = "sonar.java.internal.xml.threads";
+
   private final Checks<SonarXmlCheck> checks;
 
   public XmlFileSensor(CheckFactory checkFactory) {
@@ -57,6 +72,10 @@ public class XmlFileSensor implements Sensor {
     descriptor.name("JavaXmlSensor").onlyWhenConfiguration(configuration -> !checks.all().isEmpty());
   }
 
+  /**
+   * Files are parsed in the current thread, or ahead of the analysis by a pool of the configured number of threads. Checks are not
+   * thread-safe (they keep the file being analyzed and their XPath expressions), so they always run in the current thread, file by file.
+   */
   @Override
   public void execute(SensorContext context) {
     FileSystem fs = context.fileSystem();
@@ -75,19 +94,49 @@ public class XmlFileSensor implements Sensor {
     ProgressReport progressReport = new ProgressReport("Report about progress of Java XML analyzer", TimeUnit.SECONDS.toMillis(10));
     progressReport.start(inputFiles.stream().map(InputFile::toString).collect(Collectors.toList()));
 
+    int threads = Math.max(1, context.config().getInt(THREADS_KEY).orElse(1));
+    ExecutorService executor = threads == 1 ? null : Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "sonar-java-xml-parser");
+      thread.setDaemon(true);
+      return thread;
+    });
     boolean successfullyCompleted = false;
     boolean cancelled = false;
     try {
-      for (InputFile inputFile : inputFiles) {
+      Deque<Future<ParsedFile>> parsedFiles = new ArrayDeque<>();
+      int next = 0;
+      for (int i = 0; i < inputFiles.size(); i++) {
         if (context.isCancelled()) {
           cancelled = true;
           break;
         }
-        scanFile(context, inputFile);
+        ParsedFile parsedFile;
+        if (executor == null) {
+          parsedFile = parse(inputFiles.get(i));
+        } else {
+          // keep a bounded number of parsed documents ahead of the analysis
+          while (next < inputFiles.size() && next < i + 2 * threads) {
+            InputFile inputFile = inputFiles.get(next);
+            parsedFiles.add(executor.submit((Callable<ParsedFile>) () -> parse(inputFile)));
+            next++;
+          }
+          parsedFile = parsedFiles.remove().get();
+        }
+        if (parsedFile != null) {
+          scanFile(context, parsedFile);
+        }
         progressReport.nextFile();
       }
       successfullyCompleted = !cancelled;
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted while analyzing XML files.");
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOG.warn("Failed to analyze XML files.", e);
     } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
       if (successfullyCompleted) {
         progressReport.stop();
       } else {
@@ -96,22 +145,91 @@ public class XmlFileSensor implements Sensor {
     }
   }
 
-  private void scanFile(SensorContext context, InputFile inputFile) {
-    XmlFile xmlFile;
+  /**
+   * @return the parsed file with the checks interested in it, or null if no check is interested in the file or if it can not be parsed
+   */
+  @CheckForNull
+  private ParsedFile parse(InputFile inputFile) {
     try {
-      xmlFile = XmlFile.create(inputFile);
+      List<SonarXmlCheck> interestedChecks = interestedChecks(inputFile);
+      if (interestedChecks.isEmpty()) {
+        return null;
+      }
+      return new ParsedFile(XmlFile.create(inputFile), interestedChecks);
     } catch (ParseException | IOException e) {
       LOG.debug("Skipped '{}' due to parsing error", inputFile);
-      return;
     } catch (Exception e) {
       // Our own XML parsing may have failed somewhere, so logging as warning to appear in logs
       LOG.warn(String.format("Unable to analyse file '%s'.", inputFile), e);
-      return;
     }
+    return null;
+  }
+
+  private List<SonarXmlCheck> interestedChecks(InputFile inputFile) throws IOException {
+    List<SonarXmlCheck> result = new ArrayList<>();
+    String contents = null;
+    String rootElement = null;
+    for (SonarXmlCheck check : checks.all()) {
+      if (!(check instanceof PrefilteredXmlCheck)) {
+        result.add(check);
+        continue;
+      }
+      if (contents == null) {
+        contents = inputFile.contents();
+        rootElement = rootElement(contents);
+        if (rootElement == null) {
+          // the file will fail to parse or has no root element, let all the checks go through the usual path
+          return new ArrayList<>(checks.all());
+        }
+      }
+      if (((PrefilteredXmlCheck) check).isInterestedIn(inputFile.filename(), rootElement, contents)) {
+        result.add(check);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads the file up to its first element, without resolving DTDs nor external entities.
+   */
+  @CheckForNull
+  @VisibleForTesting
+  static String rootElement(String contents) {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    XMLStreamReader reader = null;
+    try {
+      reader = factory.createXMLStreamReader(new StringReader(contents));
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamReader.START_ELEMENT) {
+          String name = reader.getLocalName();
+          return name.substring(name.indexOf(':') + 1);
+        }
+      }
+      return null;
+    } catch (XMLStreamException | RuntimeException e) {
+      return null;
+    } finally {
+      close(reader);
+    }
+  }
+
+  private static void close(@CheckForNull XMLStreamReader reader) {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        // nothing was held by the reader
+      }
+    }
+  }
 
-    checks.all().forEach(check -> {
+  private void scanFile(SensorContext context, ParsedFile parsedFile) {
+    parsedFile.checks.forEach(check -> {
       RuleKey ruleKey = checks.ruleKey(check);
-      scanFile(context, xmlFile, check, ruleKey);
+      scanFile(context, parsedFile.xmlFile, check, ruleKey);
     });
   }
 
@@ -123,4 +241,14 @@ public class XmlFileSensor implements Sensor {
       LOG.error(String.format("Failed to analyze '%s' with rule %s", xmlFile.getInputFile().toString(), ruleKey), e);
     }
   }
+
+  private static class ParsedFile {
+    private final XmlFile xmlFile;
+    private final List<SonarXmlCheck> checks;
+
+    ParsedFile(XmlFile xmlFile, List<SonarXmlCheck> checks) {
+      this.xmlFile = xmlFile;
+      this.checks = checks;
+    }
+  }
 }
@@ -197,8 +197,54 @@ class XmlFileSensorTest {
     assertThat(logTester.logs(LoggerLevel.ERROR).get(0)).isEqualTo("Failed to analyze 'test.xml' with rule java:S3281");
   }
 
+  @Test
+  void files_without_interested_checks_are_not_parsed() throws Exception {
+    XmlFileSensor sensor = new XmlFileSensor(new CheckFactory(activeRules()));
+
+    DefaultInputFile inputFile = TestInputFileBuilder.create("moduleKey", "beans.xml")
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents("<beans>\n  <bean class=\"A\" />\n</beans>")
+      .build();
+    DefaultInputFile spied = Mockito.spy(inputFile);
+    context.fileSystem().add(spied);
+    sensor.execute(context);
+
+    assertThat(context.allIssues()).isEmpty();
+    // read once to find the root element, never parsed
+    Mockito.verify(spied, Mockito.times(1)).contents();
+  }
+
+  @Test
+  void files_are_parsed_in_parallel() throws Exception {
+    XmlFileSensor sensor = new XmlFileSensor(new CheckFactory(activeRules()));
+    context.settings().setProperty(XmlFileSensor.THREADS_KEY, 4);
+    for (int i = 0; i < 10; i++) {
+      addFileWithIssueNamed("test" + i + ".xml");
+    }
+    // S3281 does not apply to ejb-jar.xml
+    addFileWithIssueNamed("ejb-jar.xml");
+    sensor.execute(context);
+
+    assertThat(context.allIssues()).hasSize(10);
+    assertThat(context.allIssues()).allMatch(issue -> issue.primaryLocation().textRange().start().line() == 5);
+  }
+
+  @Test
+  void root_element() {
+    assertThat(XmlFileSensor.rootElement("<?xml version=\"1.0\"?>\n<!-- comment -->\n<ejb-jar><a/></ejb-jar>")).isEqualTo("ejb-jar");
+    assertThat(XmlFileSensor.rootElement("<!DOCTYPE web-app PUBLIC \"-//Sun Microsystems, Inc.//DTD Web Application 2.3//EN\" " +
+      "\"http://java.sun.com/dtd/web-app_2_3.dtd\">\n<web-app></web-app>")).isEqualTo("web-app");
+    assertThat(XmlFileSensor.rootElement("<b:beans xmlns:b=\"http://www.springframework.org/schema/beans\"></b:beans>")).isEqualTo("beans");
+    assertThat(XmlFileSensor.rootElement("")).isNull();
+    assertThat(XmlFileSensor.rootElement("<ejb-jar")).isNull();
+  }
+
   private InputFile addFileWithIssue(String extension) {
-    DefaultInputFile inputFile = TestInputFileBuilder.create("moduleKey", "test." + extension)
+    return addFileWithIssueNamed("test." + extension);
+  }
+
+  private InputFile addFileWithIssueNamed(String fileName) {
+    DefaultInputFile inputFile = TestInputFileBuilder.create("moduleKey", fileName)
       .setCharset(StandardCharsets.UTF_8)
       .setContents("<ejb-jar>\n" +
         "  <assembly-descriptor>\n" +